@@ -0,0 +1,122 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.github.adamorgan.api.LibraryBuilder;
+import com.github.adamorgan.api.utils.AdmissionPolicy;
+import com.github.adamorgan.internal.LibraryImpl;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures how fast requests are submitted by 1, 8 and 64 producer threads against a local node.
+ * <br>Submission throughput only covers the time spent in {@code queue()}, completion throughput waits for all responses.
+ *
+ * <p>Arguments: {@code [host] [requests per round]}
+ */
+public final class SubmissionBenchmark
+{
+    public static final String TEST_QUERY = "SELECT * FROM system.local";
+
+    private static final int[] PRODUCERS = {1, 8, 64};
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws InterruptedException
+    {
+        String host = args.length > 0 ? args[0] : "127.0.0.1";
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 64_000;
+
+        LibraryImpl api = LibraryBuilder.createLight(InetSocketAddress.createUnresolved(host, 9042), "cassandra", "cassandra")
+                .setMaxQueueSize(requests)
+                .setAdmissionPolicy(AdmissionPolicy.BLOCK)
+                .setEnableDebug(false)
+                .build();
+        api.awaitReady();
+
+        // Warm up the JIT and the buffer pools before measuring
+        for (int producers : PRODUCERS)
+            run(api, producers, requests);
+
+        System.out.printf("%-10s %15s %15s%n", "producers", "submit (req/s)", "complete (req/s)");
+        for (int producers : PRODUCERS)
+        {
+            long submitted = 0, completed = 0;
+            for (int round = 0; round < ROUNDS; round++)
+            {
+                long[] result = run(api, producers, requests);
+                submitted += result[0];
+                completed += result[1];
+            }
+            System.out.printf("%-10d %15d %15d%n", producers,
+                    Math.round(requests * ROUNDS / (submitted / 1e9)),
+                    Math.round(requests * ROUNDS / (completed / 1e9)));
+        }
+
+        api.shutdown();
+    }
+
+    /**
+     * Runs one round and returns the time until all requests were submitted and until all of them completed, in nanoseconds.
+     */
+    private static long[] run(LibraryImpl api, int producers, int requests) throws InterruptedException
+    {
+        int perProducer = requests / producers;
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch submitted = new CountDownLatch(producers);
+        CountDownLatch completed = new CountDownLatch(perProducer * producers);
+        AtomicInteger failures = new AtomicInteger();
+
+        for (int i = 0; i < producers; i++)
+        {
+            Thread producer = new Thread(() ->
+            {
+                try
+                {
+                    start.await();
+                }
+                catch (InterruptedException e)
+                {
+                    return;
+                }
+
+                for (int j = 0; j < perProducer; j++)
+                {
+                    api.sendRequest(TEST_QUERY).queue(response -> completed.countDown(), error ->
+                    {
+                        failures.incrementAndGet();
+                        completed.countDown();
+                    });
+                }
+                submitted.countDown();
+            }, "Producer " + i);
+            producer.setDaemon(true);
+            producer.start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        submitted.await();
+        long submitTime = System.nanoTime() - begin;
+        completed.await(1, TimeUnit.MINUTES);
+        long completeTime = System.nanoTime() - begin;
+
+        if (failures.get() > 0)
+            System.out.println(failures.get() + " requests failed");
+        return new long[] { submitTime, completeTime };
+    }
+}
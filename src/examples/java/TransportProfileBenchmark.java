@@ -0,0 +1,119 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import com.github.adamorgan.api.LibraryBuilder;
+import com.github.adamorgan.api.utils.FlushMode;
+import com.github.adamorgan.api.utils.TransportProfile;
+import com.github.adamorgan.internal.LibraryImpl;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the transport presets against a local node.
+ * <br>Every preset runs the same query with a fixed amount of concurrent requests and reports throughput and latency percentiles.
+ *
+ * <p>Arguments: {@code [host] [requests] [concurrency]}
+ */
+public final class TransportProfileBenchmark
+{
+    public static final String TEST_QUERY = "SELECT * FROM system.local";
+
+    public static void main(String[] args) throws InterruptedException
+    {
+        String host = args.length > 0 ? args[0] : "127.0.0.1";
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+
+        Map<String, TransportProfile> profiles = new LinkedHashMap<>();
+        profiles.put("DEFAULT", TransportProfile.DEFAULT);
+        profiles.put("LOW_LATENCY", TransportProfile.LOW_LATENCY);
+        profiles.put("THROUGHPUT", TransportProfile.THROUGHPUT);
+        profiles.put("BULK", TransportProfile.BULK);
+
+        InetSocketAddress address = InetSocketAddress.createUnresolved(host, 9042);
+
+        System.out.printf("%-12s %10s %10s %10s %10s%n", "profile", "req/s", "p50 (us)", "p99 (us)", "max (us)");
+        for (Map.Entry<String, TransportProfile> entry : profiles.entrySet())
+        {
+            FlushMode flushMode = entry.getValue() == TransportProfile.LOW_LATENCY ? FlushMode.LATENCY : FlushMode.THROUGHPUT;
+
+            LibraryImpl api = LibraryBuilder.createLight(address, "cassandra", "cassandra")
+                    .setTransportProfile(entry.getValue())
+                    .setFlushMode(flushMode)
+                    .setEnableDebug(false)
+                    .build();
+            api.awaitReady();
+
+            // Warm up the JIT and the buffer pools before measuring
+            run(api, requests / 10, concurrency);
+            long[] latencies = new long[requests];
+            long start = System.nanoTime();
+            run(api, latencies, concurrency);
+            long duration = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            System.out.printf("%-12s %10d %10d %10d %10d%n", entry.getKey(),
+                    Math.round(requests / (duration / 1e9)),
+                    TimeUnit.NANOSECONDS.toMicros(latencies[requests / 2]),
+                    TimeUnit.NANOSECONDS.toMicros(latencies[(int) (requests * 0.99)]),
+                    TimeUnit.NANOSECONDS.toMicros(latencies[requests - 1]));
+
+            api.shutdown();
+        }
+    }
+
+    private static void run(LibraryImpl api, int requests, int concurrency) throws InterruptedException
+    {
+        run(api, new long[requests], concurrency);
+    }
+
+    private static void run(LibraryImpl api, long[] latencies, int concurrency) throws InterruptedException
+    {
+        Semaphore permits = new Semaphore(concurrency);
+        CountDownLatch latch = new CountDownLatch(latencies.length);
+        AtomicInteger failures = new AtomicInteger();
+
+        for (int i = 0; i < latencies.length; i++)
+        {
+            permits.acquire();
+            final int index = i;
+            final long sent = System.nanoTime();
+            api.sendRequest(TEST_QUERY).queue(response ->
+            {
+                latencies[index] = System.nanoTime() - sent;
+                permits.release();
+                latch.countDown();
+            }, error ->
+            {
+                failures.incrementAndGet();
+                permits.release();
+                latch.countDown();
+            });
+        }
+
+        latch.await();
+        if (failures.get() > 0)
+            System.out.println(failures.get() + " requests failed");
+    }
+}
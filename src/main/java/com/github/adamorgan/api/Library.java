@@ -22,7 +22,11 @@ import com.github.adamorgan.api.hooks.ListenerAdapter;
 import com.github.adamorgan.api.requests.ObjectAction;
 import com.github.adamorgan.api.requests.objectaction.ObjectCallbackAction;
 import com.github.adamorgan.api.requests.objectaction.ObjectCreateAction;
+import com.github.adamorgan.api.utils.CallbackExecutor;
 import com.github.adamorgan.api.utils.Compression;
+import com.github.adamorgan.api.utils.RateLimit;
+import com.github.adamorgan.api.utils.RequestPriority;
+import com.github.adamorgan.api.utils.RetryDecision;
 import com.github.adamorgan.internal.requests.action.ObjectCallbackActionImpl;
 import com.github.adamorgan.internal.requests.action.ObjectCreateActionImpl;
 import com.github.adamorgan.internal.utils.Checks;
@@ -31,10 +35,12 @@ import io.netty.channel.EventLoopGroup;
 
 import javax.annotation.CheckReturnValue;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 public interface Library
 {
@@ -297,6 +303,66 @@ public interface Library
      */
     long getResponseTotal();
 
+    /**
+     * The amount of requests of the provided priority which wait for a free stream or connection.
+     * <br>A growing queue of a priority class shows that its requests are held back by the others or by the cluster.
+     *
+     * @param  priority
+     *         The priority class
+     *
+     * @return The queue depth of the priority class
+     */
+    int getQueueSize(@Nonnull RequestPriority priority);
+
+    /**
+     * How often the {@link com.github.adamorgan.api.utils.RetryPolicy RetryPolicy} returned a decision of the provided type
+     * for a request answered with an error response.
+     *
+     * @param  type
+     *         The type of decision
+     *
+     * @return The amount of decisions since the library was created
+     */
+    long getRetryDecisions(@Nonnull RetryDecision.Type type);
+
+    /**
+     * The amount of retries which were dropped, because the retry budget was exhausted or the request queue was full.
+     * <br>A growing amount shows that the cluster rejects more requests than the retry budget allows to retry.
+     *
+     * @return The amount of denied retries since the library was created
+     */
+    long getRetriesDenied();
+
+    /**
+     * Estimates the provided percentile of the heartbeat round trip times, measured on all connections of this instance.
+     * <br>Heartbeats are sent on connections which were idle for the interval set by
+     * {@link LibraryBuilder#setHeartbeatInterval(long, TimeUnit) LibraryBuilder.setHeartbeatInterval(long, TimeUnit)}.
+     *
+     * @param  percentile
+     *         The percentile between {@code 0} (exclusive) and {@code 100}
+     * @param  unit
+     *         The time unit of the returned value
+     *
+     * @throws IllegalArgumentException
+     *         If the percentile is not between {@code 0} and {@code 100}, or the unit is null
+     *
+     * @return The percentile in the provided unit, or {@code -1} if no heartbeat was answered yet
+     */
+    long getHeartbeatRtt(double percentile, @Nonnull TimeUnit unit);
+
+    /**
+     * The rate limit configured for the provided tag, with its current rate and wait times.
+     *
+     * @param  tag
+     *         The tag of the rate limit
+     *
+     * @return The {@link RateLimit}, or {@code null} if no rate limit is configured for the tag
+     *
+     * @see    LibraryBuilder#setRateLimit(String, double, int)
+     */
+    @Nullable
+    RateLimit getRateLimit(@Nonnull String tag);
+
     /**
      * {@link EventLoopGroup ExecutorService} used to handle {@link ObjectAction ObjectAction} callbacks
      * and completions.
@@ -308,6 +374,18 @@ public interface Library
     @Nonnull
     EventLoopGroup getCallbackPool();
 
+    /**
+     * The {@link CallbackExecutor} which runs the success and failure callbacks of {@link ObjectAction ObjectActions},
+     * unless a request provides its own executor with {@link ObjectAction#queueOn(java.util.concurrent.Executor)}.
+     * <br>Its queue depth shows whether callbacks keep up with the responses.
+     *
+     * @return The {@link CallbackExecutor}
+     *
+     * @see    com.github.adamorgan.api.LibraryBuilder#setCallbackExecutor(CallbackExecutor)
+     */
+    @Nonnull
+    CallbackExecutor getCallbackExecutor();
+
     /**
      * Shutdown this {@link Library Library} instance, closing all its connections.
      * After this command is issued the {@link Library Library} Instance can not be used anymore.
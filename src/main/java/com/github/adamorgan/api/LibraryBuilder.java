@@ -20,16 +20,28 @@ import com.github.adamorgan.api.hooks.EventListener;
 import com.github.adamorgan.api.hooks.IEventManager;
 import com.github.adamorgan.api.hooks.InterfacedEventManager;
 import com.github.adamorgan.api.hooks.ListenerAdapter;
+import com.github.adamorgan.api.utils.AdmissionPolicy;
+import com.github.adamorgan.api.utils.CallbackExecutor;
 import com.github.adamorgan.api.utils.Compression;
 import com.github.adamorgan.api.utils.ConcurrentSessionController;
 import com.github.adamorgan.api.utils.ConfigFlag;
+import com.github.adamorgan.api.utils.FlushMode;
 import com.github.adamorgan.api.utils.SessionController;
+import com.github.adamorgan.api.utils.RetryPolicy;
+import com.github.adamorgan.api.utils.SpeculativeExecutionPolicy;
+import com.github.adamorgan.api.utils.TransportProfile;
 import com.github.adamorgan.internal.LibraryImpl;
+import com.github.adamorgan.internal.requests.StreamIdAllocator;
 import com.github.adamorgan.internal.utils.Checks;
 import com.github.adamorgan.internal.utils.LibraryLogger;
+import com.github.adamorgan.internal.utils.config.ConnectionConfig;
+import com.github.adamorgan.internal.utils.config.RateLimitConfig;
 import com.github.adamorgan.internal.utils.config.SessionConfig;
 import com.github.adamorgan.internal.utils.config.ThreadingConfig;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.handler.ssl.SslContext;
+import io.netty.util.Timer;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 
@@ -37,13 +49,17 @@ import javax.annotation.CheckReturnValue;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 public class LibraryBuilder
 {
@@ -51,7 +67,7 @@ public class LibraryBuilder
 
     protected final List<ListenerAdapter> listeners = new LinkedList<>();
 
-    protected final InetSocketAddress address;
+    protected final SocketAddress address;
     protected final String username;
     protected final String password;
 
@@ -63,6 +79,11 @@ public class LibraryBuilder
     protected boolean shutdownEventPool = true;
 
     protected boolean shutdownCallbackPool = true;
+    protected CallbackExecutor callbackExecutor = CallbackExecutor.INLINE;
+    protected boolean shutdownCallbackExecutor = false;
+
+    protected Timer timer = null;
+    protected boolean shutdownTimer = false;
 
     protected final EnumSet<ConfigFlag> flags = ConfigFlag.getDefault();
 
@@ -70,9 +91,34 @@ public class LibraryBuilder
     protected SessionController controller = null;
     protected int maxBufferSize = 1 << 6; // 64 KB
     protected int maxReconnectDelay = 900;
+    protected int connectionsPerHost = 1;
+    protected boolean warmSpare = false;
+    protected FlushMode flushMode = FlushMode.THROUGHPUT;
+    protected int maxPendingWrites = 128;
+    protected int maxPendingBytes = 64 * 1024;
+    protected int maxRequestsPerConnection = 1024;
+    protected boolean adaptiveConcurrency = false;
+    protected int maxQueueSize = 4096;
+    protected AdmissionPolicy admissionPolicy = AdmissionPolicy.REJECT;
+    protected long admissionTimeout = TimeUnit.SECONDS.toMillis(5);
+    protected int writeBufferLowWaterMark = 32 * 1024;
+    protected int writeBufferHighWaterMark = 64 * 1024;
+    protected SpeculativeExecutionPolicy speculativeExecutionPolicy = SpeculativeExecutionPolicy.NONE;
+    protected boolean requestCoalescing = false;
+    protected RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+    protected double retryRate = 10;
+    protected int retryBurst = 50;
+    protected final Map<String, RateLimitConfig> rateLimits = new HashMap<>();
+    protected TransportProfile transportProfile = TransportProfile.DEFAULT;
+    protected long heartbeatInterval = TimeUnit.SECONDS.toMillis(30);
+    protected long readTimeout = TimeUnit.SECONDS.toMillis(10);
+    protected SslContext sslContext = null;
+    protected boolean sslOffload = false;
+    protected ExecutorService sslPool = null;
+    protected boolean shutdownSslPool = false;
     protected Compression compression = Compression.NONE;
 
-    protected LibraryBuilder(@Nonnull InetSocketAddress address, @Nullable String username, @Nullable String password)
+    protected LibraryBuilder(@Nonnull SocketAddress address, @Nullable String username, @Nullable String password)
     {
         this.address = address;
         this.username = username == null ? StringUtils.EMPTY : username;
@@ -94,6 +140,53 @@ public class LibraryBuilder
         return create(address, null, null);
     }
 
+    /**
+     * Creates a builder which connects to a node running on the same host through a Unix domain socket,
+     * skipping the TCP stack for local traffic.
+     * <br>Other nodes of the cluster are still reached through TCP. Requires the epoll or kqueue transport.
+     *
+     * @param  address
+     *         The socket file of the local node
+     * @param  username
+     *         The username, or null
+     * @param  password
+     *         The password, or null
+     *
+     * @throws IllegalArgumentException
+     *         If the address is null
+     *
+     * @return The {@link LibraryBuilder} instance
+     *
+     * @see    TransportProfile#withTransport(TransportProfile.Transport)
+     */
+    @Nonnull
+    @CheckReturnValue
+    public static LibraryBuilder create(@Nonnull DomainSocketAddress address, @Nullable String username, @Nullable String password)
+    {
+        Checks.notNull(address, "Address");
+        return new LibraryBuilder(address, username, password);
+    }
+
+    /**
+     * Creates a builder which connects to a node running on the same host through a Unix domain socket.
+     *
+     * @param  address
+     *         The socket file of the local node
+     *
+     * @throws IllegalArgumentException
+     *         If the address is null
+     *
+     * @return The {@link LibraryBuilder} instance
+     *
+     * @see    #create(DomainSocketAddress, String, String)
+     */
+    @Nonnull
+    @CheckReturnValue
+    public static LibraryBuilder create(@Nonnull DomainSocketAddress address)
+    {
+        return create(address, null, null);
+    }
+
     @Nonnull
     @CheckReturnValue
     public static LibraryBuilder createDefault(@Nonnull InetSocketAddress address, @Nullable String username, @Nullable String password)
@@ -158,6 +251,75 @@ public class LibraryBuilder
         return this;
     }
 
+    /**
+     * Encrypts all connections with the provided client {@link SslContext}.
+     * <br>Use {@link com.github.adamorgan.api.utils.SslUtil#forClient() SslUtil.forClient()} to create a context
+     * which prefers the native OpenSSL engine and resumes sessions when reconnecting to a node.
+     *
+     * <p>Default: {@code null} (plain text)
+     *
+     * @param  sslContext
+     *         The client {@link SslContext}, or null to disable encryption
+     *
+     * @throws IllegalArgumentException
+     *         If the context is a server context
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     */
+    @Nonnull
+    public LibraryBuilder setSslContext(@Nullable SslContext sslContext)
+    {
+        Checks.check(sslContext == null || sslContext.isClient(), "SslContext must be a client context");
+        this.sslContext = sslContext;
+        return this;
+    }
+
+    /**
+     * Whether the expensive parts of the TLS handshake, such as certificate validation,
+     * run on a separate thread instead of the I/O thread of the connection.
+     * <br>This keeps handshakes of new connections from delaying responses of established ones.
+     * Handshake tasks run on a dedicated pool of daemon threads, which is shut down together with the library.
+     *
+     * <p>Default: {@code false}
+     *
+     * @param  offload
+     *         True, to run handshake tasks outside the I/O thread
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     *
+     * @see    #setSslOffload(ExecutorService, boolean)
+     */
+    @Nonnull
+    public LibraryBuilder setSslOffload(boolean offload)
+    {
+        this.sslOffload = offload;
+        this.sslPool = null;
+        this.shutdownSslPool = false;
+        return this;
+    }
+
+    /**
+     * Runs the expensive parts of the TLS handshake, such as certificate validation,
+     * on the provided executor instead of the I/O thread of the connection.
+     *
+     * <p>Default: Handshakes are not offloaded
+     *
+     * @param  executor
+     *         The executor for handshake tasks, or null to run them on the I/O thread
+     * @param  automaticShutdown
+     *         Whether the executor is shut down once the library shuts down
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     */
+    @Nonnull
+    public LibraryBuilder setSslOffload(@Nullable ExecutorService executor, boolean automaticShutdown)
+    {
+        this.sslOffload = executor != null;
+        this.sslPool = executor;
+        this.shutdownSslPool = automaticShutdown;
+        return this;
+    }
+
     @Nonnull
     public LibraryBuilder setCompression(@Nonnull Compression compression)
     {
@@ -187,6 +349,96 @@ public class LibraryBuilder
         return this.setCallbackPool(threadFactory, threadFactory == null);
     }
 
+    /**
+     * Sets the executor which runs the success and failure callbacks of all requests.
+     * <br>Use {@link CallbackExecutor#bounded(int, int)} if callbacks may block or take long,
+     * so they do not delay other responses on the same connection.
+     *
+     * <p>Default: {@link CallbackExecutor#INLINE}
+     *
+     * @param  executor
+     *         The {@link CallbackExecutor}
+     * @param  automaticShutdown
+     *         Whether the executor is shut down once the library shuts down, disable this if the executor is shared by many libraries
+     *
+     * @throws IllegalArgumentException
+     *         If the executor is null
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     *
+     * @see    com.github.adamorgan.api.requests.ObjectAction#queueOn(java.util.concurrent.Executor)
+     */
+    @Nonnull
+    public LibraryBuilder setCallbackExecutor(@Nonnull CallbackExecutor executor, boolean automaticShutdown)
+    {
+        Checks.notNull(executor, "CallbackExecutor");
+        this.callbackExecutor = executor;
+        this.shutdownCallbackExecutor = automaticShutdown;
+        return this;
+    }
+
+    /**
+     * Sets the executor which runs the success and failure callbacks of all requests.
+     * <br>The executor is not shut down by the library, so it can be shared by many libraries.
+     *
+     * <p>Default: {@link CallbackExecutor#INLINE}
+     *
+     * @param  executor
+     *         The {@link CallbackExecutor}
+     *
+     * @throws IllegalArgumentException
+     *         If the executor is null
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     *
+     * @see    #setCallbackExecutor(CallbackExecutor, boolean)
+     */
+    @Nonnull
+    public LibraryBuilder setCallbackExecutor(@Nonnull CallbackExecutor executor)
+    {
+        return setCallbackExecutor(executor, false);
+    }
+
+    /**
+     * Sets the timer which drives request deadlines and requests delayed by a rate limit.
+     * <br>Timer tasks only hand off to the callback pool, so a timer can be shared by many libraries, for example all shards.
+     *
+     * <p>Default: A timer shared by all libraries without their own timer, which is never shut down
+     *
+     * @param  timer
+     *         The timer, or null to use the shared timer
+     * @param  automaticShutdown
+     *         Whether the timer is stopped once the library shuts down
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     */
+    @Nonnull
+    public LibraryBuilder setTimer(@Nullable Timer timer, boolean automaticShutdown)
+    {
+        this.timer = timer;
+        this.shutdownTimer = automaticShutdown;
+        return this;
+    }
+
+    /**
+     * Sets the timer which drives request deadlines and requests delayed by a rate limit.
+     * <br>The timer is not stopped by the library, so it can be shared by many libraries.
+     *
+     * <p>Default: A timer shared by all libraries without their own timer, which is never shut down
+     *
+     * @param  timer
+     *         The timer, or null to use the shared timer
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     *
+     * @see    #setTimer(Timer, boolean)
+     */
+    @Nonnull
+    public LibraryBuilder setTimer(@Nullable Timer timer)
+    {
+        return setTimer(timer, false);
+    }
+
     @Nonnull
     public LibraryBuilder setEventPool(@Nullable ExecutorService executor, boolean automaticShutdown)
     {
@@ -243,6 +495,446 @@ public class LibraryBuilder
         return this;
     }
 
+    /**
+     * Sets the amount of connections opened to each node.
+     * <br>Every connection performs its own handshake and is served by its own event loop,
+     * requests are written to the connection with the fewest in-flight requests.
+     *
+     * <p>Default: {@code 1}
+     *
+     * @param  connectionsPerHost
+     *         The amount of connections per node
+     *
+     * @throws IllegalArgumentException
+     *         If the provided amount is not positive
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     */
+    @Nonnull
+    public LibraryBuilder setConnectionsPerHost(int connectionsPerHost)
+    {
+        Checks.positive(connectionsPerHost, "Connections per host");
+        this.connectionsPerHost = connectionsPerHost;
+        return this;
+    }
+
+    /**
+     * Whether to keep one additional connection to the contact point.
+     * <br>If the control connection is lost, another ready connection of the contact point takes over its role
+     * and only has to register for events again, instead of reconnecting the whole session.
+     * With more than one {@link #setConnectionsPerHost(int) connection per host} the other connections are used for this as well.
+     *
+     * <p>Default: {@code false}
+     *
+     * @param  enable
+     *         True, to open a spare connection to the contact point
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     */
+    @Nonnull
+    public LibraryBuilder setWarmSpare(boolean enable)
+    {
+        this.warmSpare = enable;
+        return this;
+    }
+
+    /**
+     * Sets the strategy used to flush written requests to the socket.
+     * <br>{@link FlushMode#THROUGHPUT THROUGHPUT} batches all requests written within one event loop iteration
+     * into a single flush, {@link FlushMode#LATENCY LATENCY} flushes every request on its own.
+     *
+     * <p>Default: {@link FlushMode#THROUGHPUT THROUGHPUT}
+     *
+     * @param  flushMode
+     *         The flush mode to use
+     *
+     * @throws IllegalArgumentException
+     *         If the provided flush mode is null
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     *
+     * @see    #setFlushThreshold(int, int)
+     */
+    @Nonnull
+    public LibraryBuilder setFlushMode(@Nonnull FlushMode flushMode)
+    {
+        Checks.notNull(flushMode, "Flush mode");
+        this.flushMode = flushMode;
+        return this;
+    }
+
+    /**
+     * Sets the limits after which pending requests are flushed right away in {@link FlushMode#THROUGHPUT THROUGHPUT} mode,
+     * instead of waiting for the end of the event loop iteration.
+     *
+     * <p>Default: {@code 128} requests or {@code 64 KiB}
+     *
+     * @param  maxPendingWrites
+     *         The amount of pending requests which triggers a flush
+     * @param  maxPendingBytes
+     *         The amount of pending bytes which triggers a flush
+     *
+     * @throws IllegalArgumentException
+     *         If either limit is not positive
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     */
+    @Nonnull
+    public LibraryBuilder setFlushThreshold(int maxPendingWrites, int maxPendingBytes)
+    {
+        Checks.positive(maxPendingWrites, "Max pending writes");
+        Checks.positive(maxPendingBytes, "Max pending bytes");
+        this.maxPendingWrites = maxPendingWrites;
+        this.maxPendingBytes = maxPendingBytes;
+        return this;
+    }
+
+    /**
+     * Sets the maximum amount of requests which may be in-flight on a single connection.
+     * <br>Once every connection reached this limit, or its outbound buffer exceeds the
+     * {@link #setWriteBufferWaterMark(int, int) high water mark}, new requests wait in the pending queue.
+     *
+     * <p>Default: {@code 1024}
+     *
+     * @param  maxRequestsPerConnection
+     *         The maximum amount of in-flight requests per connection, at most {@code 32768}
+     *
+     * @throws IllegalArgumentException
+     *         If the provided amount is not positive or exceeds the available stream ids
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     */
+    @Nonnull
+    public LibraryBuilder setMaxRequestsPerConnection(int maxRequestsPerConnection)
+    {
+        Checks.positive(maxRequestsPerConnection, "Max requests per connection");
+        Checks.check(maxRequestsPerConnection <= StreamIdAllocator.STREAM_COUNT, "Max requests per connection must not exceed %d", StreamIdAllocator.STREAM_COUNT);
+        this.maxRequestsPerConnection = maxRequestsPerConnection;
+        return this;
+    }
+
+    /**
+     * Whether the in-flight limit of each connection and node adapts to the observed response times.
+     * <br>The limit grows while response times stay flat and shrinks once requests start to queue up on the server,
+     * or when requests are rejected as {@link com.github.adamorgan.api.exceptions.ErrorResponse#OVERLOADED OVERLOADED}
+     * or time out. This settles close to the highest throughput of the cluster without tuning the limits by hand.
+     * <br>The {@link #setMaxRequestsPerConnection(int) maximum requests per connection} become the upper bound of the limit.
+     *
+     * <p>Default: {@code false}
+     *
+     * @param  enable
+     *         True, to adapt the in-flight limits
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     */
+    @Nonnull
+    public LibraryBuilder setAdaptiveConcurrency(boolean enable)
+    {
+        this.adaptiveConcurrency = enable;
+        return this;
+    }
+
+    /**
+     * Sets the maximum amount of requests waiting for a free connection.
+     * <br>Requests queued beyond this limit are handled by the configured {@link AdmissionPolicy}.
+     *
+     * <p>Default: {@code 4096}
+     *
+     * @param  maxQueueSize
+     *         The maximum amount of pending requests
+     *
+     * @throws IllegalArgumentException
+     *         If the provided amount is not positive
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     *
+     * @see    #setAdmissionPolicy(AdmissionPolicy)
+     */
+    @Nonnull
+    public LibraryBuilder setMaxQueueSize(int maxQueueSize)
+    {
+        Checks.positive(maxQueueSize, "Max queue size");
+        this.maxQueueSize = maxQueueSize;
+        return this;
+    }
+
+    /**
+     * Sets how requests are handled while the pending queue is full.
+     * <br>Rejected requests fail with a {@link java.util.concurrent.RejectedExecutionException RejectedExecutionException}.
+     *
+     * <p>Default: {@link AdmissionPolicy#REJECT REJECT}
+     *
+     * @param  admissionPolicy
+     *         The admission policy to use
+     *
+     * @throws IllegalArgumentException
+     *         If the provided policy is null
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     *
+     * @see    #setAdmissionTimeout(long, TimeUnit)
+     */
+    @Nonnull
+    public LibraryBuilder setAdmissionPolicy(@Nonnull AdmissionPolicy admissionPolicy)
+    {
+        Checks.notNull(admissionPolicy, "Admission policy");
+        this.admissionPolicy = admissionPolicy;
+        return this;
+    }
+
+    /**
+     * Sets how long a thread waits for a free slot in the pending queue with {@link AdmissionPolicy#BLOCK BLOCK}.
+     *
+     * <p>Default: {@code 5} seconds
+     *
+     * @param  timeout
+     *         The maximum time to wait
+     * @param  unit
+     *         The unit of the timeout
+     *
+     * @throws IllegalArgumentException
+     *         If the timeout is negative or the unit is null
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     */
+    @Nonnull
+    public LibraryBuilder setAdmissionTimeout(long timeout, @Nonnull TimeUnit unit)
+    {
+        Checks.notNegative(timeout, "Admission timeout");
+        Checks.notNull(unit, "Unit");
+        this.admissionTimeout = unit.toMillis(timeout);
+        return this;
+    }
+
+    /**
+     * Sets the outbound buffer limits of each connection.
+     * <br>A connection stops accepting new requests once more than {@code high} bytes are waiting to be written
+     * and resumes once the buffer dropped below {@code low} bytes.
+     *
+     * <p>Default: {@code 32 KiB} and {@code 64 KiB}
+     *
+     * @param  low
+     *         The low water mark in bytes
+     * @param  high
+     *         The high water mark in bytes
+     *
+     * @throws IllegalArgumentException
+     *         If either mark is not positive or low exceeds high
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     */
+    @Nonnull
+    public LibraryBuilder setWriteBufferWaterMark(int low, int high)
+    {
+        Checks.positive(low, "Low water mark");
+        Checks.positive(high, "High water mark");
+        Checks.check(low <= high, "Low water mark must not exceed the high water mark");
+        this.writeBufferLowWaterMark = low;
+        this.writeBufferHighWaterMark = high;
+        return this;
+    }
+
+    /**
+     * Whether concurrent identical {@link com.github.adamorgan.api.requests.ObjectAction#setIdempotent(boolean) idempotent}
+     * requests share a single execution.
+     * <br>Requests are identical if their encoded frames and bound values are equal byte for byte, which covers
+     * the statement, the bound values and the consistency. A request submitted while an identical one is still executed
+     * receives a copy of its response instead of being sent as well, which collapses read storms on hot keys into one query.
+     *
+     * <p>Default: {@code false}
+     *
+     * @param  enable
+     *         True, to coalesce identical idempotent requests
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     */
+    @Nonnull
+    public LibraryBuilder setRequestCoalescing(boolean enable)
+    {
+        this.requestCoalescing = enable;
+        return this;
+    }
+
+    /**
+     * Sets the policy used to send slow {@link com.github.adamorgan.api.requests.ObjectAction#setIdempotent(boolean) idempotent}
+     * requests to another node while the first execution is still pending.
+     * <br>The first response wins, the stream ids of the other executions are freed once their responses arrive.
+     *
+     * <p>Default: {@link SpeculativeExecutionPolicy#NONE NONE}
+     *
+     * @param  policy
+     *         The speculative execution policy
+     *
+     * @throws IllegalArgumentException
+     *         If the provided policy is null
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     */
+    @Nonnull
+    public LibraryBuilder setSpeculativeExecutionPolicy(@Nonnull SpeculativeExecutionPolicy policy)
+    {
+        Checks.notNull(policy, "Speculative execution policy");
+        this.speculativeExecutionPolicy = policy;
+        return this;
+    }
+
+    /**
+     * Sets the policy which decides whether a request answered with an error response, such as
+     * {@link com.github.adamorgan.api.exceptions.ErrorResponse#OVERLOADED OVERLOADED} or
+     * {@link com.github.adamorgan.api.exceptions.ErrorResponse#UNAVAILABLE UNAVAILABLE}, is sent again.
+     *
+     * <p>Default: {@link RetryPolicy#DEFAULT DEFAULT}
+     *
+     * @param  policy
+     *         The retry policy, {@link RetryPolicy#NONE NONE} to never retry
+     *
+     * @throws IllegalArgumentException
+     *         If the provided policy is null
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     *
+     * @see    #setRetryBudget(double, int)
+     */
+    @Nonnull
+    public LibraryBuilder setRetryPolicy(@Nonnull RetryPolicy policy)
+    {
+        Checks.notNull(policy, "Retry policy");
+        this.retryPolicy = policy;
+        return this;
+    }
+
+    /**
+     * Limits the retries of all requests with a token bucket.
+     * <br>Every retry takes a token, once the bucket is empty requests fail with their error response
+     * instead of being retried. This keeps retries from amplifying the load of an overloaded cluster.
+     *
+     * <p>Default: {@code 10} retries per second, with a burst of {@code 50}
+     *
+     * @param  rate
+     *         The retries allowed per second
+     * @param  burst
+     *         The retries allowed at once after a quiet period
+     *
+     * @throws IllegalArgumentException
+     *         If the rate or burst is not positive
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     */
+    @Nonnull
+    public LibraryBuilder setRetryBudget(double rate, int burst)
+    {
+        Checks.check(rate > 0, "Retry rate must be positive! Provided: %s", rate);
+        Checks.positive(burst, "Retry burst");
+        this.retryRate = rate;
+        this.retryBurst = burst;
+        return this;
+    }
+
+    /**
+     * Limits the rate of all requests with the provided {@link com.github.adamorgan.api.requests.ObjectAction#setRateLimitTag(String) tag},
+     * such as the requests of a batch job which shares the cluster with online traffic.
+     * <br>Requests above the rate are delayed until the rate allows them, they are not rejected.
+     * Setting the rate limit of a tag again replaces it.
+     *
+     * @param  tag
+     *         The tag of the rate limited requests
+     * @param  rate
+     *         The requests allowed per second
+     * @param  burst
+     *         The requests allowed at once after a quiet period
+     *
+     * @throws IllegalArgumentException
+     *         If the tag is null or empty, or the rate or burst is not positive
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     *
+     * @see    Library#getRateLimit(String)
+     */
+    @Nonnull
+    public LibraryBuilder setRateLimit(@Nonnull String tag, double rate, int burst)
+    {
+        Checks.notEmpty(tag, "Tag");
+        Checks.check(rate > 0, "Rate must be positive! Provided: %s", rate);
+        Checks.positive(burst, "Burst");
+        this.rateLimits.put(tag, new RateLimitConfig(rate, burst));
+        return this;
+    }
+
+    /**
+     * Sets the socket settings of all connections, such as {@code TCP_NODELAY}, the socket buffer sizes,
+     * the buffer allocator and the transport.
+     * <br>Use one of the presets {@link TransportProfile#LOW_LATENCY LOW_LATENCY}, {@link TransportProfile#THROUGHPUT THROUGHPUT}
+     * or {@link TransportProfile#BULK BULK} or a modified copy of them.
+     *
+     * <p>Default: {@link TransportProfile#DEFAULT DEFAULT}
+     *
+     * @param  profile
+     *         The transport profile
+     *
+     * @throws IllegalArgumentException
+     *         If the provided profile is null
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     */
+    @Nonnull
+    public LibraryBuilder setTransportProfile(@Nonnull TransportProfile profile)
+    {
+        Checks.notNull(profile, "Transport profile");
+        this.transportProfile = profile;
+        return this;
+    }
+
+    /**
+     * Sets how long a connection may be idle before a heartbeat is sent on it.
+     * <br>Busy connections don't send heartbeats, every read or write resets the idle time.
+     *
+     * <p>Default: {@code 30} seconds
+     *
+     * @param  interval
+     *         The idle time before a heartbeat, or {@code 0} to disable heartbeats
+     * @param  unit
+     *         The unit of the interval
+     *
+     * @throws IllegalArgumentException
+     *         If the interval is negative or the unit is null
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     */
+    @Nonnull
+    public LibraryBuilder setHeartbeatInterval(long interval, @Nonnull TimeUnit unit)
+    {
+        Checks.notNegative(interval, "Heartbeat interval");
+        Checks.notNull(unit, "Unit");
+        this.heartbeatInterval = unit.toMillis(interval);
+        return this;
+    }
+
+    /**
+     * Sets how long a connection may wait for any response without reading anything before it is considered dead.
+     * <br>A dead connection is closed, its idempotent in-flight requests are sent again on another connection
+     * and all other in-flight requests fail.
+     *
+     * <p>Default: {@code 10} seconds
+     *
+     * @param  timeout
+     *         The read timeout, or {@code 0} to disable the detection
+     * @param  unit
+     *         The unit of the timeout
+     *
+     * @throws IllegalArgumentException
+     *         If the timeout is negative or the unit is null
+     *
+     * @return The {@link LibraryBuilder} instance. Useful for chaining.
+     */
+    @Nonnull
+    public LibraryBuilder setReadTimeout(long timeout, @Nonnull TimeUnit unit)
+    {
+        Checks.notNegative(timeout, "Read timeout");
+        Checks.notNull(unit, "Unit");
+        this.readTimeout = unit.toMillis(timeout);
+        return this;
+    }
+
     /**
      * Changes the internally used EventManager.
      * <br>There are 2 provided Implementations:
@@ -293,13 +985,43 @@ public class LibraryBuilder
 
         ThreadingConfig config = new ThreadingConfig();
 
+        TransportProfile.Transport transport = transportProfile.getTransport();
+        if (address instanceof DomainSocketAddress && transport == TransportProfile.Transport.AUTO)
+            transport = ThreadingConfig.DOMAIN_SOCKET_TRANSPORT;
+        config.setTransport(transport);
+        if (address instanceof DomainSocketAddress && !config.isDomainSocketSupported())
+            throw new IllegalStateException("Unix domain sockets require the epoll or kqueue transport, selected transport: " + config.getTransport());
         config.setCallbackPool(threadFactory, shutdownCallbackPool);
         config.setEventPool(eventPool, shutdownEventPool);
+        config.setCallbackExecutor(callbackExecutor, shutdownCallbackExecutor);
+        config.setTimer(timer, shutdownTimer);
+        if (sslContext != null && sslOffload)
+            config.setSslPool(sslPool, shutdownSslPool);
 
         SessionController controller = this.controller == null ? new ConcurrentSessionController() : this.controller;
         SessionConfig sessionConfig = new SessionConfig(controller, maxBufferSize, maxReconnectDelay, flags);
 
-        LibraryImpl library = new LibraryImpl(token, address, compression, config, sessionConfig, eventManager);
+        ConnectionConfig connectionConfig = new ConnectionConfig();
+        connectionConfig.setConnectionsPerHost(connectionsPerHost);
+        connectionConfig.setWarmSpare(warmSpare);
+        connectionConfig.setFlushMode(flushMode);
+        connectionConfig.setFlushThreshold(maxPendingWrites, maxPendingBytes);
+        connectionConfig.setMaxRequestsPerConnection(maxRequestsPerConnection);
+        connectionConfig.setAdaptiveConcurrency(adaptiveConcurrency);
+        connectionConfig.setMaxQueueSize(maxQueueSize);
+        connectionConfig.setAdmissionPolicy(admissionPolicy, admissionTimeout);
+        connectionConfig.setWriteBufferWaterMark(writeBufferLowWaterMark, writeBufferHighWaterMark);
+        connectionConfig.setSpeculativeExecutionPolicy(speculativeExecutionPolicy);
+        connectionConfig.setRequestCoalescing(requestCoalescing);
+        connectionConfig.setRetryPolicy(retryPolicy);
+        connectionConfig.setRetryBudget(retryRate, retryBurst);
+        rateLimits.forEach((tag, limit) -> connectionConfig.setRateLimit(tag, limit.getRate(), limit.getBurst()));
+        connectionConfig.setTransportProfile(transportProfile);
+        connectionConfig.setHeartbeatInterval(heartbeatInterval);
+        connectionConfig.setReadTimeout(readTimeout);
+        connectionConfig.setSslContext(sslContext);
+
+        LibraryImpl library = new LibraryImpl(token, address, compression, config, sessionConfig, connectionConfig, eventManager);
 
         listeners.forEach(library::addEventListener);
         library.setStatus(Library.Status.INITIALIZED);
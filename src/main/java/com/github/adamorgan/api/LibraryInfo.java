@@ -22,6 +22,7 @@ package com.github.adamorgan.api;
 public class LibraryInfo
 {
     public static final byte PROTOCOL_VERSION = 4;
+    public static final byte MAX_PROTOCOL_VERSION = 5;
     public static final String PROJECT_NAME = "PROJECT_NAME";
     public static final String PROJECT_VERSION = "1.0.0";
 
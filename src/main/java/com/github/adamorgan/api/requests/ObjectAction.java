@@ -18,7 +18,10 @@ package com.github.adamorgan.api.requests;
 
 import com.github.adamorgan.annotations.UnknownNullability;
 import com.github.adamorgan.api.Library;
+import com.github.adamorgan.api.requests.concurrent.DelayedCompletableFuture;
 import com.github.adamorgan.api.requests.objectaction.ObjectCreateAction;
+import com.github.adamorgan.api.utils.RequestPriority;
+import com.github.adamorgan.internal.LibraryImpl;
 import com.github.adamorgan.internal.requests.action.ObjectActionImpl;
 import com.github.adamorgan.internal.requests.action.operator.MapObjectAction;
 import com.github.adamorgan.internal.utils.Checks;
@@ -33,6 +36,8 @@ import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -87,6 +92,86 @@ public interface ObjectAction<T>
         return submit(false);
     }
 
+    /**
+     * Submits this request after the provided delay.
+     * <br>The delay is kept by the library timer, the request is submitted by the callback pool once it has passed.
+     *
+     * @param  delay
+     *         The delay after which this request is submitted
+     * @param  unit
+     *         The unit of the delay
+     *
+     * @throws IllegalArgumentException
+     *         If the provided TimeUnit is null
+     *
+     * @return {@link DelayedCompletableFuture} representing the delayed request,
+     *         cancelling it before the delay has passed prevents the submission
+     */
+    @Nonnull
+    @CheckReturnValue
+    default DelayedCompletableFuture<T> submitAfter(long delay, @Nonnull TimeUnit unit)
+    {
+        Checks.notNull(unit, "TimeUnit");
+        LibraryImpl api = (LibraryImpl) getLibrary();
+        return DelayedCompletableFuture.make(api.getTimer(), api.getCallbackPool(), delay, unit, future -> () ->
+        {
+            if (future.isDone())
+                return;
+            submit().whenComplete((result, failure) ->
+            {
+                if (failure != null)
+                    future.completeExceptionally(failure);
+                else
+                    future.complete(result);
+            });
+        });
+    }
+
+    @Nonnull
+    default ScheduledFuture<?> queueAfter(long delay, @Nonnull TimeUnit unit)
+    {
+        return queueAfter(delay, unit, null);
+    }
+
+    @Nonnull
+    default ScheduledFuture<?> queueAfter(long delay, @Nonnull TimeUnit unit, @Nullable Consumer<? super T> success)
+    {
+        return queueAfter(delay, unit, success, null);
+    }
+
+    /**
+     * Queues this request after the provided delay.
+     * <br>The delay is kept by the library timer, the request is queued by the callback pool once it has passed.
+     *
+     * @param  delay
+     *         The delay after which this request is queued
+     * @param  unit
+     *         The unit of the delay
+     * @param  success
+     *         The success callback, or {@code null} to use the default
+     * @param  failure
+     *         The failure callback, or {@code null} to use the default
+     *
+     * @throws IllegalArgumentException
+     *         If the provided TimeUnit is null
+     *
+     * @return {@link ScheduledFuture} which completes once the request has been queued,
+     *         cancelling it before the delay has passed prevents the request
+     */
+    @Nonnull
+    default ScheduledFuture<?> queueAfter(long delay, @Nonnull TimeUnit unit, @Nullable Consumer<? super T> success, @Nullable Consumer<? super Throwable> failure)
+    {
+        Checks.notNull(unit, "TimeUnit");
+        LibraryImpl api = (LibraryImpl) getLibrary();
+        return DelayedCompletableFuture.<Void>make(api.getTimer(), api.getCallbackPool(), delay, unit, future -> () ->
+        {
+            if (future.isDone())
+                return;
+            queue(success, failure);
+            future.complete(null);
+        });
+    }
+
     @Nonnull
     static Consumer<? super Throwable> getDefaultFailure()
     {
@@ -111,6 +196,116 @@ public interface ObjectAction<T>
     @CheckReturnValue
     ObjectAction<T> deadline(long timestamp);
 
+    /**
+     * Whether this request can be executed more than once without changing the result.
+     *
+     * @return True, if this request is idempotent
+     *
+     * @see    #setIdempotent(boolean)
+     */
+    boolean isIdempotent();
+
+    /**
+     * Marks this request as safe to execute more than once, such as a read.
+     * <br>Idempotent requests may be sent again to another node by the configured
+     * {@link com.github.adamorgan.api.utils.SpeculativeExecutionPolicy SpeculativeExecutionPolicy}
+     * when the first execution is slow to respond.
+     *
+     * <p>Default: {@code false}
+     *
+     * @param  idempotent
+     *         True, if this request is idempotent
+     *
+     * @return The current ObjectAction for chaining convenience
+     */
+    @Nonnull
+    @CheckReturnValue
+    ObjectAction<T> setIdempotent(boolean idempotent);
+
+    /**
+     * The priority class of this request.
+     *
+     * @return The {@link RequestPriority}
+     *
+     * @see    #setPriority(RequestPriority)
+     */
+    @Nonnull
+    RequestPriority getPriority();
+
+    /**
+     * Sets the priority class of this request.
+     * <br>Requests waiting for a connection are drained by weighted round robin over the priority classes,
+     * and higher classes are written first when several requests are sent on the same connection.
+     * This keeps background scans and bulk loads from delaying user facing reads.
+     *
+     * <p>Default: {@link RequestPriority#NORMAL NORMAL}
+     *
+     * @param  priority
+     *         The priority class
+     *
+     * @throws IllegalArgumentException
+     *         If the priority is null
+     *
+     * @return The current ObjectAction for chaining convenience
+     */
+    @Nonnull
+    @CheckReturnValue
+    ObjectAction<T> setPriority(@Nonnull RequestPriority priority);
+
+    /**
+     * The tag of the client side rate limit this request is subject to.
+     *
+     * @return The tag, or {@code null} if this request is not rate limited
+     *
+     * @see    #setRateLimitTag(String)
+     */
+    @Nullable
+    String getRateLimitTag();
+
+    /**
+     * Subjects this request to the client side rate limit configured for the provided tag,
+     * such as the name of a batch job or a keyspace.
+     * <br>Requests above the rate of their tag are delayed until the rate allows them, they are not rejected.
+     * Tags without a configured rate limit are ignored.
+     *
+     * <p>Default: {@code null}
+     *
+     * @param  tag
+     *         The tag, or {@code null} to not rate limit this request
+     *
+     * @return The current ObjectAction for chaining convenience
+     *
+     * @see    com.github.adamorgan.api.LibraryBuilder#setRateLimit(String, double, int)
+     */
+    @Nonnull
+    @CheckReturnValue
+    ObjectAction<T> setRateLimitTag(@Nullable String tag);
+
+    /**
+     * The executor which runs the callbacks of this request, or {@code null} to use the
+     * {@link com.github.adamorgan.api.Library#getCallbackExecutor() library callback executor}.
+     *
+     * @return The executor, or {@code null}
+     *
+     * @see    #queueOn(Executor)
+     */
+    @Nullable
+    Executor getCallbackExecutor();
+
+    /**
+     * Runs the success and failure callbacks of this request on the provided executor,
+     * instead of the {@link com.github.adamorgan.api.Library#getCallbackExecutor() library callback executor}.
+     * <br>If the executor rejects the callback, it runs on the I/O thread instead.
+     *
+     * @param  executor
+     *         The executor, or {@code null} to use the library callback executor
+     *
+     * @return The current ObjectAction for chaining convenience
+     */
+    @Nonnull
+    @CheckReturnValue
+    ObjectAction<T> queueOn(@Nullable Executor executor);
+
     @Nonnull
     @CheckReturnValue
     default <O> ObjectAction<O> map(@Nonnull Function<? super T, ? extends O> map)
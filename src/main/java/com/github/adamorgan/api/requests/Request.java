@@ -18,6 +18,7 @@ package com.github.adamorgan.api.requests;
 
 import com.github.adamorgan.api.events.ExceptionEvent;
 import com.github.adamorgan.api.events.binary.BinaryRequestEvent;
+import com.github.adamorgan.api.utils.RequestPriority;
 import com.github.adamorgan.api.utils.request.ObjectData;
 import com.github.adamorgan.internal.LibraryImpl;
 import com.github.adamorgan.internal.requests.CallbackContext;
@@ -27,8 +28,12 @@ import io.netty.buffer.ByteBufUtil;
 
 import javax.annotation.CheckReturnValue;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 public class Request<T>
@@ -40,9 +45,13 @@ public class Request<T>
     protected final Consumer<? super Throwable> onFailure;
     protected final long deadline;
 
-    protected boolean done = false;
+    // Completed by the first of response, failure, timeout or cancellation, which may race on different threads
+    protected final AtomicBoolean done = new AtomicBoolean();
     protected boolean isCancelled = false;
 
+    // The body of the response which is handled right now, the first callback takes over the reference
+    private ByteBuf responseBody;
+
     public Request(ObjectActionImpl<T> objAction, ObjectData body, Consumer<? super T> onSuccess, Consumer<? super Throwable> onFailure, long deadline)
     {
         this.objAction = objAction;
@@ -73,6 +82,42 @@ public class Request<T>
         return body;
     }
 
+    /**
+     * Creates a copy of this request with another body, which completes the same callbacks.
+     *
+     * @param  body
+     *         The body of the copy
+     *
+     * @return The copy
+     */
+    @Nonnull
+    public Request<T> withBody(@Nonnull ObjectData body)
+    {
+        return new Request<>(objAction, body, onSuccess, onFailure, deadline);
+    }
+
+    /**
+     * The time at which this request times out, in epoch milliseconds.
+     *
+     * @return The deadline, or {@code 0} if this request has no deadline
+     */
+    public long getDeadline()
+    {
+        return deadline;
+    }
+
+    @Nonnull
+    public RequestPriority getPriority()
+    {
+        return objAction.getPriority();
+    }
+
+    @Nullable
+    public String getRateLimitTag()
+    {
+        return objAction.getRateLimitTag();
+    }
+
     public void cancel()
     {
         if (!this.isCancelled)
@@ -82,50 +127,90 @@ public class Request<T>
 
     public void onSuccess(T successObj)
     {
-        if (done)
+        if (!done.compareAndSet(false, true))
         {
             return;
         }
-        done = true;
         ObjectActionImpl.LOG.trace("Scheduling success callback for request");
-        try (CallbackContext ___ = CallbackContext.getInstance())
-        {
-            ObjectActionImpl.LOG.trace("Running success callback for request");
-            onSuccess.accept(successObj);
-        }
-        catch (Throwable t)
+        runCallback(() ->
         {
-            ObjectActionImpl.LOG.error("Encountered error while processing success consumer", t);
-            if (t instanceof Error)
+            try (CallbackContext ___ = CallbackContext.getInstance())
             {
-                api.handleEvent(new ExceptionEvent(api, t, true));
-                throw (Error) t;
+                ObjectActionImpl.LOG.trace("Running success callback for request");
+                onSuccess.accept(successObj);
             }
-        }
+            catch (Throwable t)
+            {
+                ObjectActionImpl.LOG.error("Encountered error while processing success consumer", t);
+                if (t instanceof Error)
+                {
+                    api.handleEvent(new ExceptionEvent(api, t, true));
+                    throw (Error) t;
+                }
+            }
+        });
     }
 
     public void onFailure(Throwable failException)
     {
-        if (done)
+        if (!done.compareAndSet(false, true))
         {
             return;
         }
-        done = true;
-        try (CallbackContext ___ = CallbackContext.getInstance())
+        ObjectActionImpl.LOG.trace("Scheduling failure callback for request");
+        runCallback(() ->
         {
-            ObjectActionImpl.LOG.trace("Running failure callback for request");
-            onFailure.accept(failException);
-            if (failException instanceof Error)
-                api.handleEvent(new ExceptionEvent(api, failException, false));
-        }
-        catch (Throwable failure)
+            try (CallbackContext ___ = CallbackContext.getInstance())
+            {
+                ObjectActionImpl.LOG.trace("Running failure callback for request");
+                onFailure.accept(failException);
+                if (failException instanceof Error)
+                    api.handleEvent(new ExceptionEvent(api, failException, false));
+            }
+            catch (Throwable failure)
+            {
+                ObjectActionImpl.LOG.error("Encountered error while processing failure consumer", failure);
+                if (failure instanceof Error)
+                {
+                    api.handleEvent(new ExceptionEvent(api, failure, true));
+                    throw (Error) failure;
+                }
+            }
+        });
+    }
+
+    protected void runCallback(Runnable callback)
+    {
+        // The callback may read the response after the requester released it, so it holds its own reference
+        ByteBuf body = responseBody;
+        responseBody = null;
+        Runnable task = body == null ? callback : () ->
         {
-            ObjectActionImpl.LOG.error("Encountered error while processing failure consumer", failure);
-            if (failure instanceof Error)
+            try
             {
-                api.handleEvent(new ExceptionEvent(api, failure, true));
-                throw (Error) failure;
+                callback.run();
             }
+            finally
+            {
+                body.release();
+            }
+        };
+
+        Executor executor = objAction.getCallbackExecutor();
+        if (executor == null)
+        {
+            api.getCallbackExecutor().execute(task);
+            return;
+        }
+
+        try
+        {
+            executor.execute(task);
+        }
+        catch (RejectedExecutionException ex)
+        {
+            ObjectActionImpl.LOG.debug("Callback executor rejected the callback, running it on the current thread");
+            task.run();
         }
     }
 
@@ -144,7 +229,12 @@ public class Request<T>
         this.onFailure(new TimeoutException("ObjectAction has timed out"));
     }
 
-    private boolean isTimeout()
+    /**
+     * Whether the deadline of this request passed, without failing the request like {@link #isSkipped()} does.
+     *
+     * @return True, if the deadline passed
+     */
+    public boolean isTimeout()
     {
         return deadline > 0 && deadline < System.currentTimeMillis();
     }
@@ -170,8 +260,22 @@ public class Request<T>
     public void handleResponse(Response response)
     {
         ObjectActionImpl.LOG.trace("Handling response for request with content {}", "");
-        this.objAction.handleResponse(this, response);
-        api.handleEvent(new BinaryRequestEvent(this, response));
+        ByteBuf body = response.getBody().retain();
+        responseBody = body;
+        try
+        {
+            this.objAction.handleResponse(this, response);
+            api.handleEvent(new BinaryRequestEvent(this, response));
+        }
+        finally
+        {
+            // No callback was scheduled for this response
+            if (responseBody == body)
+            {
+                responseBody = null;
+                body.release();
+            }
+        }
     }
 
     @Override
@@ -16,6 +16,8 @@
 
 package com.github.adamorgan.api.requests.concurrent;
 
+import io.netty.util.Timer;
+
 import javax.annotation.CheckReturnValue;
 import javax.annotation.Nonnull;
 import java.util.concurrent.*;
@@ -31,6 +33,9 @@ import java.util.function.Function;
 public class DelayedCompletableFuture<T> extends CompletableFuture<T> implements ScheduledFuture<T>
 {
     private ScheduledFuture<?> future;
+    // Fully qualified, CompletableFuture declares a Timeout class of its own
+    private io.netty.util.Timeout timeout;
+    private long deadline;
 
     private DelayedCompletableFuture()
     {
@@ -56,6 +61,39 @@ public class DelayedCompletableFuture<T> extends CompletableFuture<T> implements
         return handle;
     }
 
+    /**
+     * Creates a new DelayedCompletableFuture scheduled on the supplied timer.
+     * <br>The timer only triggers the task, which then runs on the supplied executor.
+     *
+     * @param timer    The {@link Timer} to use for scheduling
+     * @param executor The {@link Executor} which runs the task once the delay has passed
+     * @param delay    The delay of the task
+     * @param unit     Conversion {@link TimeUnit} for the delay
+     * @param mapping  Conversion function which calls {@link #complete(Object)} of the future it receives
+     * @param <E>      The result type of the scheduled task
+     * @return DelayedCompletableFuture for the specified runnable
+     */
+    @Nonnull
+    @CheckReturnValue
+    public static <E> DelayedCompletableFuture<E> make(@Nonnull Timer timer, @Nonnull Executor executor, long delay, @Nonnull TimeUnit unit, @Nonnull Function<? super DelayedCompletableFuture<E>, ? extends Runnable> mapping)
+    {
+        DelayedCompletableFuture<E> handle = new DelayedCompletableFuture<>();
+        Runnable task = mapping.apply(handle);
+        handle.deadline = System.nanoTime() + unit.toNanos(delay);
+        handle.timeout = timer.newTimeout(timeout ->
+        {
+            try
+            {
+                executor.execute(task);
+            }
+            catch (RejectedExecutionException ex)
+            {
+                handle.completeExceptionally(ex);
+            }
+        }, delay, unit);
+        return handle;
+    }
+
     /**
      * Initializes the backing scheduled task for this promise.
      *
@@ -84,18 +122,26 @@ public class DelayedCompletableFuture<T> extends CompletableFuture<T> implements
         {
             future.cancel(mayInterruptIfRunning);
         }
+        if (timeout != null)
+        {
+            timeout.cancel();
+        }
         return super.cancel(mayInterruptIfRunning);
     }
 
     @Override
     public long getDelay(@Nonnull TimeUnit unit)
     {
+        if (future == null)
+            return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
         return future.getDelay(unit);
     }
 
     @Override
     public int compareTo(@Nonnull Delayed o)
     {
+        if (future == null)
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), o.getDelay(TimeUnit.NANOSECONDS));
         return future.compareTo(o);
     }
 }
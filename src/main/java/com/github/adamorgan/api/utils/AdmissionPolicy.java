@@ -0,0 +1,43 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.adamorgan.api.utils;
+
+/**
+ * Strategies for requests queued while the pending queue is full.
+ *
+ * @see com.github.adamorgan.api.LibraryBuilder#setMaxQueueSize(int)
+ * @see com.github.adamorgan.api.LibraryBuilder#setAdmissionPolicy(AdmissionPolicy)
+ */
+public enum AdmissionPolicy
+{
+    /**
+     * The new request fails immediately with a {@link java.util.concurrent.RejectedExecutionException RejectedExecutionException}.
+     */
+    REJECT,
+    /**
+     * The queuing thread waits for a free slot up to the configured admission timeout,
+     * the request fails with a {@link java.util.concurrent.RejectedExecutionException RejectedExecutionException} once it expires.
+     * <br>Requests queued from an event loop thread are never blocked and behave like {@link #REJECT}.
+     */
+    BLOCK,
+    /**
+     * The oldest pending request fails with a {@link java.util.concurrent.RejectedExecutionException RejectedExecutionException}
+     * to make room for the new request.
+     */
+    DROP_OLDEST
+}
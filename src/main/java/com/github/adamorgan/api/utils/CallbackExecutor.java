@@ -0,0 +1,178 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.adamorgan.api.utils;
+
+import com.github.adamorgan.internal.utils.Checks;
+import com.github.adamorgan.internal.utils.concurrent.CountingThreadFactory;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides which thread runs the success and failure callbacks of {@link com.github.adamorgan.api.requests.ObjectAction ObjectActions}.
+ * <br>Callbacks run {@link #INLINE inline} on the I/O thread that decoded the response by default,
+ * which is the fastest option for cheap callbacks, but a slow callback delays every other response of that connection.
+ *
+ * <p>If the executor rejects a callback, because its queue is full or it was shut down,
+ * the callback runs inline instead and is counted by {@link #getOverflowCount()}.
+ * A growing {@link #getQueueDepth() queue depth} or overflow count shows that callbacks are the bottleneck.
+ *
+ * @see com.github.adamorgan.api.LibraryBuilder#setCallbackExecutor(CallbackExecutor, boolean)
+ * @see com.github.adamorgan.api.requests.ObjectAction#queueOn(Executor)
+ */
+public final class CallbackExecutor implements Executor
+{
+    /**
+     * Runs callbacks directly on the I/O thread.
+     */
+    public static final CallbackExecutor INLINE = new CallbackExecutor(null);
+
+    private final Executor executor;
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final LongAdder overflowCount = new LongAdder();
+
+    private CallbackExecutor(Executor executor)
+    {
+        this.executor = executor;
+    }
+
+    /**
+     * Runs callbacks on the provided executor.
+     *
+     * @param  executor
+     *         The executor
+     *
+     * @throws IllegalArgumentException
+     *         If the executor is null
+     *
+     * @return The callback executor
+     */
+    @Nonnull
+    public static CallbackExecutor of(@Nonnull Executor executor)
+    {
+        Checks.notNull(executor, "Executor");
+        return new CallbackExecutor(executor);
+    }
+
+    /**
+     * Runs callbacks on a dedicated pool of daemon threads with a bounded queue.
+     * <br>Idle threads time out, the pool can be shared by many libraries and is shut down by {@link #shutdown()}.
+     *
+     * @param  threads
+     *         The amount of threads
+     * @param  queueSize
+     *         The maximum amount of callbacks waiting for a thread
+     *
+     * @throws IllegalArgumentException
+     *         If threads or queueSize is not positive
+     *
+     * @return The callback executor
+     */
+    @Nonnull
+    public static CallbackExecutor bounded(int threads, int queueSize)
+    {
+        Checks.positive(threads, "Threads");
+        Checks.positive(queueSize, "Queue size");
+        ThreadFactory factory = new CountingThreadFactory(() -> "Library", "Callback");
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize), factory);
+        executor.allowCoreThreadTimeOut(true);
+        return new CallbackExecutor(executor);
+    }
+
+    /**
+     * Whether callbacks run directly on the I/O thread.
+     *
+     * @return True, if callbacks are not offloaded
+     */
+    public boolean isInline()
+    {
+        return executor == null;
+    }
+
+    @Override
+    public void execute(@Nonnull Runnable command)
+    {
+        if (executor == null)
+        {
+            command.run();
+            return;
+        }
+
+        int depth = queueDepth.incrementAndGet();
+        maxQueueDepth.accumulateAndGet(depth, Math::max);
+        try
+        {
+            executor.execute(() ->
+            {
+                queueDepth.decrementAndGet();
+                command.run();
+            });
+        }
+        catch (RejectedExecutionException ex)
+        {
+            queueDepth.decrementAndGet();
+            overflowCount.increment();
+            command.run();
+        }
+    }
+
+    /**
+     * The amount of callbacks which were submitted but did not start yet.
+     *
+     * @return The current queue depth
+     */
+    public int getQueueDepth()
+    {
+        return queueDepth.get();
+    }
+
+    /**
+     * The highest {@link #getQueueDepth() queue depth} observed so far.
+     *
+     * @return The maximum queue depth
+     */
+    public int getMaxQueueDepth()
+    {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * The amount of callbacks which were rejected by the executor and ran inline instead.
+     *
+     * @return The overflow count
+     */
+    public long getOverflowCount()
+    {
+        return overflowCount.sum();
+    }
+
+    /**
+     * Shuts down the underlying executor, if it is an {@link ExecutorService}.
+     * <br>Callbacks which are already queued still run, later callbacks run inline.
+     *
+     * @see com.github.adamorgan.api.LibraryBuilder#setCallbackExecutor(CallbackExecutor, boolean)
+     */
+    public void shutdown()
+    {
+        if (executor instanceof ExecutorService)
+            ((ExecutorService) executor).shutdown();
+    }
+}
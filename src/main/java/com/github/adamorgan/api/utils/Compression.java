@@ -65,4 +65,35 @@ public enum Compression
     {
         return compressor.unpack(body);
     }
+
+    /**
+     * Compresses the payload of a protocol v5 segment, the uncompressed length is not part of the output.
+     *
+     * @param  body
+     *         The segment payload
+     *
+     * @return The compressed payload
+     */
+    @Nonnull
+    public ByteBuf packWithoutLength(@Nonnull ByteBuf body)
+    {
+        Checks.notNull(body, "Binary Object");
+        return compressor.packWithoutLength(body);
+    }
+
+    /**
+     * Decompresses the payload of a protocol v5 segment.
+     *
+     * @param  body
+     *         The compressed payload
+     * @param  length
+     *         The uncompressed length stored in the segment header
+     *
+     * @return The uncompressed payload
+     */
+    @Nonnull
+    public ByteBuf unpackWithoutLength(@Nonnull ByteBuf body, int length)
+    {
+        return compressor.unpackWithoutLength(body, length);
+    }
 }
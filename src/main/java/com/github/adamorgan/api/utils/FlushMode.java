@@ -0,0 +1,38 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.adamorgan.api.utils;
+
+/**
+ * Strategies for flushing written frames to the socket.
+ *
+ * @see com.github.adamorgan.api.LibraryBuilder#setFlushMode(FlushMode)
+ */
+public enum FlushMode
+{
+    /**
+     * Every request is flushed as soon as it is written, costing one syscall per request.
+     * <br>Best suited for low request rates, where waiting for more frames would only add latency.
+     */
+    LATENCY,
+    /**
+     * Frames are queued and flushed once per event loop iteration, or earlier once the configured
+     * amount of frames or bytes is pending.
+     * <br>Best suited for high request rates, where many small frames share a single syscall.
+     */
+    THROUGHPUT
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.adamorgan.api.utils;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client side rate limit of all requests with the same {@link com.github.adamorgan.api.requests.ObjectAction#setRateLimitTag(String) tag}.
+ * <br>Requests above the rate are delayed until the rate allows them, they are never rejected by the rate limit.
+ *
+ * @see com.github.adamorgan.api.LibraryBuilder#setRateLimit(String, double, int)
+ * @see com.github.adamorgan.api.Library#getRateLimit(String)
+ */
+public interface RateLimit
+{
+    @Nonnull
+    String getTag();
+
+    /**
+     * The configured rate.
+     *
+     * @return The requests allowed per second
+     */
+    double getRate();
+
+    /**
+     * The configured burst.
+     *
+     * @return The requests allowed at once after a quiet period
+     */
+    int getBurst();
+
+    /**
+     * The observed rate of requests with this tag, including delayed ones.
+     *
+     * @return The requests per second during the last second
+     */
+    double getCurrentRate();
+
+    /**
+     * The requests which are currently delayed by this rate limit.
+     *
+     * @return The amount of waiting requests
+     */
+    int getWaitingCount();
+
+    /**
+     * The requests which were delayed by this rate limit since the library was created.
+     *
+     * @return The amount of delayed requests
+     */
+    long getDelayedCount();
+
+    /**
+     * The average time a delayed request waited for the rate limit.
+     *
+     * @param  unit
+     *         The unit of the returned time
+     *
+     * @return The average wait time, or {@code 0} if no request was delayed yet
+     */
+    long getAverageWaitTime(@Nonnull TimeUnit unit);
+
+    /**
+     * The longest time a request waited for the rate limit.
+     *
+     * @param  unit
+     *         The unit of the returned time
+     *
+     * @return The longest wait time
+     */
+    long getMaxWaitTime(@Nonnull TimeUnit unit);
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.adamorgan.api.utils;
+
+/**
+ * Priority classes of requests, each with its own lane in the request queue.
+ * <br>Waiting requests are taken from the lanes by weighted round robin, so higher classes are served more often
+ * without starving lower ones. A new request only skips the queue if no request of the same or a higher class is waiting.
+ *
+ * @see com.github.adamorgan.api.requests.ObjectAction#setPriority(RequestPriority)
+ */
+public enum RequestPriority
+{
+    /**
+     * User facing requests which should never wait behind other work.
+     * <br>Critical requests are also kept by {@link com.github.adamorgan.api.requests.RequestManager#cancelRequests() cancelRequests()}.
+     */
+    CRITICAL(16),
+    /**
+     * The default priority.
+     */
+    NORMAL(4),
+    /**
+     * Scans, bulk loads and other work which can wait for everything else.
+     */
+    BACKGROUND(1);
+
+    private final int weight;
+
+    RequestPriority(int weight)
+    {
+        this.weight = weight;
+    }
+
+    /**
+     * The share of this class when waiting requests are drained, relative to the weights of the other classes.
+     *
+     * @return The weight
+     */
+    public int getWeight()
+    {
+        return weight;
+    }
+}
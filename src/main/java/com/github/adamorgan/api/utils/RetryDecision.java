@@ -0,0 +1,127 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.adamorgan.api.utils;
+
+import com.github.adamorgan.api.requests.objectaction.ObjectCreateAction;
+import com.github.adamorgan.internal.utils.Checks;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The outcome of a {@link RetryPolicy} for a request which failed with an error response.
+ *
+ * @see RetryPolicy#onError(com.github.adamorgan.api.requests.ObjectAction, com.github.adamorgan.api.exceptions.ErrorResponseException, int)
+ */
+public final class RetryDecision
+{
+    private static final RetryDecision RETRY_SAME = new RetryDecision(Type.RETRY_SAME, null);
+    private static final RetryDecision RETRY_NEXT = new RetryDecision(Type.RETRY_NEXT, null);
+    private static final RetryDecision FAIL = new RetryDecision(Type.FAIL, null);
+
+    private final Type type;
+    private final ObjectCreateAction.Consistency consistency;
+
+    private RetryDecision(Type type, ObjectCreateAction.Consistency consistency)
+    {
+        this.type = type;
+        this.consistency = consistency;
+    }
+
+    /**
+     * Sends the request again on the connection which answered with the error.
+     *
+     * @return The decision
+     */
+    @Nonnull
+    public static RetryDecision retrySame()
+    {
+        return RETRY_SAME;
+    }
+
+    /**
+     * Sends the request again to another node, or another connection of the same node if no other node is available.
+     *
+     * @return The decision
+     */
+    @Nonnull
+    public static RetryDecision retryNext()
+    {
+        return RETRY_NEXT;
+    }
+
+    /**
+     * Sends the request again with a lower consistency.
+     * <br>Requests without a consistency, such as prepare requests, fail instead.
+     *
+     * @param  consistency
+     *         The consistency of the retried request
+     *
+     * @throws IllegalArgumentException
+     *         If the consistency is null
+     *
+     * @return The decision
+     */
+    @Nonnull
+    public static RetryDecision downgrade(@Nonnull ObjectCreateAction.Consistency consistency)
+    {
+        Checks.notNull(consistency, "Consistency");
+        return new RetryDecision(Type.DOWNGRADE, consistency);
+    }
+
+    /**
+     * Fails the request with the received error.
+     *
+     * @return The decision
+     */
+    @Nonnull
+    public static RetryDecision fail()
+    {
+        return FAIL;
+    }
+
+    @Nonnull
+    public Type getType()
+    {
+        return type;
+    }
+
+    /**
+     * The consistency of a {@link Type#DOWNGRADE DOWNGRADE} decision.
+     *
+     * @return The consistency, or {@code null} for all other decisions
+     */
+    @Nullable
+    public ObjectCreateAction.Consistency getConsistency()
+    {
+        return consistency;
+    }
+
+    @Override
+    public String toString()
+    {
+        return consistency == null ? type.name() : type.name() + "(" + consistency + ")";
+    }
+
+    public enum Type
+    {
+        RETRY_SAME,
+        RETRY_NEXT,
+        DOWNGRADE,
+        FAIL
+    }
+}
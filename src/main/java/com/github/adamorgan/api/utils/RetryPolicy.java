@@ -0,0 +1,88 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.adamorgan.api.utils;
+
+import com.github.adamorgan.api.exceptions.ErrorResponse;
+import com.github.adamorgan.api.exceptions.ErrorResponseException;
+import com.github.adamorgan.api.requests.ObjectAction;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Decides what happens to a request which was answered with an error response.
+ * <br>Retries are limited by the retry budget of the library, once it is exhausted requests fail right away,
+ * so retries cannot multiply the load of an already overloaded cluster.
+ *
+ * <p>Policies are called on the I/O threads and must not block.
+ *
+ * @see com.github.adamorgan.api.LibraryBuilder#setRetryPolicy(RetryPolicy)
+ * @see com.github.adamorgan.api.LibraryBuilder#setRetryBudget(double, int)
+ */
+@FunctionalInterface
+public interface RetryPolicy
+{
+    /**
+     * Requests are never retried.
+     */
+    RetryPolicy NONE = (action, error, retries) -> RetryDecision.fail();
+
+    /**
+     * Retries each request at most once.
+     * <ul>
+     *     <li>{@link ErrorResponse#UNAVAILABLE UNAVAILABLE}, {@link ErrorResponse#IS_BOOTSTRAPPING IS_BOOTSTRAPPING}
+     *     and {@link ErrorResponse#UNPREPARED UNPREPARED} are sent to the next node, the request was not executed.</li>
+     *     <li>{@link ErrorResponse#OVERLOADED OVERLOADED} is sent to the next node if the request is idempotent.</li>
+     *     <li>{@link ErrorResponse#READ_TIMEOUT READ_TIMEOUT} and {@link ErrorResponse#WRITE_TIMEOUT WRITE_TIMEOUT}
+     *     are sent to the same node if the request is idempotent.</li>
+     * </ul>
+     * All other errors fail the request.
+     */
+    RetryPolicy DEFAULT = (action, error, retries) ->
+    {
+        if (retries > 0)
+            return RetryDecision.fail();
+        switch (error.getErrorResponse())
+        {
+            case UNAVAILABLE:
+            case IS_BOOTSTRAPPING:
+            case UNPREPARED:
+                return RetryDecision.retryNext();
+            case OVERLOADED:
+                return action.isIdempotent() ? RetryDecision.retryNext() : RetryDecision.fail();
+            case READ_TIMEOUT:
+            case WRITE_TIMEOUT:
+                return action.isIdempotent() ? RetryDecision.retrySame() : RetryDecision.fail();
+            default:
+                return RetryDecision.fail();
+        }
+    };
+
+    /**
+     * Decides how to handle an error response.
+     *
+     * @param  action
+     *         The failed request
+     * @param  error
+     *         The received error
+     * @param  retries
+     *         How often the request was retried already
+     *
+     * @return The {@link RetryDecision}
+     */
+    @Nonnull
+    RetryDecision onError(@Nonnull ObjectAction<?> action, @Nonnull ErrorResponseException error, int retries);
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.adamorgan.api.utils;
+
+import com.github.adamorgan.internal.utils.Checks;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when an idempotent request is sent again to another node while the first execution is still pending.
+ * <br>The first response of any execution completes the request, later responses are discarded.
+ *
+ * @see com.github.adamorgan.api.LibraryBuilder#setSpeculativeExecutionPolicy(SpeculativeExecutionPolicy)
+ * @see com.github.adamorgan.api.requests.ObjectAction#setIdempotent(boolean)
+ */
+public final class SpeculativeExecutionPolicy
+{
+    /**
+     * Requests are never executed speculatively.
+     */
+    public static final SpeculativeExecutionPolicy NONE = new SpeculativeExecutionPolicy(0, -1, 0);
+
+    private final int maxExecutions;
+    private final long delay;
+    private final double percentile;
+
+    private SpeculativeExecutionPolicy(int maxExecutions, long delay, double percentile)
+    {
+        this.maxExecutions = maxExecutions;
+        this.delay = delay;
+        this.percentile = percentile;
+    }
+
+    /**
+     * Starts another execution each time the provided delay passed without a response.
+     *
+     * @param  delay
+     *         The delay between executions
+     * @param  unit
+     *         The unit of the delay
+     * @param  maxExecutions
+     *         The maximum amount of speculative executions per request
+     *
+     * @throws IllegalArgumentException
+     *         If the delay is negative, the unit is null or maxExecutions is not positive
+     *
+     * @return The policy
+     */
+    @Nonnull
+    public static SpeculativeExecutionPolicy constant(long delay, @Nonnull TimeUnit unit, int maxExecutions)
+    {
+        Checks.notNegative(delay, "Delay");
+        Checks.notNull(unit, "Unit");
+        Checks.positive(maxExecutions, "Max executions");
+        return new SpeculativeExecutionPolicy(maxExecutions, unit.toMillis(delay), 0);
+    }
+
+    /**
+     * Starts another execution once a request took longer than the provided percentile of recent response times,
+     * for example {@code 95} for the p95 latency.
+     * <br>Requests are not executed speculatively until enough responses have been observed.
+     *
+     * @param  percentile
+     *         The percentile of recent response times, between {@code 0} (exclusive) and {@code 100}
+     * @param  maxExecutions
+     *         The maximum amount of speculative executions per request
+     *
+     * @throws IllegalArgumentException
+     *         If the percentile is out of range or maxExecutions is not positive
+     *
+     * @return The policy
+     */
+    @Nonnull
+    public static SpeculativeExecutionPolicy percentile(double percentile, int maxExecutions)
+    {
+        Checks.check(percentile > 0 && percentile <= 100, "Percentile must be between 0 and 100! Provided: %s", percentile);
+        Checks.positive(maxExecutions, "Max executions");
+        return new SpeculativeExecutionPolicy(maxExecutions, -1, percentile);
+    }
+
+    /**
+     * The maximum amount of executions in addition to the first one.
+     *
+     * @return The maximum amount of speculative executions
+     */
+    public int getMaxExecutions()
+    {
+        return maxExecutions;
+    }
+
+    /**
+     * The constant delay in milliseconds, or {@code -1} if the delay is derived from recent response times.
+     *
+     * @return The delay in milliseconds
+     */
+    public long getDelay()
+    {
+        return delay;
+    }
+
+    /**
+     * The percentile of recent response times used as delay, or {@code 0} if a constant delay is used.
+     *
+     * @return The percentile
+     */
+    public double getPercentile()
+    {
+        return percentile;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.adamorgan.api.utils;
+
+import io.netty.handler.ssl.OpenSsl;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslProvider;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Utility methods to create the {@link io.netty.handler.ssl.SslContext SslContext} used for encrypted connections.
+ *
+ * <p><b>Example</b><br>
+ * <pre>{@code
+ * SslContext context = SslUtil.forClient().trustManager(new File("cluster-ca.pem")).build();
+ * builder.setSslContext(context);
+ * }</pre>
+ *
+ * @see com.github.adamorgan.api.LibraryBuilder#setSslContext(io.netty.handler.ssl.SslContext)
+ */
+public final class SslUtil
+{
+    /**
+     * The amount of sessions kept for resumption.
+     */
+    public static final int DEFAULT_SESSION_CACHE_SIZE = 1024;
+
+    /**
+     * The time in seconds a session can be resumed after it was established.
+     */
+    public static final long DEFAULT_SESSION_TIMEOUT = TimeUnit.HOURS.toSeconds(4);
+
+    private SslUtil() {}
+
+    /**
+     * The native OpenSSL provider if netty-tcnative is on the classpath, otherwise the JDK provider.
+     *
+     * @return The preferred {@link SslProvider}
+     */
+    @Nonnull
+    public static SslProvider getPreferredProvider()
+    {
+        return OpenSsl.isAvailable() ? SslProvider.OPENSSL : SslProvider.JDK;
+    }
+
+    /**
+     * Creates a client context builder with the {@link #getPreferredProvider() preferred provider}
+     * and a session cache, so reconnects to the same node resume the previous session
+     * instead of running a full handshake.
+     * <br>The server certificate is validated against the trust store of the JVM unless a trust manager is configured.
+     *
+     * @return The {@link SslContextBuilder}
+     */
+    @Nonnull
+    public static SslContextBuilder forClient()
+    {
+        return SslContextBuilder.forClient()
+                .sslProvider(getPreferredProvider())
+                .sessionCacheSize(DEFAULT_SESSION_CACHE_SIZE)
+                .sessionTimeout(DEFAULT_SESSION_TIMEOUT);
+    }
+}
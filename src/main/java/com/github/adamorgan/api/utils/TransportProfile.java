@@ -0,0 +1,228 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.adamorgan.api.utils;
+
+import com.github.adamorgan.internal.utils.Checks;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Socket level settings of all connections: the transport, the buffer allocator, {@code TCP_NODELAY}
+ * and the kernel socket buffer sizes.
+ * <br>Profiles are immutable, the {@code with} methods return a modified copy of a preset.
+ *
+ * <p><b>Example</b><br>
+ * <pre>{@code
+ * builder.setTransportProfile(TransportProfile.THROUGHPUT.withTransport(TransportProfile.Transport.NIO));
+ * }</pre>
+ *
+ * @see com.github.adamorgan.api.LibraryBuilder#setTransportProfile(TransportProfile)
+ */
+public final class TransportProfile
+{
+    /**
+     * Netty defaults: best available transport, default allocator, {@code TCP_NODELAY} enabled and system socket buffers.
+     */
+    public static final TransportProfile DEFAULT = new TransportProfile(Transport.AUTO, Allocator.DEFAULT, true, 0, 0);
+
+    /**
+     * Small socket buffers and {@code TCP_NODELAY}, which keeps queued bytes in the kernel low
+     * so every request reaches the server as soon as it is written.
+     * <br>Best combined with {@link FlushMode#LATENCY}.
+     */
+    public static final TransportProfile LOW_LATENCY = new TransportProfile(Transport.AUTO, Allocator.POOLED, true, 64 * 1024, 64 * 1024);
+
+    /**
+     * Larger socket buffers for many concurrent requests with {@code TCP_NODELAY},
+     * batching is left to {@link FlushMode#THROUGHPUT}.
+     */
+    public static final TransportProfile THROUGHPUT = new TransportProfile(Transport.AUTO, Allocator.POOLED, true, 512 * 1024, 512 * 1024);
+
+    /**
+     * Large socket buffers with Nagle's algorithm enabled, for imports and scans moving large amounts of data
+     * where the latency of a single request does not matter.
+     */
+    public static final TransportProfile BULK = new TransportProfile(Transport.AUTO, Allocator.ADAPTIVE, false, 4 * 1024 * 1024, 4 * 1024 * 1024);
+
+    private final Transport transport;
+    private final Allocator allocator;
+    private final boolean tcpNoDelay;
+    private final int sendBufferSize;
+    private final int receiveBufferSize;
+
+    private TransportProfile(Transport transport, Allocator allocator, boolean tcpNoDelay, int sendBufferSize, int receiveBufferSize)
+    {
+        this.transport = transport;
+        this.allocator = allocator;
+        this.tcpNoDelay = tcpNoDelay;
+        this.sendBufferSize = sendBufferSize;
+        this.receiveBufferSize = receiveBufferSize;
+    }
+
+    /**
+     * Forces a transport instead of the best available one.
+     * <br>Building the library fails if the transport is not available on this platform.
+     *
+     * @param  transport
+     *         The transport to use
+     *
+     * @throws IllegalArgumentException
+     *         If the provided transport is null
+     *
+     * @return A copy of this profile with the provided transport
+     */
+    @Nonnull
+    public TransportProfile withTransport(@Nonnull Transport transport)
+    {
+        Checks.notNull(transport, "Transport");
+        return new TransportProfile(transport, allocator, tcpNoDelay, sendBufferSize, receiveBufferSize);
+    }
+
+    /**
+     * Changes the allocator used for the buffers of all connections.
+     *
+     * @param  allocator
+     *         The allocator to use
+     *
+     * @throws IllegalArgumentException
+     *         If the provided allocator is null
+     *
+     * @return A copy of this profile with the provided allocator
+     */
+    @Nonnull
+    public TransportProfile withAllocator(@Nonnull Allocator allocator)
+    {
+        Checks.notNull(allocator, "Allocator");
+        return new TransportProfile(transport, allocator, tcpNoDelay, sendBufferSize, receiveBufferSize);
+    }
+
+    /**
+     * Enables or disables {@code TCP_NODELAY}, disabling it lets the kernel merge small writes (Nagle's algorithm).
+     *
+     * @param  tcpNoDelay
+     *         True, to send every write right away
+     *
+     * @return A copy of this profile with the provided setting
+     */
+    @Nonnull
+    public TransportProfile withTcpNoDelay(boolean tcpNoDelay)
+    {
+        return new TransportProfile(transport, allocator, tcpNoDelay, sendBufferSize, receiveBufferSize);
+    }
+
+    /**
+     * Changes the kernel socket buffer sizes ({@code SO_SNDBUF} and {@code SO_RCVBUF}).
+     * <br>The operating system may round or cap the provided sizes.
+     *
+     * @param  sendBufferSize
+     *         The send buffer size in bytes, or {@code 0} for the system default
+     * @param  receiveBufferSize
+     *         The receive buffer size in bytes, or {@code 0} for the system default
+     *
+     * @throws IllegalArgumentException
+     *         If either size is negative
+     *
+     * @return A copy of this profile with the provided buffer sizes
+     */
+    @Nonnull
+    public TransportProfile withSocketBuffers(int sendBufferSize, int receiveBufferSize)
+    {
+        Checks.notNegative(sendBufferSize, "Send buffer size");
+        Checks.notNegative(receiveBufferSize, "Receive buffer size");
+        return new TransportProfile(transport, allocator, tcpNoDelay, sendBufferSize, receiveBufferSize);
+    }
+
+    @Nonnull
+    public Transport getTransport()
+    {
+        return transport;
+    }
+
+    @Nonnull
+    public Allocator getAllocator()
+    {
+        return allocator;
+    }
+
+    public boolean isTcpNoDelay()
+    {
+        return tcpNoDelay;
+    }
+
+    public int getSendBufferSize()
+    {
+        return sendBufferSize;
+    }
+
+    public int getReceiveBufferSize()
+    {
+        return receiveBufferSize;
+    }
+
+    @Nonnull
+    @Override
+    public String toString()
+    {
+        return "TransportProfile[" + transport + ", " + allocator + ", tcpNoDelay=" + tcpNoDelay + ", sndbuf=" + sendBufferSize + ", rcvbuf=" + receiveBufferSize + "]";
+    }
+
+    public enum Transport
+    {
+        /**
+         * The best transport available on this platform, in the order io_uring, epoll, kqueue and NIO.
+         * <br>Unix domain socket addresses use epoll or kqueue instead.
+         */
+        AUTO,
+        /**
+         * Linux io_uring, requires the native netty io_uring library.
+         */
+        IO_URING,
+        /**
+         * Linux epoll, requires the native netty epoll library.
+         */
+        EPOLL,
+        /**
+         * BSD and macOS kqueue, requires the native netty kqueue library.
+         */
+        KQUEUE,
+        /**
+         * Java NIO, available everywhere.
+         */
+        NIO
+    }
+
+    public enum Allocator
+    {
+        /**
+         * The allocator configured for netty, see {@code io.netty.allocator.type}.
+         */
+        DEFAULT,
+        /**
+         * Pooled buffers with thread local caches, stable allocation cost under steady load.
+         */
+        POOLED,
+        /**
+         * Pooled buffers sized adaptively to the observed allocations, with lower memory overhead for large and varied buffers.
+         */
+        ADAPTIVE,
+        /**
+         * Buffers are allocated and freed on every use, lowest memory footprint.
+         */
+        UNPOOLED
+    }
+}
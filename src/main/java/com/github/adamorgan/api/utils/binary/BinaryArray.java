@@ -114,6 +114,16 @@ public class BinaryArray implements Iterable<BinaryObject>, SerializableArray
         return elements.size();
     }
 
+    /**
+     * The number of columns of each row, the elements of this array are stored row by row.
+     *
+     * @return The number of columns
+     */
+    public int getColumnCount()
+    {
+        return columnsCount;
+    }
+
     public boolean isHasMetadata()
     {
         return elements.isEmpty();
@@ -173,6 +183,12 @@ public class BinaryArray implements Iterable<BinaryObject>, SerializableArray
             this.pack = this.pack(raw, BinaryType.fromValue(type));
         }
 
+        @Nonnull
+        public String getName()
+        {
+            return name;
+        }
+
         private EnumSet<BinaryType> pack(ByteBuf raw, BinaryType type)
         {
             EnumSet<BinaryType> types = EnumSet.noneOf(BinaryType.class);
@@ -17,11 +17,91 @@
 package com.github.adamorgan.api.utils.request;
 
 import com.github.adamorgan.annotations.ReplaceWith;
+import com.github.adamorgan.api.LibraryInfo;
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufConvertible;
+import io.netty.buffer.Unpooled;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 @ReplaceWith
 public interface ObjectData extends ByteBufConvertible
 {
     int HEADER_BYTES = 9;
 
+    /**
+     * The protocol version written to the frame header.
+     *
+     * @return The protocol version
+     */
+    default byte getVersion()
+    {
+        return LibraryInfo.PROTOCOL_VERSION;
+    }
+
+    /**
+     * The flags written to the frame header.
+     *
+     * @return The raw frame flags
+     */
+    int getFlags();
+
+    /**
+     * The opcode written to the frame header.
+     *
+     * @return The opcode of this request
+     */
+    int getOpcode();
+
+    /**
+     * The encoded, and possibly compressed, frame body without the header.
+     * <br>The buffer is shared by every write of this request and must not be modified or released.
+     *
+     * @return The frame body
+     */
+    @Nonnull
+    ByteBuf getBody();
+
+    /**
+     * The serialized bound values of this request which are not encoded in the {@link #getBody() body}.
+     *
+     * @return The bound values, empty if the body holds all of them
+     */
+    @Nonnull
+    default ByteBuf getValues()
+    {
+        return Unpooled.EMPTY_BUFFER;
+    }
+
+    /**
+     * The serialized partition key of this request, used to route it directly to a replica.
+     *
+     * @return The routing key, or {@code null} if the partition of this request is unknown
+     */
+    @Nullable
+    default ByteBuf getRoutingKey()
+    {
+        return null;
+    }
+
+    /**
+     * The full frame, header and body, as a single buffer.
+     * <br>The body is not copied, the returned buffer is a composite of a new header and the {@link #getBody() body}.
+     *
+     * @return The full frame
+     */
+    @Nonnull
+    @Override
+    default ByteBuf asByteBuf()
+    {
+        ByteBuf body = getBody();
+        ByteBuf header = Unpooled.directBuffer(HEADER_BYTES, HEADER_BYTES)
+                .writeByte(getVersion())
+                .writeByte(getFlags())
+                .writeShort(0) // the stream id is assigned once the request is written
+                .writeByte(getOpcode())
+                .writeInt(body.readableBytes());
+        return Unpooled.wrappedBuffer(header, body.retainedDuplicate());
+    }
 }
@@ -23,8 +23,12 @@ import com.github.adamorgan.api.events.StatusChangeEvent;
 import com.github.adamorgan.api.events.session.ShutdownEvent;
 import com.github.adamorgan.api.hooks.IEventManager;
 import com.github.adamorgan.api.hooks.ListenerAdapter;
+import com.github.adamorgan.api.utils.CallbackExecutor;
 import com.github.adamorgan.api.utils.Compression;
 import com.github.adamorgan.api.utils.MiscUtil;
+import com.github.adamorgan.api.utils.RateLimit;
+import com.github.adamorgan.api.utils.RequestPriority;
+import com.github.adamorgan.api.utils.RetryDecision;
 import com.github.adamorgan.api.utils.SessionController;
 import com.github.adamorgan.internal.hooks.EventManagerProxy;
 import com.github.adamorgan.internal.requests.Requester;
@@ -32,18 +36,22 @@ import com.github.adamorgan.internal.requests.SocketClient;
 import com.github.adamorgan.internal.utils.Checks;
 import com.github.adamorgan.internal.utils.LibraryLogger;
 import com.github.adamorgan.internal.utils.cache.ObjectCacheViewImpl;
+import com.github.adamorgan.internal.utils.config.ConnectionConfig;
 import com.github.adamorgan.internal.utils.config.SessionConfig;
 import com.github.adamorgan.internal.utils.config.ThreadingConfig;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.EventLoopGroup;
+import io.netty.util.Timer;
 import org.jetbrains.annotations.Unmodifiable;
 import org.slf4j.Logger;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.net.SocketAddress;
 import java.time.OffsetDateTime;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -75,6 +83,9 @@ public class LibraryImpl implements Library
     protected final byte[] token;
     protected ShardInfo shardInfo;
     protected final SessionConfig sessionConfig;
+    protected final ConnectionConfig connectionConfig;
+
+    protected volatile byte version = LibraryInfo.PROTOCOL_VERSION;
 
     protected long gatewayPing = -1;
 
@@ -85,11 +96,12 @@ public class LibraryImpl implements Library
     protected final EventManagerProxy eventManager;
     protected final SocketClient client;
 
-    public LibraryImpl(final byte[] token, final SocketAddress address, final Compression compression, final ThreadingConfig threadConfig, final SessionConfig sessionConfig, final IEventManager eventManager)
+    public LibraryImpl(final byte[] token, final SocketAddress address, final Compression compression, final ThreadingConfig threadConfig, final SessionConfig sessionConfig, final ConnectionConfig connectionConfig, final IEventManager eventManager)
     {
         this.token = token;
         this.threadConfig = threadConfig;
         this.sessionConfig = sessionConfig;
+        this.connectionConfig = connectionConfig;
         this.shutdownHook = sessionConfig.isUseShutdownHook() ? new Thread(this::shutdownNow, "Library Shutdown Hook") : null;
         this.eventManager = new EventManagerProxy(eventManager, threadConfig.getEventPool());
         this.client = new SocketClient(this, address, compression);
@@ -100,6 +112,7 @@ public class LibraryImpl implements Library
         }
 
         this.requester = new Requester(this);
+        this.client.getNodes().refresh();
     }
 
     public SocketClient getClient()
@@ -214,6 +227,60 @@ public class LibraryImpl implements Library
         return threadConfig.getCallbackPool();
     }
 
+    @Nonnull
+    public Timer getTimer()
+    {
+        return threadConfig.getTimer();
+    }
+
+    @Nullable
+    public ExecutorService getSslPool()
+    {
+        return threadConfig.getSslPool();
+    }
+
+    @Override
+    public int getQueueSize(@Nonnull RequestPriority priority)
+    {
+        return requester.getQueueSize(priority);
+    }
+
+    @Override
+    public long getRetryDecisions(@Nonnull RetryDecision.Type type)
+    {
+        return requester.getRetryDecisions(type);
+    }
+
+    @Override
+    public long getRetriesDenied()
+    {
+        return requester.getRetriesDenied();
+    }
+
+    @Override
+    public long getHeartbeatRtt(double percentile, @Nonnull TimeUnit unit)
+    {
+        Checks.check(percentile > 0 && percentile <= 100, "Percentile must be between 0 and 100! Provided: %s", percentile);
+        Checks.notNull(unit, "Unit");
+        long nanos = client.getHeartbeatRtt().getPercentile(percentile);
+        return nanos < 0 ? -1 : unit.convert(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Nullable
+    @Override
+    public RateLimit getRateLimit(@Nonnull String tag)
+    {
+        Checks.notNull(tag, "Tag");
+        return connectionConfig.getRateLimits().get(tag);
+    }
+
+    @Nonnull
+    @Override
+    public CallbackExecutor getCallbackExecutor()
+    {
+        return threadConfig.getCallbackExecutor();
+    }
+
     public void handleEvent(@Nonnull GenericEvent event)
     {
         eventManager.handle(event);
@@ -229,6 +296,18 @@ public class LibraryImpl implements Library
         return sessionConfig.getMaxBufferSize();
     }
 
+    @Nonnull
+    public ConnectionConfig getConnectionConfig()
+    {
+        return connectionConfig;
+    }
+
+    @Nonnull
+    public ThreadingConfig getThreadingConfig()
+    {
+        return threadConfig;
+    }
+
     public void setStatus(Status status)
     {
         StatusChangeEvent event = MiscUtil.locked(statusLock, () ->
@@ -281,7 +360,12 @@ public class LibraryImpl implements Library
 
     public byte getVersion()
     {
-        return LibraryInfo.PROTOCOL_VERSION;
+        return version;
+    }
+
+    public void setVersion(byte version)
+    {
+        this.version = version;
     }
 
     public String getIdentifierString()
@@ -0,0 +1,386 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.adamorgan.internal.requests;
+
+import com.github.adamorgan.internal.utils.AdaptiveLimit;
+import com.github.adamorgan.internal.utils.Ewma;
+import com.github.adamorgan.internal.utils.ExponentialBackoff;
+import com.github.adamorgan.internal.utils.config.ConnectionConfig;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.util.AttributeKey;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fixed size set of {@link SocketConnection connections} to the same node.
+ *
+ * <p>The first connection that becomes active is the control connection of the pool. Only the control connection
+ * of the contact point pool registers for server events and drives the status of the session.
+ * Requests are spread over all ready connections by comparing two random candidates,
+ * see {@link SocketConnection#getScore()}.
+ */
+public class ConnectionPool
+{
+    public static final AttributeKey<ConnectionPool> KEY = AttributeKey.valueOf("reactor-cassandra.pool");
+
+    protected final SocketClient client;
+    protected final SocketAddress address;
+    protected final int size;
+
+    protected final List<SocketConnection> connections = new CopyOnWriteArrayList<>();
+    protected final AtomicReference<SocketConnection> control = new AtomicReference<>();
+
+    // Connections that are either open or currently being opened
+    protected final AtomicInteger reserved = new AtomicInteger(0);
+
+    // Response times of all connections to this node
+    protected final Ewma latency = new Ewma();
+    // In-flight limit of the whole node if adaptive concurrency is enabled, shared by all its connections
+    protected final AdaptiveLimit limit;
+    // Requests reserved against the limit of the node, only counted if adaptive concurrency is enabled
+    protected final AtomicInteger reservedRequests = new AtomicInteger();
+
+    // Delays the refill after lost or failed connections, reset once a connection is established again
+    protected final ExponentialBackoff backoff;
+
+    // Outcome of the last completed handshake with this node, lets new connections skip OPTIONS
+    protected volatile byte handshakeVersion = 0;
+    protected volatile boolean authRequired = false;
+
+    protected volatile boolean closed = false;
+
+    public ConnectionPool(@Nonnull SocketClient client, @Nonnull SocketAddress address, int size)
+    {
+        this.client = client;
+        this.address = address;
+        this.size = size;
+        this.backoff = new ExponentialBackoff(SocketClient.RECONNECT_BASE_DELAY, TimeUnit.SECONDS.toMillis(client.api.getMaxReconnectDelay()));
+
+        ConnectionConfig config = client.api.getConnectionConfig();
+        int maxRequests = Math.min(config.getMaxRequestsPerConnection(), StreamIdAllocator.STREAM_COUNT);
+        this.limit = config.isAdaptiveConcurrency() ? new AdaptiveLimit(1, maxRequests * Math.max(1, size)) : null;
+    }
+
+    @Nullable
+    public static ConnectionPool of(@Nonnull Channel channel)
+    {
+        return channel.attr(KEY).get();
+    }
+
+    @Nonnull
+    public SocketAddress getAddress()
+    {
+        return address;
+    }
+
+    public int getSize()
+    {
+        return size;
+    }
+
+    @Nonnull
+    public List<SocketConnection> getConnections()
+    {
+        return connections;
+    }
+
+    @Nullable
+    public SocketConnection getControl()
+    {
+        return control.get();
+    }
+
+    /**
+     * Whether this pool was closed, lost connections of a closed pool are not replaced.
+     *
+     * @return True, if this pool was closed
+     */
+    public boolean isClosed()
+    {
+        return closed;
+    }
+
+    /**
+     * Opens one more connection to the node of this pool, regardless of the configured size.
+     *
+     * @return The connect future of the new channel
+     */
+    @Nonnull
+    public ChannelFuture open()
+    {
+        closed = false;
+        reserved.incrementAndGet();
+        return connect(false);
+    }
+
+    /**
+     * Opens connections until the pool reaches its configured size, this reopens the pool if it was closed.
+     */
+    public void fill()
+    {
+        closed = false;
+
+        int current;
+        while ((current = reserved.get()) < size)
+        {
+            if (reserved.compareAndSet(current, current + 1))
+                connect(true);
+        }
+    }
+
+    /**
+     * Fills the pool after a backoff delay on the event loop, unless the pool is closed in the meantime.
+     */
+    public void scheduleFill()
+    {
+        long delay = backoff.nextDelay();
+        client.executor.schedule(() ->
+        {
+            if (!closed)
+                fill();
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private ChannelFuture connect(boolean retry)
+    {
+        return client.newBootstrap(address).attr(KEY, this).connect(address).addListener((ChannelFutureListener) future ->
+        {
+            if (future.isSuccess())
+                return;
+
+            reserved.decrementAndGet();
+            SocketClient.LOG.debug("Failed to open pool connection to {}", address, future.cause());
+            if (retry && !closed && !client.executor.isShuttingDown())
+                scheduleFill();
+        });
+    }
+
+    public void add(@Nonnull SocketConnection connection)
+    {
+        backoff.reset();
+        connections.add(connection);
+        control.compareAndSet(null, connection);
+    }
+
+    /**
+     * Makes another ready connection the control connection after the previous one was lost.
+     *
+     * @return The new control connection, or {@code null} if no other connection is ready
+     */
+    @Nullable
+    public SocketConnection promoteControl()
+    {
+        for (SocketConnection connection : connections)
+        {
+            if (connection.isReady() && connection.getChannel().isActive() && control.compareAndSet(null, connection))
+                return connection;
+        }
+        return null;
+    }
+
+    public void remove(@Nonnull SocketConnection connection)
+    {
+        if (connections.remove(connection))
+            reserved.decrementAndGet();
+        control.compareAndSet(connection, null);
+    }
+
+    /**
+     * The protocol version negotiated by the last completed handshake with this node.
+     *
+     * @return The protocol version, or {@code 0} if no handshake completed yet
+     */
+    public byte getHandshakeVersion()
+    {
+        return handshakeVersion;
+    }
+
+    /**
+     * Whether the last completed handshake with this node required authentication.
+     *
+     * @return True, if the node asked for credentials
+     */
+    public boolean isAuthRequired()
+    {
+        return authRequired;
+    }
+
+    public void setHandshake(byte version, boolean authRequired)
+    {
+        this.authRequired = authRequired;
+        this.handshakeVersion = version;
+    }
+
+    public void resetHandshake()
+    {
+        this.handshakeVersion = 0;
+        this.authRequired = false;
+    }
+
+    @Nonnull
+    public Ewma getLatency()
+    {
+        return latency;
+    }
+
+    /**
+     * Whether the node accepts another request, according to its adaptive in-flight limit.
+     *
+     * @return True, if adaptive concurrency is disabled or the node is below its limit
+     */
+    public boolean hasCapacity()
+    {
+        return limit == null || reservedRequests.get() < limit.getLimit();
+    }
+
+    /**
+     * Reserves a request against the adaptive in-flight limit of this node, before a connection acquires its stream.
+     * <br>Unlike {@link #hasCapacity()}, concurrent reservations cannot exceed the limit together.
+     *
+     * @return True, if adaptive concurrency is disabled or the node is below its limit
+     */
+    public boolean reserveRequest()
+    {
+        if (limit == null)
+            return true;
+        while (true)
+        {
+            int count = reservedRequests.get();
+            if (count >= limit.getLimit())
+                return false;
+            if (reservedRequests.compareAndSet(count, count + 1))
+                return true;
+        }
+    }
+
+    public void releaseRequest()
+    {
+        if (limit != null)
+            reservedRequests.decrementAndGet();
+    }
+
+    /**
+     * The adaptive in-flight limit of this node.
+     *
+     * @return The limit, or {@code -1} if adaptive concurrency is disabled
+     */
+    public int getLimit()
+    {
+        return limit == null ? -1 : limit.getLimit();
+    }
+
+    public void onSample(long nanos)
+    {
+        if (limit != null)
+            limit.onSample(nanos, getInFlightCount() + 1);
+    }
+
+    public void onDropped()
+    {
+        if (limit != null)
+            limit.onDropped();
+    }
+
+    /**
+     * The load of this node, lower is better.
+     * <br>Combines the average response time of the node with its amount of in-flight requests.
+     *
+     * @return The score of this node
+     */
+    public double getScore()
+    {
+        return (latency.get() + 1) * (getInFlightCount() + 1);
+    }
+
+    /**
+     * Selects the better of two random available connections.
+     * <br>If neither candidate is available, the available connection with the lowest score is used.
+     *
+     * @return The selected connection, or {@code null} if no connection can accept a request right now
+     */
+    @Nullable
+    public SocketConnection next()
+    {
+        List<SocketConnection> connections = this.connections;
+        int size = connections.size();
+        if (size > 1)
+        {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(size);
+            int second = random.nextInt(size - 1);
+            if (second >= first)
+                second++;
+
+            // The list may shrink concurrently
+            SocketConnection a = get(connections, first);
+            SocketConnection b = get(connections, second);
+            if (a != null && b != null)
+                return a.getScore() <= b.getScore() ? a : b;
+            if (a != null || b != null)
+                return a != null ? a : b;
+        }
+
+        SocketConnection best = null;
+        for (SocketConnection connection : connections)
+        {
+            if (!connection.isAvailable())
+                continue;
+            if (best == null || connection.getScore() < best.getScore())
+                best = connection;
+        }
+        return best;
+    }
+
+    @Nullable
+    private static SocketConnection get(@Nonnull List<SocketConnection> connections, int index)
+    {
+        try
+        {
+            SocketConnection connection = connections.get(index);
+            return connection.isAvailable() ? connection : null;
+        }
+        catch (IndexOutOfBoundsException e)
+        {
+            return null;
+        }
+    }
+
+    public int getInFlightCount()
+    {
+        int count = 0;
+        for (SocketConnection connection : connections)
+            count += connection.getInFlightCount();
+        return count;
+    }
+
+    public void close()
+    {
+        closed = true;
+        connections.forEach(SocketConnection::close);
+    }
+}
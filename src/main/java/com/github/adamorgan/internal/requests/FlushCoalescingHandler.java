@@ -0,0 +1,139 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.adamorgan.internal.requests;
+
+import com.github.adamorgan.api.utils.request.ObjectData;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.MessageSizeEstimator;
+
+/**
+ * Consolidates flushes of a channel, so many frames written in the same event loop iteration share one syscall.
+ *
+ * <p>Writes are passed on immediately, but a flush only schedules a single flush task on the event loop.
+ * All frames written until that task runs are flushed together. Once the pending frames exceed the
+ * configured amount of writes or bytes, they are flushed right away to bound the added latency and memory.
+ */
+public class FlushCoalescingHandler extends ChannelDuplexHandler
+{
+    protected final int maxPendingWrites;
+    protected final int maxPendingBytes;
+
+    private final Runnable flushTask = this::runScheduledFlush;
+
+    private ChannelHandlerContext context;
+    private MessageSizeEstimator.Handle estimator;
+
+    private int pendingWrites;
+    private long pendingBytes;
+    private boolean flushScheduled;
+
+    public FlushCoalescingHandler(int maxPendingWrites, int maxPendingBytes)
+    {
+        this.maxPendingWrites = maxPendingWrites;
+        this.maxPendingBytes = maxPendingBytes;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext context)
+    {
+        this.context = context;
+        this.estimator = context.channel().config().getMessageSizeEstimator().newHandle();
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext context)
+    {
+        flushNow(context);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext context, Object msg, ChannelPromise promise)
+    {
+        pendingWrites++;
+        pendingBytes += size(msg);
+        context.write(msg, promise);
+
+        if (pendingWrites >= maxPendingWrites || pendingBytes >= maxPendingBytes)
+            flushNow(context);
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext context)
+    {
+        if (pendingWrites == 0)
+        {
+            context.flush();
+        }
+        else if (!flushScheduled)
+        {
+            flushScheduled = true;
+            context.channel().eventLoop().execute(flushTask);
+        }
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext context)
+    {
+        // Don't hold back frames while the outbound buffer is draining
+        if (!context.channel().isWritable())
+            flushNow(context);
+        context.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void close(ChannelHandlerContext context, ChannelPromise promise)
+    {
+        flushNow(context);
+        context.close(promise);
+    }
+
+    @Override
+    public void disconnect(ChannelHandlerContext context, ChannelPromise promise)
+    {
+        flushNow(context);
+        context.disconnect(promise);
+    }
+
+    /**
+     * The encoded size of an outbound message.
+     * <br>On segmented connections frames are only encoded after this handler, which the default estimator cannot size.
+     */
+    private int size(Object msg)
+    {
+        if (msg instanceof Frame)
+            return ObjectData.HEADER_BYTES + ((Frame) msg).getBody().readableBytes();
+        return Math.max(0, estimator.size(msg));
+    }
+
+    private void runScheduledFlush()
+    {
+        flushScheduled = false;
+        flushNow(context);
+    }
+
+    private void flushNow(ChannelHandlerContext context)
+    {
+        if (pendingWrites == 0)
+            return;
+        pendingWrites = 0;
+        pendingBytes = 0;
+        context.flush();
+    }
+}
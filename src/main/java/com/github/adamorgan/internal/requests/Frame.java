@@ -0,0 +1,118 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.adamorgan.internal.requests;
+
+import com.github.adamorgan.api.utils.request.ObjectData;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.Recycler;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A single protocol frame, the header fields paired with the body buffer.
+ *
+ * <p>Outbound frames are written by the {@link FrameEncoder} and inbound frames are produced by the {@link FrameDecoder}.
+ * Instances are pooled, whoever consumes a frame has to {@link #recycle() recycle} it once it is done with it.
+ * Recycling never releases the body, ownership of the body is handled separately.
+ */
+public final class Frame
+{
+    private static final Recycler<Frame> RECYCLER = new Recycler<Frame>()
+    {
+        @Override
+        protected Frame newObject(Handle<Frame> handle)
+        {
+            return new Frame(handle);
+        }
+    };
+
+    private final Recycler.Handle<Frame> handle;
+
+    private byte version;
+    private byte flags;
+    private int stream;
+    private byte opcode;
+    private int length;
+    private ByteBuf body;
+
+    private Frame(Recycler.Handle<Frame> handle)
+    {
+        this.handle = handle;
+    }
+
+    @Nonnull
+    public static Frame newInstance(byte version, byte flags, int stream, byte opcode, int length, @Nonnull ByteBuf body)
+    {
+        Frame frame = RECYCLER.get();
+        frame.version = version;
+        frame.flags = flags;
+        frame.stream = stream;
+        frame.opcode = opcode;
+        frame.length = length;
+        frame.body = body;
+        return frame;
+    }
+
+    @Nonnull
+    public static Frame of(@Nonnull ObjectData data, int stream)
+    {
+        ByteBuf body = data.getBody();
+        return newInstance(data.getVersion(), (byte) data.getFlags(), stream, (byte) data.getOpcode(), body.readableBytes(), body);
+    }
+
+    public byte getVersion()
+    {
+        return version;
+    }
+
+    public byte getFlags()
+    {
+        return flags;
+    }
+
+    public int getStream()
+    {
+        return stream;
+    }
+
+    public byte getOpcode()
+    {
+        return opcode;
+    }
+
+    /**
+     * The body length as written in the frame header, before decompression.
+     *
+     * @return The length of the body on the wire
+     */
+    public int getLength()
+    {
+        return length;
+    }
+
+    @Nonnull
+    public ByteBuf getBody()
+    {
+        return body;
+    }
+
+    public void recycle()
+    {
+        body = null;
+        handle.recycle(this);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.adamorgan.internal.requests;
+
+import com.github.adamorgan.api.utils.Compression;
+import com.github.adamorgan.api.utils.request.ObjectData;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * Splits the inbound byte stream into {@link Frame Frames}.
+ *
+ * <p>The header is parsed exactly once per frame and kept while the body is still incomplete,
+ * the body itself is a retained slice of the received bytes and never copied.
+ */
+public class FrameDecoder extends ByteToMessageDecoder
+{
+    private static final int COMPRESSED_FLAG = 0x01;
+
+    private final Compression compression;
+
+    private boolean headerRead;
+    private byte version;
+    private byte flags;
+    private int stream;
+    private byte opcode;
+    private int length;
+
+    public FrameDecoder(@Nonnull Compression compression)
+    {
+        this.compression = compression;
+    }
+
+    @Override
+    protected void decode(@Nonnull ChannelHandlerContext context, @Nonnull ByteBuf input, @Nonnull List<Object> out)
+    {
+        while (true)
+        {
+            if (!headerRead)
+            {
+                if (input.readableBytes() < ObjectData.HEADER_BYTES)
+                    return;
+
+                // The highest bit only marks the direction of the frame
+                version = (byte) (input.readByte() & 0x7F);
+                flags = input.readByte();
+                stream = input.readShort();
+                opcode = input.readByte();
+                length = input.readInt();
+                headerRead = true;
+            }
+
+            if (input.readableBytes() < length)
+                return;
+
+            headerRead = false;
+
+            ByteBuf body = input.readRetainedSlice(length);
+            if ((flags & COMPRESSED_FLAG) != 0)
+            {
+                ByteBuf compressed = body;
+                body = compression.unpack(compressed);
+                if (body != compressed)
+                    compressed.release();
+            }
+
+            out.add(Frame.newInstance(version, flags, stream, opcode, length, body));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.adamorgan.internal.requests;
+
+import com.github.adamorgan.api.utils.request.ObjectData;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageEncoder;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * Encodes an outbound {@link Frame} as two buffers, a pooled 9 byte header and the shared request body.
+ *
+ * <p>Both buffers are written as they are, so the transport can hand them to a single gathering write
+ * without ever copying the body.
+ */
+@ChannelHandler.Sharable
+public class FrameEncoder extends MessageToMessageEncoder<Frame>
+{
+    public static final FrameEncoder INSTANCE = new FrameEncoder();
+
+    protected FrameEncoder()
+    {
+        super(Frame.class);
+    }
+
+    @Override
+    protected void encode(@Nonnull ChannelHandlerContext context, @Nonnull Frame frame, @Nonnull List<Object> out)
+    {
+        ByteBuf body = frame.getBody();
+        ByteBuf header = context.alloc().ioBuffer(ObjectData.HEADER_BYTES, ObjectData.HEADER_BYTES)
+                .writeByte(frame.getVersion())
+                .writeByte(frame.getFlags())
+                .writeShort(frame.getStream())
+                .writeByte(frame.getOpcode())
+                .writeInt(frame.getLength());
+
+        out.add(header);
+        // The body is shared by retries of the same request, only hand out a view of it
+        out.add(body.retainedDuplicate());
+        frame.recycle();
+    }
+}
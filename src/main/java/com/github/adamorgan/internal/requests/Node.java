@@ -0,0 +1,101 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.adamorgan.internal.requests;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.net.SocketAddress;
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A node of the cluster together with the {@link ConnectionPool} used to reach it.
+ *
+ * <p>The metadata is read from {@code system.local} and {@code system.peers} and may be missing
+ * until the first topology refresh completed.
+ */
+public class Node
+{
+    protected final SocketAddress address;
+    protected final ConnectionPool pool;
+
+    protected volatile UUID hostId;
+    protected volatile String datacenter;
+    protected volatile String rack;
+    protected volatile Set<Long> tokens = Collections.emptySet();
+
+    public Node(@Nonnull SocketAddress address, @Nonnull ConnectionPool pool)
+    {
+        this.address = address;
+        this.pool = pool;
+    }
+
+    @Nonnull
+    public SocketAddress getAddress()
+    {
+        return address;
+    }
+
+    @Nonnull
+    public ConnectionPool getPool()
+    {
+        return pool;
+    }
+
+    @Nullable
+    public UUID getHostId()
+    {
+        return hostId;
+    }
+
+    @Nullable
+    public String getDatacenter()
+    {
+        return datacenter;
+    }
+
+    @Nullable
+    public String getRack()
+    {
+        return rack;
+    }
+
+    @Nonnull
+    public Set<Long> getTokens()
+    {
+        return tokens;
+    }
+
+    public void setTokens(@Nonnull Set<Long> tokens)
+    {
+        this.tokens = Collections.unmodifiableSet(tokens);
+    }
+
+    public void update(@Nullable UUID hostId, @Nullable String datacenter, @Nullable String rack)
+    {
+        this.hostId = hostId;
+        this.datacenter = datacenter;
+        this.rack = rack;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Node(" + address + ", dc=" + datacenter + ", rack=" + rack + ")";
+    }
+}
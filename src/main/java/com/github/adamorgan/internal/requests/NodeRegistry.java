@@ -0,0 +1,486 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.adamorgan.internal.requests;
+
+import com.github.adamorgan.api.requests.Response;
+import com.github.adamorgan.api.utils.binary.BinaryArray;
+import com.github.adamorgan.api.utils.binary.BinaryObject;
+import com.github.adamorgan.internal.LibraryImpl;
+import com.github.adamorgan.internal.utils.EncodingUtils;
+import com.github.adamorgan.internal.utils.LibraryLogger;
+import com.github.adamorgan.internal.utils.Murmur3;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * The known nodes of the cluster, each with its own {@link ConnectionPool}.
+ *
+ * <p>The registry starts out with the contact point only. Once the control connection is ready,
+ * the other nodes are discovered from {@code system.peers} and kept up to date with the
+ * {@code TOPOLOGY_CHANGE} and {@code STATUS_CHANGE} events the control connection registered for.
+ *
+ * <p>The tokens of all nodes form the {@link TokenRing}, requests with a routing key are sent straight to the node
+ * owning its token. This only works with the {@code Murmur3Partitioner}, with any other partitioner the ring stays empty.
+ */
+public class NodeRegistry
+{
+    public static final Logger LOG = LibraryLogger.getLog(NodeRegistry.class);
+
+    public static final int DEFAULT_PORT = 9042;
+
+    protected final LibraryImpl api;
+    protected final Node contactPoint;
+    protected final Function<? super SocketAddress, ? extends ConnectionPool> poolFactory;
+
+    protected final Map<SocketAddress, Node> nodes = new ConcurrentHashMap<>();
+    // Snapshot of the nodes for random selection without copying on every request
+    protected volatile List<Node> members;
+
+    protected volatile TokenRing ring = TokenRing.EMPTY;
+    protected volatile boolean tokenAware = true;
+
+    public NodeRegistry(@Nonnull LibraryImpl api, @Nonnull ConnectionPool contactPool, @Nonnull Function<? super SocketAddress, ? extends ConnectionPool> poolFactory)
+    {
+        this.api = api;
+        this.poolFactory = poolFactory;
+        this.contactPoint = new Node(contactPool.getAddress(), contactPool);
+        this.nodes.put(contactPoint.getAddress(), contactPoint);
+        this.members = Collections.singletonList(contactPoint);
+    }
+
+    @Nonnull
+    public Node getContactPoint()
+    {
+        return contactPoint;
+    }
+
+    @Nullable
+    public Node get(@Nonnull SocketAddress address)
+    {
+        return nodes.get(address);
+    }
+
+    @Nonnull
+    public TokenRing getRing()
+    {
+        return ring;
+    }
+
+    @Nonnull
+    public Collection<Node> getNodes()
+    {
+        return Collections.unmodifiableCollection(nodes.values());
+    }
+
+    /**
+     * Adds a node and starts filling its pool, does nothing if the node is already known.
+     *
+     * @param  address
+     *         The address of the node
+     *
+     * @return The node for this address
+     */
+    @Nonnull
+    public Node add(@Nonnull SocketAddress address)
+    {
+        Node node = nodes.get(address);
+        if (node != null)
+        {
+            // The pool may have been closed by a disconnect of the session
+            node.getPool().fill();
+            return node;
+        }
+
+        Node created = new Node(address, poolFactory.apply(address));
+        node = nodes.putIfAbsent(address, created);
+        if (node != null)
+            return node;
+
+        LOG.debug("Discovered {}", address);
+        updateMembers();
+        created.getPool().fill();
+        return created;
+    }
+
+    /**
+     * Removes a node and closes its pool. The contact point is never removed, it carries the control connection.
+     *
+     * @param  address
+     *         The address of the node
+     */
+    public void remove(@Nonnull SocketAddress address)
+    {
+        if (address.equals(contactPoint.getAddress()))
+            return;
+
+        Node node = nodes.remove(address);
+        if (node == null)
+            return;
+
+        LOG.debug("Removed {}", address);
+        updateMembers();
+        node.getPool().close();
+        rebuildRing();
+    }
+
+    /**
+     * Replaces the known peers with the provided addresses, adding new nodes and removing the ones that are gone.
+     *
+     * @param  peers
+     *         The addresses of all nodes except the contact point
+     */
+    public void setPeers(@Nonnull Collection<? extends SocketAddress> peers)
+    {
+        for (SocketAddress address : peers)
+            add(address);
+
+        for (SocketAddress address : new ArrayList<>(nodes.keySet()))
+        {
+            if (!peers.contains(address))
+                remove(address);
+        }
+    }
+
+    /**
+     * Selects a connection to the node owning the token of the routing key,
+     * or the least loaded connection if the owner is unknown or busy.
+     *
+     * @param  routingKey
+     *         The serialized partition key of the request, or {@code null}
+     *
+     * @return The selected connection, or {@code null} if no connection can accept a request right now
+     */
+    @Nullable
+    public SocketConnection next(@Nullable ByteBuf routingKey)
+    {
+        TokenRing ring = this.ring;
+        if (routingKey != null && !ring.isEmpty())
+        {
+            Node owner = ring.getOwner(Murmur3.getToken(routingKey));
+            SocketConnection connection = owner == null ? null : owner.getPool().next();
+            if (connection != null)
+                return connection;
+        }
+        return next();
+    }
+
+    /**
+     * Selects a connection of the better of two random nodes, comparing the {@link ConnectionPool#getScore() score} of each node.
+     * <br>If neither candidate can take the request, the available node with the lowest score is used.
+     *
+     * @return The selected connection, or {@code null} if no connection can accept a request right now
+     */
+    @Nullable
+    public SocketConnection next()
+    {
+        List<Node> members = this.members;
+        int size = members.size();
+        if (size > 1)
+        {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(size);
+            int second = random.nextInt(size - 1);
+            if (second >= first)
+                second++;
+
+            ConnectionPool a = members.get(first).getPool();
+            ConnectionPool b = members.get(second).getPool();
+            if (a.getScore() > b.getScore())
+            {
+                ConnectionPool swap = a;
+                a = b;
+                b = swap;
+            }
+
+            SocketConnection connection = a.next();
+            if (connection == null)
+                connection = b.next();
+            if (connection != null)
+                return connection;
+        }
+
+        SocketConnection best = null;
+        double bestScore = 0;
+        for (Node node : members)
+        {
+            SocketConnection connection = node.getPool().next();
+            if (connection == null)
+                continue;
+            double score = node.getPool().getScore();
+            if (best == null || score < bestScore)
+            {
+                best = connection;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Selects a connection for another execution of a request, preferring nodes which did not receive the request yet.
+     *
+     * @param  excluded
+     *         The connections which already execute the request
+     *
+     * @return The selected connection, or {@code null} if no other connection can accept a request right now
+     */
+    @Nullable
+    public SocketConnection nextExcluding(@Nonnull Collection<SocketConnection> excluded)
+    {
+        SocketConnection best = null, fallback = null;
+        for (Node node : nodes.values())
+        {
+            boolean used = false;
+            for (SocketConnection connection : excluded)
+                used |= connection.getPool() == node.getPool();
+
+            for (SocketConnection connection : node.getPool().getConnections())
+            {
+                if (!connection.isAvailable() || excluded.contains(connection))
+                    continue;
+                if (!used && (best == null || connection.getScore() < best.getScore()))
+                    best = connection;
+                else if (used && (fallback == null || connection.getScore() < fallback.getScore()))
+                    fallback = connection;
+            }
+        }
+        return best != null ? best : fallback;
+    }
+
+    private synchronized void updateMembers()
+    {
+        members = new ArrayList<>(nodes.values());
+    }
+
+    public int getInFlightCount()
+    {
+        int count = 0;
+        for (Node node : nodes.values())
+            count += node.getPool().getInFlightCount();
+        return count;
+    }
+
+    public void close()
+    {
+        nodes.values().forEach(node -> node.getPool().close());
+    }
+
+    /**
+     * Reads {@code system.local} and {@code system.peers} and updates the registry with the result.
+     */
+    public void refresh()
+    {
+        api.sendRequest("SELECT host_id, data_center, rack, partitioner, tokens FROM system.local").queue(response ->
+        {
+            List<Map<String, BinaryObject>> rows = getRows(response);
+            if (rows.isEmpty())
+                return;
+
+            BinaryObject partitioner = rows.get(0).get("partitioner");
+            String name = partitioner == null ? null : partitioner.getString();
+            tokenAware = name != null && name.endsWith(".Murmur3Partitioner");
+            if (!tokenAware)
+                LOG.info("Token aware routing is disabled for partitioner {}", name);
+
+            update(contactPoint, rows.get(0));
+            rebuildRing();
+        }, failure -> LOG.warn("Failed to read system.local", failure));
+
+        api.sendRequest("SELECT peer, rpc_address, host_id, data_center, rack, tokens FROM system.peers").queue(response ->
+        {
+            List<Map<String, BinaryObject>> rows = getRows(response);
+            Set<SocketAddress> peers = new HashSet<>();
+            for (Map<String, BinaryObject> row : rows)
+            {
+                SocketAddress address = getPeerAddress(row);
+                if (address == null)
+                    continue;
+                peers.add(address);
+                update(add(address), row);
+            }
+            setPeers(peers);
+            rebuildRing();
+            LOG.debug("Topology refreshed, {} nodes known", nodes.size());
+        }, failure -> LOG.warn("Failed to read system.peers", failure));
+    }
+
+    /**
+     * Handles a server event that was pushed to the control connection.
+     *
+     * @param  body
+     *         The body of the {@code EVENT} frame
+     */
+    public void onEvent(@Nonnull ByteBuf body)
+    {
+        String type = EncodingUtils.unpackUTF84(body);
+        if (!"TOPOLOGY_CHANGE".equals(type) && !"STATUS_CHANGE".equals(type))
+            return;
+
+        String change = EncodingUtils.unpackUTF84(body);
+        SocketAddress address = unpackInet(body);
+        if (address == null)
+            return;
+
+        onTopologyChange(change, address);
+    }
+
+    public void onTopologyChange(@Nonnull String change, @Nonnull SocketAddress address)
+    {
+        LOG.debug("Received {} for {}", change, address);
+        switch (change)
+        {
+            case "NEW_NODE":
+            {
+                add(address);
+                // The tokens of the new node are only known from system.peers
+                refresh();
+                break;
+            }
+            case "UP":
+            {
+                add(address);
+                break;
+            }
+            case "REMOVED_NODE":
+            {
+                remove(address);
+                break;
+            }
+            case "MOVED_NODE":
+            {
+                refresh();
+                break;
+            }
+            default:
+                // DOWN needs no action, the pool notices closed connections on its own
+                break;
+        }
+    }
+
+    protected void update(@Nonnull Node node, @Nonnull Map<String, BinaryObject> row)
+    {
+        BinaryObject hostId = row.get("host_id");
+        BinaryObject datacenter = row.get("data_center");
+        BinaryObject rack = row.get("rack");
+        node.update(hostId == null ? null : hostId.getUUID(), datacenter == null ? null : datacenter.getString(), rack == null ? null : rack.getString());
+
+        BinaryObject tokens = row.get("tokens");
+        byte[] raw = tokens == null ? null : tokens.getBytes();
+        if (raw != null)
+            node.setTokens(unpackTokens(Unpooled.wrappedBuffer(raw)));
+    }
+
+    protected void rebuildRing()
+    {
+        ring = tokenAware ? TokenRing.of(nodes.values()) : TokenRing.EMPTY;
+    }
+
+    @Nullable
+    protected SocketAddress getPeerAddress(@Nonnull Map<String, BinaryObject> row)
+    {
+        BinaryObject rpcAddress = row.get("rpc_address");
+        InetAddress address = rpcAddress == null ? null : rpcAddress.getInetAddress();
+
+        // A node listening on all interfaces reports the wildcard address, fall back to the address it gossips with
+        if (address == null || address.isAnyLocalAddress())
+        {
+            BinaryObject peer = row.get("peer");
+            address = peer == null ? null : peer.getInetAddress();
+        }
+
+        return address == null ? null : new InetSocketAddress(address, getPort());
+    }
+
+    protected int getPort()
+    {
+        SocketAddress address = contactPoint.getAddress();
+        return address instanceof InetSocketAddress ? ((InetSocketAddress) address).getPort() : DEFAULT_PORT;
+    }
+
+    @Nonnull
+    protected static List<Map<String, BinaryObject>> getRows(@Nonnull Response response)
+    {
+        BinaryArray array = response.getArray();
+        if (array == null || array.getColumnCount() == 0)
+            return Collections.emptyList();
+
+        List<Map<String, BinaryObject>> rows = new ArrayList<>();
+        Map<String, BinaryObject> row = null;
+        int index = 0;
+        for (BinaryObject object : array)
+        {
+            if (index++ % array.getColumnCount() == 0)
+                rows.add(row = new HashMap<>());
+            row.put(object.path.getName(), object);
+        }
+        return rows;
+    }
+
+    /**
+     * Reads the tokens column, a {@code set<text>} with the decimal representation of each token.
+     */
+    @Nonnull
+    protected static Set<Long> unpackTokens(@Nonnull ByteBuf raw)
+    {
+        int count = raw.readInt();
+        Set<Long> tokens = new HashSet<>(count);
+        for (int i = 0; i < count; i++)
+        {
+            int length = raw.readInt();
+            String token = raw.readCharSequence(length, StandardCharsets.UTF_8).toString();
+            try
+            {
+                tokens.add(Long.parseLong(token));
+            }
+            catch (NumberFormatException failure)
+            {
+                LOG.debug("Ignoring token {} which is not a Murmur3 token", token);
+            }
+        }
+        return tokens;
+    }
+
+    @Nullable
+    protected static SocketAddress unpackInet(@Nonnull ByteBuf body)
+    {
+        byte[] address = new byte[body.readUnsignedByte()];
+        body.readBytes(address);
+        int port = body.readInt();
+        try
+        {
+            return new InetSocketAddress(InetAddress.getByAddress(address), port);
+        }
+        catch (UnknownHostException failure)
+        {
+            LOG.debug("Received event with invalid address", failure);
+            return null;
+        }
+    }
+}
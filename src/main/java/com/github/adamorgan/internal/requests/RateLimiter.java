@@ -0,0 +1,161 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.adamorgan.internal.requests;
+
+import com.github.adamorgan.api.utils.RateLimit;
+import com.github.adamorgan.internal.utils.Checks;
+import com.github.adamorgan.internal.utils.TokenBucket;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket of a {@link RateLimit}.
+ * <br>Taking a token and recording the metrics never locks, so requests of different threads only contend
+ * on the compare-and-set of the bucket.
+ */
+public class RateLimiter implements RateLimit
+{
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final String tag;
+    private final double rate;
+    private final int burst;
+    private final TokenBucket bucket;
+
+    // Requests of the current and the last completed second, the window moves on with the first request after a second passed
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final LongAdder window = new LongAdder();
+    private volatile long lastWindow;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder delayed = new LongAdder();
+    private final LongAdder waitTime = new LongAdder();
+    private final AtomicLong maxWaitTime = new AtomicLong();
+
+    public RateLimiter(@Nonnull String tag, double rate, int burst)
+    {
+        this.tag = tag;
+        this.rate = rate;
+        this.burst = burst;
+        this.bucket = new TokenBucket(rate, burst);
+    }
+
+    /**
+     * Takes a token for a request, the request has to wait for the returned time before it is sent.
+     * <br>Delayed requests have to be {@link #release() released} once they continue.
+     *
+     * @return The time to wait in nanoseconds, {@code 0} if the request can be sent right away
+     */
+    public long acquire()
+    {
+        count();
+        long wait = bucket.reserve();
+        if (wait > 0)
+        {
+            waiting.incrementAndGet();
+            delayed.increment();
+            waitTime.add(wait);
+            maxWaitTime.accumulateAndGet(wait, Math::max);
+        }
+        return wait;
+    }
+
+    public void release()
+    {
+        waiting.decrementAndGet();
+    }
+
+    private void count()
+    {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= SECOND && windowStart.compareAndSet(start, now))
+        {
+            long count = window.sumThenReset();
+            // Nothing was requested during the last second, if the window is older than that
+            lastWindow = now - start >= 2 * SECOND ? 0 : count;
+        }
+        window.increment();
+    }
+
+    @Nonnull
+    @Override
+    public String getTag()
+    {
+        return tag;
+    }
+
+    @Override
+    public double getRate()
+    {
+        return rate;
+    }
+
+    @Override
+    public int getBurst()
+    {
+        return burst;
+    }
+
+    @Override
+    public double getCurrentRate()
+    {
+        long elapsed = System.nanoTime() - windowStart.get();
+        if (elapsed >= 2 * SECOND)
+            return 0;
+        if (elapsed >= SECOND)
+            return window.sum() * (double) SECOND / elapsed;
+        return lastWindow;
+    }
+
+    @Override
+    public int getWaitingCount()
+    {
+        return waiting.get();
+    }
+
+    @Override
+    public long getDelayedCount()
+    {
+        return delayed.sum();
+    }
+
+    @Override
+    public long getAverageWaitTime(@Nonnull TimeUnit unit)
+    {
+        Checks.notNull(unit, "Unit");
+        long count = delayed.sum();
+        return count == 0 ? 0 : unit.convert(waitTime.sum() / count, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public long getMaxWaitTime(@Nonnull TimeUnit unit)
+    {
+        Checks.notNull(unit, "Unit");
+        return unit.convert(maxWaitTime.get(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "RateLimit(" + tag + ", " + rate + "/s)";
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.adamorgan.internal.requests;
+
+import com.github.adamorgan.api.utils.request.ObjectData;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Identifies requests which produce the same response, compared by the exact bytes of the frame body,
+ * the bound values sent apart from the body and the header fields which influence the response.
+ * <br>Together they hold the statement, the bound values and the consistency, so equal keys always ask the same question.
+ */
+public final class RequestKey
+{
+    private final byte version;
+    private final int flags;
+    private final int opcode;
+    private final ByteBuf body;
+    private final ByteBuf values;
+    private final int hash;
+
+    public RequestKey(@Nonnull ObjectData data)
+    {
+        this.version = data.getVersion();
+        this.flags = data.getFlags();
+        this.opcode = data.getOpcode();
+        this.body = data.getBody();
+        this.values = data.getValues();
+        this.hash = 31 * (31 * (31 * (31 * version + flags) + opcode) + ByteBufUtil.hashCode(body)) + ByteBufUtil.hashCode(values);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof RequestKey))
+            return false;
+        RequestKey other = (RequestKey) obj;
+        return hash == other.hash && version == other.version && flags == other.flags && opcode == other.opcode
+                && ByteBufUtil.equals(body, other.body) && ByteBufUtil.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return hash;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.adamorgan.internal.requests;
+
+import com.github.adamorgan.api.utils.RequestPriority;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Queue of requests waiting for a connection, with one lane per {@link RequestPriority}.
+ * <br>{@link #pollFirst()} picks the lane by weighted round robin without locking: a shared counter walks over
+ * a cycle of the summed weights, each lane owning a range as long as its weight. Empty lanes pass their turn
+ * to the next non-empty lane of higher priority first.
+ */
+public class RequestQueue
+{
+    private static final RequestPriority[] PRIORITIES = RequestPriority.values();
+    private static final int[] SCHEDULE = createSchedule();
+
+    @SuppressWarnings("unchecked")
+    private final Deque<Requester.WorkTask>[] lanes = new Deque[PRIORITIES.length];
+    private final AtomicLong turn = new AtomicLong();
+
+    public RequestQueue()
+    {
+        for (int i = 0; i < lanes.length; i++)
+            lanes[i] = new ConcurrentLinkedDeque<>();
+    }
+
+    private static int[] createSchedule()
+    {
+        int total = 0;
+        for (RequestPriority priority : PRIORITIES)
+            total += priority.getWeight();
+
+        // Interleave the lanes, so a heavy lane does not take all of its turns in a row
+        int[] schedule = new int[total];
+        int[] credits = new int[PRIORITIES.length];
+        for (int slot = 0; slot < total; slot++)
+        {
+            int best = 0;
+            for (int lane = 0; lane < PRIORITIES.length; lane++)
+            {
+                credits[lane] += PRIORITIES[lane].getWeight();
+                if (credits[lane] > credits[best])
+                    best = lane;
+            }
+            credits[best] -= total;
+            schedule[slot] = best;
+        }
+        return schedule;
+    }
+
+    @Nonnull
+    private Deque<Requester.WorkTask> lane(@Nonnull RequestPriority priority)
+    {
+        return lanes[priority.ordinal()];
+    }
+
+    public void addLast(@Nonnull Requester.WorkTask task)
+    {
+        lane(task.getPriority()).addLast(task);
+    }
+
+    public void addFirst(@Nonnull Requester.WorkTask task)
+    {
+        lane(task.getPriority()).addFirst(task);
+    }
+
+    /**
+     * Takes the next request according to the lane weights.
+     *
+     * @return The next request, or {@code null} if all lanes are empty
+     */
+    @Nullable
+    public Requester.WorkTask pollFirst()
+    {
+        int scheduled = SCHEDULE[(int) Math.floorMod(turn.getAndIncrement(), (long) SCHEDULE.length)];
+        Requester.WorkTask task = lanes[scheduled].pollFirst();
+        for (int lane = 0; task == null && lane < lanes.length; lane++)
+            task = lanes[lane].pollFirst();
+        return task;
+    }
+
+    /**
+     * Takes the oldest request of the lowest priority, used to make room for a new request.
+     *
+     * @return The dropped request, or {@code null} if all lanes are empty
+     */
+    @Nullable
+    public Requester.WorkTask pollDroppable()
+    {
+        Requester.WorkTask task = null;
+        for (int lane = lanes.length - 1; task == null && lane >= 0; lane--)
+            task = lanes[lane].pollFirst();
+        return task;
+    }
+
+    public boolean removeFirstOccurrence(@Nonnull Requester.WorkTask task)
+    {
+        return lane(task.getPriority()).removeFirstOccurrence(task);
+    }
+
+    /**
+     * Whether a request of the provided or a higher priority is waiting.
+     * <br>New requests of the provided priority have to queue behind those.
+     *
+     * @param  priority
+     *         The priority of the new request
+     *
+     * @return True, if a request of the same or a higher priority is waiting
+     */
+    public boolean hasWaiting(@Nonnull RequestPriority priority)
+    {
+        for (int lane = 0; lane <= priority.ordinal(); lane++)
+        {
+            if (!lanes[lane].isEmpty())
+                return true;
+        }
+        return false;
+    }
+
+    public boolean isEmpty()
+    {
+        return !hasWaiting(PRIORITIES[PRIORITIES.length - 1]);
+    }
+
+    public int size(@Nonnull RequestPriority priority)
+    {
+        return lane(priority).size();
+    }
+
+    public int size()
+    {
+        int size = 0;
+        for (Deque<Requester.WorkTask> lane : lanes)
+            size += lane.size();
+        return size;
+    }
+
+    @Nonnull
+    public Stream<Requester.WorkTask> stream()
+    {
+        Stream<Requester.WorkTask> stream = Stream.empty();
+        for (Deque<Requester.WorkTask> lane : lanes)
+            stream = Stream.concat(stream, lane.stream());
+        return stream;
+    }
+}
@@ -17,25 +17,34 @@
 package com.github.adamorgan.internal.requests;
 
 import com.github.adamorgan.api.Library;
+import com.github.adamorgan.api.exceptions.ErrorResponse;
+import com.github.adamorgan.api.exceptions.ErrorResponseException;
 import com.github.adamorgan.api.requests.*;
-import com.github.adamorgan.api.utils.MiscUtil;
+import com.github.adamorgan.api.requests.objectaction.ObjectCreateAction;
+import com.github.adamorgan.api.utils.RequestPriority;
+import com.github.adamorgan.api.utils.RetryDecision;
+import com.github.adamorgan.api.utils.SpeculativeExecutionPolicy;
+import com.github.adamorgan.api.utils.request.ObjectData;
 import com.github.adamorgan.internal.LibraryImpl;
+import com.github.adamorgan.internal.requests.action.ObjectActionImpl;
+import com.github.adamorgan.internal.utils.LatencyTracker;
 import com.github.adamorgan.internal.utils.LibraryLogger;
-import com.github.adamorgan.internal.utils.UnlockHook;
+import com.github.adamorgan.internal.utils.TokenBucket;
+import com.github.adamorgan.internal.utils.config.ConnectionConfig;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.util.collection.IntObjectHashMap;
-import io.netty.util.collection.IntObjectMap;
+import io.netty.util.Timeout;
+import io.netty.util.concurrent.EventExecutor;
 import org.slf4j.Logger;
 
 import javax.annotation.Nonnull;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 public class Requester implements RequestManager
 {
@@ -45,23 +54,41 @@ public class Requester implements RequestManager
 
     private final CompletableFuture<Void> shutdownHandle = new CompletableFuture<>();
 
-    private boolean isStopped, isShutdown;
+    private volatile boolean isStopped, isShutdown;
 
-    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Requests which could not be routed to a connection yet, drained once a stream or connection becomes available
+    private final RequestQueue queue = new RequestQueue();
 
-    private final Map<Integer, Requester.WorkTask> hitRateLimit = new ConcurrentHashMap<>();
+    // Identical idempotent requests which are currently executed, later ones wait for the same response
+    private final Map<RequestKey, WorkTask> flights = new ConcurrentHashMap<>();
 
-    private final IntObjectMap<Bucket> buckets = new IntObjectHashMap<>();
-    private final Map<Bucket, Future<?>> rateLimitQueue = new HashMap<>();
+    // Client side rate limits by tag, requests above their rate wait on the timer before they are queued
+    private final Map<String, RateLimiter> rateLimits;
+    private final AtomicInteger delayed = new AtomicInteger();
+
+    // One permit per free slot of the pending queue, released once a task leaves the queue for good
+    private final Semaphore slots;
 
     private final SocketClient client;
 
+    private final LatencyTracker latency = new LatencyTracker();
+
+    // Shared by all retries, so retries cannot multiply the load of an overloaded cluster
+    private final TokenBucket retryBudget;
+    private final Map<RetryDecision.Type, LongAdder> retryDecisions = new EnumMap<>(RetryDecision.Type.class);
+    private final LongAdder retriesDenied = new LongAdder();
+
     private final Future<?> cleanupWorker;
 
     public Requester(@Nonnull LibraryImpl api)
     {
         this.api = api;
         this.client = api.getClient();
+        this.slots = new Semaphore(api.getConnectionConfig().getMaxQueueSize());
+        this.rateLimits = api.getConnectionConfig().getRateLimits();
+        this.retryBudget = new TokenBucket(api.getConnectionConfig().getRetryRate(), api.getConnectionConfig().getRetryBurst());
+        for (RetryDecision.Type type : RetryDecision.Type.values())
+            retryDecisions.put(type, new LongAdder());
         this.cleanupWorker = api.getCallbackPool().schedule(this::cleanup, 30, TimeUnit.SECONDS);
     }
 
@@ -71,301 +98,675 @@ public class Requester implements RequestManager
         return api;
     }
 
+    @Nonnull
+    public LatencyTracker getLatency()
+    {
+        return latency;
+    }
+
+    /**
+     * The amount of requests of the provided priority which wait for a free stream or connection.
+     *
+     * @param  priority
+     *         The priority lane
+     *
+     * @return The queue depth of the lane
+     */
+    public int getQueueSize(@Nonnull RequestPriority priority)
+    {
+        return queue.size(priority);
+    }
+
+    /**
+     * How often the {@link com.github.adamorgan.api.utils.RetryPolicy RetryPolicy} returned the provided decision.
+     *
+     * @param  type
+     *         The type of decision
+     *
+     * @return The amount of decisions
+     */
+    public long getRetryDecisions(@Nonnull RetryDecision.Type type)
+    {
+        return retryDecisions.get(type).sum();
+    }
+
+    /**
+     * The amount of retries which were not executed, because the retry budget was exhausted
+     * or the request queue was full.
+     *
+     * @return The amount of denied retries
+     */
+    public long getRetriesDenied()
+    {
+        return retriesDenied.sum();
+    }
+
     public <R> void request(@Nonnull Request<R> request)
     {
         if (isStopped || isShutdown)
+        {
             request.onFailure(new RejectedExecutionException("The Requester has been stopped! No new requests can be requested!"));
+            return;
+        }
 
-        if (request.shouldQueue())
-            enqueue(new WorkTask(request));
+        if (!request.shouldQueue())
+            return;
+
+        WorkTask task = new WorkTask(request);
+        scheduleTimeout(task);
+        if (coalesce(task))
+            return;
+
+        String tag = request.getRateLimitTag();
+        RateLimiter limiter = tag == null ? null : rateLimits.get(tag);
+        long wait = limiter == null ? 0 : limiter.acquire();
+        if (wait > 0)
+            delay(task, limiter, wait);
+        else
+            enqueue(task);
     }
 
-    @Override
-    public void enqueue(@Nonnull WorkTask task)
+    /**
+     * Holds back a request above the rate of its tag, it is submitted once its token of the rate limit is available.
+     * <br>Delayed requests don't take a slot of the pending queue until they are submitted.
+     */
+    private void delay(@Nonnull WorkTask task, @Nonnull RateLimiter limiter, long wait)
     {
-        try (UnlockHook hook = writeLock())
+        delayed.incrementAndGet();
+        schedule(() ->
         {
-            Bucket bucket = getBucket(task);
-            bucket.enqueue(task);
-            runBucket(bucket);
-        }
+            limiter.release();
+            delayed.decrementAndGet();
+            // Timed out or cancelled while waiting
+            if (!task.isSkipped())
+            {
+                enqueue(task);
+                return;
+            }
+            task.abandon();
+            drain();
+        }, wait, TimeUnit.NANOSECONDS);
     }
 
-    public void handleResponse(@Nonnull ChannelHandlerContext context, byte flags, int stream, byte opcode, int length, Exception exception, ByteBuf body)
+    /**
+     * Runs the task on the callback pool once the delay passed.
+     * <br>The timer thread only hands off, so a slow task cannot delay the other timeouts of the timer.
+     */
+    @Nonnull
+    private Timeout schedule(@Nonnull Runnable task, long delay, @Nonnull TimeUnit unit)
     {
-        try
+        return api.getTimer().newTimeout(timeout ->
         {
-            long rawData = ((long) flags << 56) | ((long) stream << 40) | ((long) opcode << 32) | length;
-
-            Bucket bucket = buckets.get(stream);
-
-            WorkTask mainTask = hitRateLimit.remove(stream);
-
-            //the error is within the driver implementation
-            if (mainTask == null)
+            try
             {
-                throw new IOException("Target resource is no longer available at the origin server");
+                api.getCallbackPool().execute(task);
             }
-
-            ByteBuf retainedBody = body.retain();
-
-            mainTask.handleResponse(context, rawData, exception, retainedBody.duplicate());
-
-            Iterator<WorkTask> it = bucket.requests.iterator();
-            while (it.hasNext())
+            catch (RejectedExecutionException ex)
             {
-                WorkTask req = it.next();
-                if (mainTask.equals(req))
-                {
-                    it.remove();
-                    req.handleResponse(context, rawData, exception, retainedBody.duplicate());
-                }
+                task.run();
             }
+        }, delay, unit);
+    }
 
-            retainedBody.release();
+    /**
+     * Starts the deadline of the request on the library timer, which fails it on time wherever it is at that point.
+     */
+    private void scheduleTimeout(@Nonnull WorkTask task)
+    {
+        long deadline = task.request.getDeadline();
+        if (deadline <= 0)
+            return;
 
-            bucket.backoff();
-        }
-        catch (IOException failure)
+        long delay = Math.max(0, deadline - System.currentTimeMillis());
+        task.timeout = schedule(() -> expire(task), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Fails a request whose deadline passed with a {@link TimeoutException}, whether it still waits for a connection or was already written.
+     * <br>The streams of its executions become orphaned, they are only freed by the late response or by closing the connection,
+     * so the stream id cannot be matched to a newer request too early. A connection with too many orphaned streams is closed.
+     */
+    private void expire(@Nonnull WorkTask task)
+    {
+        if (!task.expire())
+            return;
+
+        if (queue.removeFirstOccurrence(task))
         {
-            failure.printStackTrace();
+            slots.release();
+            return;
         }
-        finally
+
+        // Tasks in the submission queue of a connection are skipped by its next drain
+        for (int i = 0; i < task.connections.size(); i++)
         {
-            body.release();
+            SocketConnection connection = task.connections.get(i);
+            int stream = task.streams.get(i);
+            if (!connection.orphan(stream, task))
+                continue;
+            connection.onDropped();
+            LOG.debug("Request on stream {} of {} timed out, the stream stays orphaned until its response arrives", stream, connection.getChannel().remoteAddress());
+
+            // The pool replaces the closed connection, closing it frees all of its orphaned streams
+            if (connection.hasTooManyOrphans() && connection.getChannel().isActive())
+            {
+                LOG.warn("Closing connection to {}, {} of its streams never received a response", connection.getChannel().remoteAddress(), connection.getOrphanedCount());
+                connection.getChannel().close();
+            }
         }
     }
 
-    public void stop(boolean shutdown, @Nonnull Runnable callback)
+    /**
+     * Attaches an idempotent request to an identical one which is already executed, if request coalescing is enabled.
+     * <br>Otherwise the task starts a new flight, which identical requests can join until its response arrives.
+     *
+     * @return True, if the task waits for the response of another request and must not be queued
+     */
+    private boolean coalesce(@Nonnull WorkTask task)
     {
-        try (UnlockHook hook = readLock())
+        if (!api.getConnectionConfig().isRequestCoalescing() || !task.request.getObjectAction().isIdempotent())
+            return false;
+
+        RequestKey key = new RequestKey(task.request.getBody());
+        while (true)
         {
-            boolean doShutdown = shutdown;
-            if (!isStopped)
+            WorkTask leader = flights.putIfAbsent(key, task);
+            if (leader == null)
             {
-                isStopped = true;
-                shutdownHandle.thenRun(callback);
-                if (!doShutdown)
-                {
-                    int count = buckets.values().stream()
-                            .mapToInt(bucket -> bucket.getRequests().size())
-                            .sum();
-
-                    if (count > 0)
-                    {
-                        LOG.info("Waiting for {} requests to finish.", count);
-                    }
-
-                    doShutdown = count == 0;
-                }
+                task.flight = key;
+                return false;
             }
-            if (doShutdown && !isShutdown)
-                shutdown();
+            if (leader.join(task.request))
+                return true;
+            // The leader just completed, replace it
+            flights.remove(key, leader);
         }
     }
 
-    @Override
-    public boolean isStopped()
+    private void skip(@Nonnull WorkTask task)
     {
-        return isStopped;
+        slots.release();
+        task.abandon();
     }
 
-    public UnlockHook writeLock()
+    /**
+     * Submits a request without taking any lock.
+     * <br>The request is handed to the submission queue of the selected connection and written by its event loop.
+     * If no connection is available, or older requests are still waiting, it waits in the shared queue instead.
+     */
+    @Override
+    public void enqueue(@Nonnull WorkTask task)
     {
-        if (lock.getReadHoldCount() > 0)
-            throw new IllegalStateException("Unable to acquire write-lock while holding read-lock!");
-        Lock writeLock = lock.writeLock();
-        MiscUtil.tryLock(writeLock);
-        return new UnlockHook(writeLock);
-    }
+        if (!admit())
+        {
+            task.reject();
+            return;
+        }
 
-    public UnlockHook readLock()
-    {
-        ReentrantReadWriteLock.ReadLock readLock = lock.readLock();
-        MiscUtil.tryLock(readLock);
-        return new UnlockHook(readLock);
-    }
+        // Requests must not overtake the ones of the same or a higher priority which are already waiting for a connection
+        SocketConnection connection = !queue.hasWaiting(task.getPriority()) ? client.getNodes().next(task.request.getBody().getRoutingKey()) : null;
+        if (connection == null)
+        {
+            queue.addLast(task);
+            drain();
+            return;
+        }
 
-    private void shutdown()
-    {
-        isShutdown = true;
-        cleanupWorker.cancel(false);
-        cleanup();
-        shutdownHandle.complete(null);
+        dispatch(connection, task);
     }
 
-    private Bucket getBucket(@Nonnull Work request)
+    /**
+     * Hands the task to the submission queue of the connection and schedules a drain on its event loop,
+     * unless one is already scheduled.
+     */
+    private void dispatch(@Nonnull SocketConnection connection, @Nonnull WorkTask task)
     {
-        try (UnlockHook hook = readLock())
+        connection.getSubmissions(task.getPriority()).offer(task);
+        if (!connection.scheduleDrain())
+            return;
+
+        try
         {
-            int bucketId = request.hashCode();
-            return this.buckets.computeIfAbsent(bucketId, Bucket::new);
+            connection.getContext().executor().execute(() -> drain(connection));
         }
-    }
-
-    private void runBucket(Bucket bucket)
-    {
-        try (UnlockHook hook = readLock())
+        catch (RejectedExecutionException ex)
         {
-            if (isShutdown)
-                return;
-
-            // Schedule a new bucket worker if no worker is running
-            bucket.run();
+            // The event loop is shutting down, the tasks move to the shared queue
+            drain(connection);
         }
     }
 
-    private void cleanup()
+    /**
+     * Writes the submitted requests of the connection, runs on its event loop.
+     * <br>All frames are written before a single flush, higher priorities first, so they get the free streams of the connection.
+     * Requests the connection cannot take anymore move to the front of the shared queue, in the order they were submitted.
+     */
+    private void drain(@Nonnull SocketConnection connection)
     {
-        // This will remove buckets that are no longer needed every 30 seconds to avoid memory leakage
-        // We will keep the hashes in memory since they are very limited (by the amount of possible routes)
-        try (UnlockHook hook = readLock())
-        {
-            int size = buckets.size();
-            Iterator<Map.Entry<Integer, Bucket>> entries = buckets.entrySet().iterator();
+        // Cleared before polling, so a concurrent submission schedules another drain instead of being missed
+        connection.finishDrain();
 
-            while (entries.hasNext())
+        boolean written = false;
+        List<WorkTask> overflow = null;
+        for (RequestPriority priority : RequestPriority.values())
+        {
+            Queue<WorkTask> submissions = connection.getSubmissions(priority);
+            WorkTask task;
+            while ((task = submissions.poll()) != null)
             {
-                Map.Entry<Integer, Bucket> entry = entries.next();
-                Bucket bucket = entry.getValue();
                 if (isShutdown)
-                    bucket.requests.forEach(Work::cancel); // Cancel all requests
-                bucket.requests.removeIf(Work::isSkipped); // Remove cancelled requests
+                {
+                    task.cancel();
+                    skip(task);
+                    continue;
+                }
 
-                // Check if the bucket is empty
-                if (bucket.requests.isEmpty() && !rateLimitQueue.containsKey(bucket))
+                if (task.isSkipped())
                 {
-                    // Remove empty buckets when the rate limiter is stopped
-                    if (isStopped)
-                        entries.remove();
+                    skip(task);
+                    continue;
+                }
+
+                int stream = connection.isAvailable() ? connection.registerStream(task) : -1;
+                if (stream < 0)
+                {
+                    if (overflow == null)
+                        overflow = new ArrayList<>();
+                    overflow.add(task);
+                    continue;
                 }
-            }
 
-            // LOG how many buckets were removed
-            size -= buckets.size();
-            if (size > 0)
-                LOG.debug("Removed {} expired buckets", size);
-            else if (isStopped && !isShutdown)
-                shutdown();
+                slots.release();
+                execute(task, connection, stream, false);
+                written = true;
+            }
         }
+
+        if (written)
+            connection.flush();
+        if (overflow == null)
+            return;
+
+        // Submitted requests were already admitted, they keep their place ahead of newer ones in their lane
+        for (int i = overflow.size() - 1; i >= 0; i--)
+            queue.addFirst(overflow.get(i));
+        drain();
     }
 
-    @Override
-    public int cancelRequests()
+    public void handleResponse(@Nonnull SocketConnection connection, byte flags, int stream, byte opcode, int length, Exception exception, ByteBuf body)
     {
-        try (UnlockHook hook = readLock())
-        {
-            int cancelled = (int) buckets.values()
-                    .stream()
-                    .map(Bucket::getRequests)
-                    .flatMap(Collection::stream)
-                    .filter(request -> !request.isPriority() && !request.isCancelled())
-                    .peek(Work::cancel)
-                    .count();
-
-            if (cancelled == 1)
-                LOG.warn("Cancelled 1 request!");
-            else if (cancelled > 1)
-                LOG.warn("Cancelled {} requests!", cancelled);
-            return cancelled;
+        try
+        {
+            boolean orphaned = connection.isOrphaned(stream);
+            WorkTask task = connection.releaseStream(stream);
+
+            //the server answered a stream we never sent or already completed
+            if (task == null)
+            {
+                throw new IOException("No in-flight request for stream " + stream);
+            }
+
+            // The request already failed, the response still counts towards the latency of the connection
+            if (orphaned)
+                LOG.trace("Received late response of a timed out request on stream {}", stream);
+
+            connection.recordLatency(task.getElapsed(connection, stream));
+            if (exception instanceof ErrorResponseException && ((ErrorResponseException) exception).getErrorResponse() == ErrorResponse.OVERLOADED)
+                connection.onDropped();
+
+            if (!(exception instanceof ErrorResponseException) || !retry(task, connection, (ErrorResponseException) exception))
+            {
+                long rawData = ((long) flags << 56) | ((long) stream << 40) | ((long) opcode << 32) | length;
+
+                task.handleResponse(connection.getContext(), rawData, exception, body.duplicate());
+            }
         }
+        catch (IOException failure)
+        {
+            LOG.debug("Dropping response: {}", failure.getMessage());
+        }
+        finally
+        {
+            body.release();
+        }
+
+        drain();
     }
 
-    private class Bucket implements Runnable
+    /**
+     * Asks the {@link com.github.adamorgan.api.utils.RetryPolicy RetryPolicy} whether a request answered with an error is sent again.
+     * <br>Only requests without another pending execution are retried. A retry needs a token of the retry budget
+     * and a free slot of the pending queue, otherwise the request fails with the error.
+     *
+     * @return True, if the request is retried and must not be completed with the error
+     */
+    private boolean retry(@Nonnull WorkTask task, @Nonnull SocketConnection connection, @Nonnull ErrorResponseException error)
     {
-        protected final int bucketId;
-        protected final Deque<WorkTask> requests = new ConcurrentLinkedDeque<>();
+        if (isShutdown || task.pending.get() != 1 || task.isDone())
+            return false;
 
-        public Bucket(int bucketId)
+        RetryDecision decision = api.getConnectionConfig().getRetryPolicy().onError(task.request.getObjectAction(), error, task.retries);
+        retryDecisions.get(decision.getType()).increment();
+        if (decision.getType() == RetryDecision.Type.FAIL)
+            return false;
+
+        ObjectData body = null;
+        if (decision.getType() == RetryDecision.Type.DOWNGRADE)
         {
-            this.bucketId = bucketId;
+            body = ((ObjectActionImpl<?>) task.request.getObjectAction()).finalizeData(decision.getConsistency());
+            if (body == null)
+                return false;
         }
 
-        public void enqueue(@Nonnull WorkTask request)
+        if (!slots.tryAcquire())
         {
-            requests.addLast(request);
+            retriesDenied.increment();
+            LOG.debug("Not retrying request after {}, the request queue is full", error.getErrorResponse());
+            return false;
+        }
+        if (!retryBudget.tryAcquire())
+        {
+            slots.release();
+            retriesDenied.increment();
+            LOG.debug("Not retrying request after {}, the retry budget is exhausted", error.getErrorResponse());
+            return false;
         }
 
-        public void retry(@Nonnull WorkTask request)
+        LOG.debug("Retrying request after {} from {}: {}", error.getErrorResponse(), connection.getChannel().remoteAddress(), decision);
+        task.pending.decrementAndGet();
+        switch (decision.getType())
         {
-            if (!moveRequest(request))
-                requests.addFirst(request);
+            case RETRY_SAME:
+                task.retries++;
+                dispatch(connection, task);
+                break;
+            case RETRY_NEXT:
+                task.retries++;
+                SocketConnection next = client.getNodes().nextExcluding(Collections.singletonList(connection));
+                if (next != null)
+                {
+                    dispatch(next, task);
+                    break;
+                }
+                queue.addFirst(task);
+                break;
+            case DOWNGRADE:
+                // The body of a request cannot change, the downgraded request replaces this one
+                WorkTask downgraded = new WorkTask(task.request.withBody(body));
+                downgraded.retries = task.retries + 1;
+                downgraded.consistency = decision.getConsistency();
+                // The deadline of the request passed in the meantime, it already failed
+                if (!task.retire())
+                {
+                    slots.release();
+                    break;
+                }
+                scheduleTimeout(downgraded);
+                queue.addFirst(downgraded);
+                break;
         }
+        return true;
+    }
 
-        protected void backoff()
+    /**
+     * Reserves a slot of the pending queue according to the configured {@link com.github.adamorgan.api.utils.AdmissionPolicy AdmissionPolicy}.
+     *
+     * @return True, if the task may be queued
+     */
+    private boolean admit()
+    {
+        if (slots.tryAcquire())
+            return true;
+
+        ConnectionConfig config = api.getConnectionConfig();
+        switch (config.getAdmissionPolicy())
         {
-            // Schedule backoff if requests are not done
-            try (UnlockHook hook = readLock())
-            {
-                if (!requests.isEmpty())
-                    runBucket(this);
-                else if (isStopped)
-                    buckets.remove(bucketId);
-                else
-                    rateLimitQueue.remove(this);
-                if (isStopped && buckets.isEmpty())
-                    shutdown();
-            }
+            case BLOCK:
+                // Blocking an event loop would also block the responses which free up the queue
+                if (isEventLoop())
+                    return false;
+                try
+                {
+                    return slots.tryAcquire(config.getAdmissionTimeout(), TimeUnit.MILLISECONDS);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            case DROP_OLDEST:
+                WorkTask oldest = queue.pollDroppable();
+                if (oldest == null)
+                    return false;
+                // The new task takes over the slot of the dropped one
+                oldest.reject();
+                return true;
+            default:
+                return false;
         }
+    }
 
-        @Nonnull
-        public Queue<WorkTask> getRequests()
+    private boolean isEventLoop()
+    {
+        for (EventExecutor executor : api.getCallbackPool())
         {
-            return requests;
+            if (executor.inEventLoop())
+                return true;
         }
+        return false;
+    }
 
-        protected boolean moveRequest(@Nonnull WorkTask request)
+    /**
+     * Handles a request whose connection was lost before the response arrived.
+     * <br>Idempotent requests are queued again in front of all other requests, unless another execution
+     * of the same request is still running. All other requests fail with the provided exception.
+     *
+     * @param task
+     *        The in-flight task of the lost connection
+     * @param context
+     *        The context of the lost connection
+     * @param failure
+     *        The reason the connection was lost
+     */
+    public void failover(@Nonnull WorkTask task, @Nonnull ChannelHandlerContext context, @Nonnull Exception failure)
+    {
+        boolean retry = !isShutdown && task.pending.get() == 1 && !task.isDone()
+                && task.request.getObjectAction().isIdempotent() && slots.tryAcquire();
+        if (!retry)
         {
-            try (UnlockHook hook = writeLock())
+            task.handleResponse(context, failure);
+            return;
+        }
+
+        task.pending.decrementAndGet();
+        LOG.debug("Retrying idempotent request after losing its connection: {}", failure.getMessage());
+        queue.addFirst(task);
+    }
+
+    public synchronized void stop(boolean shutdown, @Nonnull Runnable callback)
+    {
+        boolean doShutdown = shutdown;
+        if (!isStopped)
+        {
+            isStopped = true;
+            shutdownHandle.thenRun(callback);
+            if (!doShutdown)
             {
-                Bucket bucket = getBucket(request);
-                if (bucket != this)
+                int count = queue.size() + delayed.get() + client.getNodes().getInFlightCount();
+
+                if (count > 0)
                 {
-                    bucket.enqueue(request);
-                    runBucket(bucket);
+                    LOG.info("Waiting for {} requests to finish.", count);
                 }
-                return bucket != this;
+
+                doShutdown = count == 0;
             }
         }
+        if (doShutdown && !isShutdown)
+            shutdown();
+    }
 
-        @Override
-        public void run()
+    @Override
+    public boolean isStopped()
+    {
+        return isStopped;
+    }
+
+    private synchronized void shutdown()
+    {
+        if (isShutdown)
+            return;
+        isShutdown = true;
+        cleanupWorker.cancel(false);
+        cleanup();
+        shutdownHandle.complete(null);
+    }
+
+    /**
+     * Writes queued requests to the pool until the queue is empty or no connection has a free stream left.
+     */
+    public void drain()
+    {
+        while (!isShutdown)
         {
-            try (UnlockHook hook = readLock())
-            {
-                if (hitRateLimit.containsKey(bucketId) || requests.isEmpty())
-                    return;
+            WorkTask task = queue.pollFirst();
 
-                WorkTask request = requests.removeFirst();
+            if (task == null)
+                break;
 
-                if (request.isCancelled())
-                    return;
+            if (task.isSkipped())
+            {
+                skip(task);
+                continue;
+            }
+
+            SocketConnection connection = client.getNodes().next(task.request.getBody().getRoutingKey());
+            int stream = connection == null ? -1 : connection.registerStream(task);
 
-                hitRateLimit.put(bucketId, request);
-                ByteBuf body = request.request.getBody().asByteBuf();
-                client.context.writeAndFlush(body.retain());
+            // No connection can take the request, the next response or ready connection will resume draining
+            if (stream < 0)
+            {
+                queue.addFirst(task);
+                break;
             }
+
+            slots.release();
+            execute(task, connection, stream, true);
         }
 
-        @Override
-        public boolean equals(Object obj)
+        if (isStopped && !isShutdown && queue.isEmpty() && delayed.get() == 0 && client.getNodes().getInFlightCount() == 0)
+            shutdown();
+    }
+
+    private void execute(@Nonnull WorkTask task, @Nonnull SocketConnection connection, int stream, boolean flush)
+    {
+        int execution = task.onExecute(connection, stream);
+        connection.write(Frame.of(task.getBody(connection.getVersion()), stream), flush);
+
+        long delay = getSpeculativeDelay(task, execution);
+        if (delay >= 0)
+            connection.getContext().executor().schedule(() -> speculate(task), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sends a pending request once more, the first response of any execution completes it.
+     * <br>Speculation is best effort, the request keeps waiting for its running executions if no other connection is available.
+     */
+    private void speculate(@Nonnull WorkTask task)
+    {
+        if (isShutdown || task.isDone())
+            return;
+
+        SocketConnection connection = client.getNodes().nextExcluding(task.connections);
+        int stream = connection == null ? -1 : connection.registerStream(task);
+        if (stream < 0)
+            return;
+
+        LOG.trace("Starting speculative execution {} on {}", task.connections.size(), connection.getChannel().remoteAddress());
+        execute(task, connection, stream, true);
+    }
+
+    private long getSpeculativeDelay(@Nonnull WorkTask task, int execution)
+    {
+        SpeculativeExecutionPolicy policy = api.getConnectionConfig().getSpeculativeExecutionPolicy();
+        if (execution > policy.getMaxExecutions() || !task.request.getObjectAction().isIdempotent())
+            return -1;
+        if (policy.getDelay() >= 0)
+            return policy.getDelay();
+
+        long percentile = latency.getPercentile(policy.getPercentile());
+        return percentile < 0 ? -1 : Math.max(1, TimeUnit.NANOSECONDS.toMillis(percentile));
+    }
+
+    private void cleanup()
+    {
+        // This will remove requests that are no longer needed every 30 seconds to avoid memory leakage
+        if (isShutdown)
+            queue.stream().forEach(Work::cancel); // Cancel all requests
+
+        // Remove cancelled requests, a concurrent drain may already have taken some of them
+        int size = 0;
+        for (WorkTask task : (Iterable<WorkTask>) queue.stream()::iterator)
         {
-            if (obj == this)
-                return true;
-            if (!(obj instanceof Bucket))
-                return false;
-            return this.bucketId == ((Bucket) obj).bucketId;
+            if (task.isSkipped() && queue.removeFirstOccurrence(task))
+            {
+                skip(task);
+                size++;
+            }
         }
+
+        // LOG how many requests were removed
+        if (size > 0)
+            LOG.debug("Removed {} expired requests", size);
+        else if (isStopped && !isShutdown && queue.isEmpty() && delayed.get() == 0 && client.getNodes().getInFlightCount() == 0)
+            shutdown();
+    }
+
+    @Override
+    public int cancelRequests()
+    {
+        int cancelled = (int) queue.stream()
+                .filter(request -> !request.isPriority() && !request.isCancelled())
+                .peek(Work::cancel)
+                .count();
+
+        if (cancelled == 1)
+            LOG.warn("Cancelled 1 request!");
+        else if (cancelled > 1)
+            LOG.warn("Cancelled {} requests!", cancelled);
+        return cancelled;
     }
 
     public class WorkTask implements RequestManager.Work
     {
         protected final Request<?> request;
-        private boolean done;
+        protected final RequestPriority priority;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        // Every connection this request was written to, the first entry is the original execution
+        private final List<SocketConnection> connections = new CopyOnWriteArrayList<>();
+        private final List<Integer> streams = new CopyOnWriteArrayList<>();
+        private final List<Long> startTimes = new CopyOnWriteArrayList<>();
+        private final AtomicInteger pending = new AtomicInteger();
+
+        // The deadline of this request on the library timer, null if it has none
+        private volatile Timeout timeout;
+        // How often this request was sent again after an error response
+        private volatile int retries;
+        // The consistency of a downgraded request, null if it uses the consistency of its action
+        private volatile ObjectCreateAction.Consistency consistency;
+        // The request encoded for a connection which negotiated another protocol version than the library
+        private volatile ObjectData encoded;
+
+        // Identical requests waiting for the response of this one, guarded by this task
+        private RequestKey flight;
+        private List<Request<?>> followers;
+        private boolean landed;
 
         public WorkTask(@Nonnull Request<?> request)
         {
             this.request = request;
+            this.priority = request.getPriority();
         }
 
         @Nonnull
@@ -375,22 +776,57 @@ public class Requester implements RequestManager
             return this.request.getLibrary();
         }
 
+        /**
+         * Whether this task must not be written anymore.
+         * <br>An expired or cancelled request is completed here, through the same check as its response and its deadline,
+         * so only one of them completes it.
+         *
+         * @return True, if the task is completed
+         */
         @Override
         public boolean isSkipped()
         {
-            return request.isSkipped();
+            // A completed task is never written, even if its deadline is a few milliseconds off the timer
+            if (done.get())
+                return true;
+            if (request.isTimeout())
+            {
+                expire();
+                return true;
+            }
+            if (request.isCancelled())
+            {
+                if (done.compareAndSet(false, true))
+                {
+                    abandon();
+                    request.onCancelled();
+                }
+                return true;
+            }
+            return false;
         }
 
+        /**
+         * Whether this task was completed, without completing it like {@link #isSkipped()} does for expired or cancelled requests.
+         *
+         * @return True, if the task was completed
+         */
         @Override
         public boolean isDone()
         {
-            return isSkipped() || done;
+            return done.get();
+        }
+
+        @Nonnull
+        public RequestPriority getPriority()
+        {
+            return priority;
         }
 
         @Override
         public boolean isPriority()
         {
-            return false;
+            return priority == RequestPriority.CRITICAL;
         }
 
         @Override
@@ -405,34 +841,185 @@ public class Requester implements RequestManager
             request.cancel();
         }
 
-        public void handleResponse(@Nonnull ChannelHandlerContext context, long rawData, Exception exception, ByteBuf body)
+        /**
+         * The request encoded for the protocol version of a connection.
+         * <br>Nodes which only support a lower version than the library negotiate that version on their connections,
+         * the request is then encoded again for it, instead of sending a frame the node cannot read.
+         *
+         * @param  version
+         *         The protocol version of the connection
+         *
+         * @return The encoded request
+         */
+        @Nonnull
+        protected ObjectData getBody(byte version)
         {
-            done = true;
-            request.handleResponse(new Response(context, rawData, exception, body));
+            ObjectData body = request.getBody();
+            if (body.getVersion() == version)
+                return body;
+
+            ObjectData encoded = this.encoded;
+            if (encoded != null && encoded.getVersion() == version)
+                return encoded;
+            encoded = ((ObjectActionImpl<?>) request.getObjectAction()).finalizeData(version, consistency);
+            if (encoded == null)
+                return body;
+            this.encoded = encoded;
+            return encoded;
         }
 
-        public void handleResponse(@Nonnull ChannelHandlerContext context, Exception exception)
+        // Synchronized, so concurrent executions keep the entries of one execution at the same index
+        protected synchronized int onExecute(@Nonnull SocketConnection connection, int stream)
         {
-            done = true;
-            request.handleResponse(new Response(context, 0, exception, Unpooled.EMPTY_BUFFER));
+            pending.incrementAndGet();
+            startTimes.add(System.nanoTime());
+            // Added before the connection, so every connection has its stream when iterating
+            streams.add(stream);
+            connections.add(connection);
+            return connections.size();
         }
 
-        @Override
-        public int hashCode()
+        /**
+         * The time passed since the execution which received a response was written.
+         * <br>A retry on the same connection is a later execution with another stream, the latest match is the one which was answered.
+         *
+         * @param  connection
+         *         The connection which received the response
+         * @param  stream
+         *         The stream of the response
+         *
+         * @return The elapsed time in nanoseconds
+         */
+        protected long getElapsed(@Nonnull SocketConnection connection, int stream)
         {
-            return request.hashCode();
+            int index = connections.size() - 1;
+            while (index > 0 && (connections.get(index) != connection || streams.get(index) != stream))
+                index--;
+            return System.nanoTime() - startTimes.get(Math.max(0, index));
         }
 
-        @Override
-        public boolean equals(Object obj)
+        private synchronized boolean join(@Nonnull Request<?> follower)
         {
-            if (!(obj instanceof WorkTask))
+            if (landed)
                 return false;
-            if (obj == this)
-                return true;
+            if (followers == null)
+                followers = new ArrayList<>();
+            followers.add(follower);
+            return true;
+        }
+
+        /**
+         * Ends the flight of this request, identical requests submitted afterwards are executed on their own.
+         *
+         * @return The requests which joined this flight
+         */
+        @Nonnull
+        private List<Request<?>> land()
+        {
+            if (flight == null)
+                return Collections.emptyList();
+            flights.remove(flight, this);
+            synchronized (this)
+            {
+                landed = true;
+                List<Request<?>> joined = followers;
+                followers = null;
+                return joined == null ? Collections.emptyList() : joined;
+            }
+        }
+
+        /**
+         * Called if this request will not be executed, the requests which joined it are submitted on their own.
+         */
+        private void abandon()
+        {
+            cancelTimeout();
+            for (Request<?> follower : land())
+                request(follower);
+        }
+
+        /**
+         * Completes this task once its deadline passed, requests which joined it are submitted on their own.
+         *
+         * @return True, if the task was not completed before
+         */
+        private boolean expire()
+        {
+            if (!done.compareAndSet(false, true))
+                return false;
+            abandon();
+            request.onTimeout();
+            return true;
+        }
 
-            WorkTask other = (WorkTask) obj;
-            return hashCode() == other.hashCode();
+        /**
+         * Completes this task without a response, because another task took over its request.
+         *
+         * @return True, if the task was not completed before
+         */
+        private boolean retire()
+        {
+            if (!done.compareAndSet(false, true))
+                return false;
+            abandon();
+            return true;
+        }
+
+        private void cancelTimeout()
+        {
+            Timeout timeout = this.timeout;
+            if (timeout != null)
+                timeout.cancel();
+        }
+
+        public void reject()
+        {
+            if (!done.compareAndSet(false, true))
+                return;
+            abandon();
+            request.onFailure(new RejectedExecutionException("The request queue is full! Pending requests: " + queue.size()));
+        }
+
+        public void handleResponse(@Nonnull ChannelHandlerContext context, long rawData, Exception exception, ByteBuf body)
+        {
+            pending.decrementAndGet();
+            // Only the first response of all executions completes the request
+            if (!done.compareAndSet(false, true))
+                return;
+            cancelTimeout();
+            if (exception == null)
+                latency.record(System.nanoTime() - startTimes.get(0));
+
+            // Every follower reads its own view, created before the leader consumes the body.
+            // Releasing the view here is safe, the callbacks of the follower hold their own reference until they ran
+            for (Request<?> follower : land())
+            {
+                ByteBuf view = body.retainedDuplicate();
+                try
+                {
+                    follower.handleResponse(new Response(context, rawData, exception, view));
+                }
+                catch (RuntimeException failure)
+                {
+                    LOG.error("Failed to handle the shared response of a coalesced request", failure);
+                }
+                finally
+                {
+                    view.release();
+                }
+            }
+            request.handleResponse(new Response(context, rawData, exception, body));
+        }
+
+        public void handleResponse(@Nonnull ChannelHandlerContext context, Exception exception)
+        {
+            // A lost connection only fails the request if no other execution can still answer it
+            if (pending.decrementAndGet() > 0 || !done.compareAndSet(false, true))
+                return;
+            cancelTimeout();
+            for (Request<?> follower : land())
+                follower.handleResponse(new Response(context, 0, exception, Unpooled.EMPTY_BUFFER));
+            request.handleResponse(new Response(context, 0, exception, Unpooled.EMPTY_BUFFER));
         }
     }
-}
\ No newline at end of file
+}
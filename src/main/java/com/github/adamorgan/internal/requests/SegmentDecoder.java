@@ -0,0 +1,106 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.adamorgan.internal.requests;
+
+import com.github.adamorgan.api.utils.Compression;
+import com.github.adamorgan.internal.utils.Crc;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * Unwraps the checksummed segments of protocol v5 into the plain frame stream read by the {@link FrameDecoder}.
+ *
+ * <p>Segments are only verified and, if compression is enabled, decompressed here.
+ * Since the frame decoder keeps its own state across reads, a frame split over several segments needs no special handling.
+ */
+public class SegmentDecoder extends ByteToMessageDecoder
+{
+    private final Compression compression;
+    private final int headerLength;
+
+    private boolean headerRead;
+    private int payloadLength;
+    private int uncompressedLength;
+
+    public SegmentDecoder(@Nonnull Compression compression)
+    {
+        this.compression = compression;
+        this.headerLength = SegmentEncoder.getHeaderLength(compression);
+    }
+
+    @Override
+    protected void decode(@Nonnull ChannelHandlerContext context, @Nonnull ByteBuf input, @Nonnull List<Object> out)
+    {
+        while (true)
+        {
+            if (!headerRead)
+            {
+                if (input.readableBytes() < headerLength)
+                    return;
+
+                int dataLength = headerLength - 3;
+                long headerData = 0;
+                for (int i = 0; i < dataLength; i++)
+                    headerData |= (long) input.readUnsignedByte() << (8 * i);
+
+                int expectedCrc = input.readUnsignedMediumLE();
+                int actualCrc = Crc.computeCrc24(headerData, dataLength);
+                if (expectedCrc != actualCrc)
+                    throw new CorruptedFrameException(String.format("Segment header CRC mismatch, expected %06x but got %06x", expectedCrc, actualCrc));
+
+                payloadLength = (int) (headerData & SegmentEncoder.MAX_PAYLOAD_LENGTH);
+                uncompressedLength = compression == Compression.NONE ? 0 : (int) ((headerData >> 17) & SegmentEncoder.MAX_PAYLOAD_LENGTH);
+                headerRead = true;
+            }
+
+            if (input.readableBytes() < payloadLength + 4)
+                return;
+
+            headerRead = false;
+
+            ByteBuf payload = input.readRetainedSlice(payloadLength);
+            int expectedCrc = input.readIntLE();
+            int actualCrc = Crc.computeCrc32(payload);
+            if (expectedCrc != actualCrc)
+            {
+                payload.release();
+                throw new CorruptedFrameException(String.format("Segment payload CRC mismatch, expected %08x but got %08x", expectedCrc, actualCrc));
+            }
+
+            // An uncompressed length of 0 means the sender stored the payload as it is
+            if (uncompressedLength > 0)
+            {
+                ByteBuf compressed = payload;
+                try
+                {
+                    payload = compression.unpackWithoutLength(compressed, uncompressedLength);
+                }
+                finally
+                {
+                    compressed.release();
+                }
+            }
+
+            out.add(payload);
+        }
+    }
+}
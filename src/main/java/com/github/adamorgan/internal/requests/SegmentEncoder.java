@@ -0,0 +1,206 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.adamorgan.internal.requests;
+
+import com.github.adamorgan.api.utils.Compression;
+import com.github.adamorgan.api.utils.request.ObjectData;
+import com.github.adamorgan.internal.utils.Crc;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.concurrent.PromiseCombiner;
+import io.netty.util.concurrent.PromiseNotifier;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Packs outbound frames into the checksummed segments of protocol v5.
+ *
+ * <p>All frames written until the next flush share one self-contained segment, as long as they fit into
+ * {@value #MAX_PAYLOAD_LENGTH} bytes. A frame which is larger than that is split over several segments of its own.
+ * With compression enabled every segment payload is compressed on its own, unless that would not make it smaller.
+ */
+public class SegmentEncoder extends ChannelOutboundHandlerAdapter
+{
+    public static final int MAX_PAYLOAD_LENGTH = (1 << 17) - 1;
+
+    private final Compression compression;
+    private final int headerLength;
+
+    private CompositeByteBuf pending;
+    private final List<ChannelPromise> pendingPromises = new ArrayList<>();
+
+    public SegmentEncoder(@Nonnull Compression compression)
+    {
+        this.compression = compression;
+        this.headerLength = getHeaderLength(compression);
+    }
+
+    public static int getHeaderLength(@Nonnull Compression compression)
+    {
+        return compression == Compression.NONE ? 6 : 8;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext context, Object msg, ChannelPromise promise)
+    {
+        ByteBuf frame;
+        if (msg instanceof Frame)
+            frame = encodeFrame(context, (Frame) msg);
+        else if (msg instanceof ByteBuf)
+            frame = (ByteBuf) msg;
+        else
+        {
+            context.write(msg, promise);
+            return;
+        }
+
+        int size = frame.readableBytes();
+        if (size > MAX_PAYLOAD_LENGTH)
+        {
+            writePending(context);
+            writeLarge(context, frame, promise);
+            return;
+        }
+
+        if (pending != null && pending.readableBytes() + size > MAX_PAYLOAD_LENGTH)
+            writePending(context);
+
+        if (pending == null)
+            pending = context.alloc().compositeBuffer(Integer.MAX_VALUE);
+
+        pending.addComponent(true, frame);
+        pendingPromises.add(promise);
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext context)
+    {
+        writePending(context);
+        context.flush();
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext context)
+    {
+        if (pending == null)
+            return;
+
+        pending.release();
+        pending = null;
+        pendingPromises.clear();
+    }
+
+    @Nonnull
+    private ByteBuf encodeFrame(@Nonnull ChannelHandlerContext context, @Nonnull Frame frame)
+    {
+        ByteBuf header = context.alloc().ioBuffer(ObjectData.HEADER_BYTES, ObjectData.HEADER_BYTES)
+                .writeByte(frame.getVersion())
+                .writeByte(frame.getFlags())
+                .writeShort(frame.getStream())
+                .writeByte(frame.getOpcode())
+                .writeInt(frame.getLength());
+
+        ByteBuf body = frame.getBody().retainedDuplicate();
+        frame.recycle();
+        return context.alloc().compositeBuffer(2).addComponents(true, header, body);
+    }
+
+    private void writePending(@Nonnull ChannelHandlerContext context)
+    {
+        if (pending == null)
+            return;
+
+        ByteBuf payload = pending;
+        ChannelPromise[] promises = pendingPromises.toArray(new ChannelPromise[0]);
+        pending = null;
+        pendingPromises.clear();
+
+        ChannelPromise promise = context.newPromise();
+        promise.addListener(new PromiseNotifier<>(promises));
+        writeSegment(context, payload, true, promise);
+    }
+
+    private void writeLarge(@Nonnull ChannelHandlerContext context, @Nonnull ByteBuf frame, @Nonnull ChannelPromise promise)
+    {
+        PromiseCombiner combiner = new PromiseCombiner(context.executor());
+        try
+        {
+            while (frame.isReadable())
+            {
+                ByteBuf chunk = frame.readRetainedSlice(Math.min(MAX_PAYLOAD_LENGTH, frame.readableBytes()));
+                ChannelPromise chunkPromise = context.newPromise();
+                combiner.add(chunkPromise);
+                writeSegment(context, chunk, false, chunkPromise);
+            }
+        }
+        finally
+        {
+            frame.release();
+        }
+        combiner.finish(promise);
+    }
+
+    private void writeSegment(@Nonnull ChannelHandlerContext context, @Nonnull ByteBuf payload, boolean selfContained, @Nonnull ChannelPromise promise)
+    {
+        int uncompressedLength = 0;
+        if (compression != Compression.NONE)
+        {
+            int length = payload.readableBytes();
+            int readerIndex = payload.readerIndex();
+            ByteBuf compressed = compression.packWithoutLength(payload);
+            if (compressed.readableBytes() < length)
+            {
+                uncompressedLength = length;
+                payload.release();
+                payload = compressed;
+            }
+            else
+            {
+                // Compressing consumed the payload, rewind it to send it as it is
+                compressed.release();
+                payload.readerIndex(readerIndex);
+            }
+        }
+
+        long headerData = payload.readableBytes();
+        if (compression != Compression.NONE)
+        {
+            headerData |= (long) uncompressedLength << 17;
+            if (selfContained)
+                headerData |= 1L << 34;
+        }
+        else if (selfContained)
+        {
+            headerData |= 1L << 17;
+        }
+
+        int dataLength = headerLength - 3;
+        ByteBuf header = context.alloc().ioBuffer(headerLength, headerLength);
+        for (int i = 0; i < dataLength; i++)
+            header.writeByte((int) (headerData >> (8 * i)));
+        header.writeMediumLE(Crc.computeCrc24(headerData, dataLength));
+
+        ByteBuf trailer = context.alloc().ioBuffer(4, 4).writeIntLE(Crc.computeCrc32(payload));
+
+        context.write(context.alloc().compositeBuffer(3).addComponents(true, header, payload, trailer), promise);
+    }
+}
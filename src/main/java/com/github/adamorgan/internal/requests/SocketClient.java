@@ -23,36 +23,48 @@ import com.github.adamorgan.api.events.session.*;
 import com.github.adamorgan.api.exceptions.ErrorResponse;
 import com.github.adamorgan.api.exceptions.ErrorResponseException;
 import com.github.adamorgan.api.utils.Compression;
+import com.github.adamorgan.api.utils.FlushMode;
 import com.github.adamorgan.api.utils.MiscUtil;
 import com.github.adamorgan.api.utils.SessionController;
+import com.github.adamorgan.api.utils.TransportProfile;
 import com.github.adamorgan.internal.LibraryImpl;
 import com.github.adamorgan.internal.utils.EncodingUtils;
+import com.github.adamorgan.internal.utils.ExponentialBackoff;
+import com.github.adamorgan.internal.utils.LatencyTracker;
 import com.github.adamorgan.internal.utils.LibraryLogger;
-import com.github.adamorgan.internal.utils.config.ThreadingConfig;
+import com.github.adamorgan.internal.utils.config.ConnectionConfig;
 import io.netty.bootstrap.Bootstrap;
-import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufAllocator;
-import io.netty.buffer.ByteBufUtil;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.*;
 import io.netty.channel.*;
 import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.timeout.IdleState;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.concurrent.ImmediateExecutor;
 import org.slf4j.Logger;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.Closeable;
+import java.io.IOException;
 import java.net.ConnectException;
+import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
 import java.time.OffsetDateTime;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
-import java.util.stream.Stream;
 
 public class SocketClient extends ChannelInboundHandlerAdapter implements Closeable
 {
@@ -61,28 +73,23 @@ public class SocketClient extends ChannelInboundHandlerAdapter implements Closea
     public static final byte DEFAULT_FLAG = 0x00;
     public static final int DEFAULT_STREAM_ID = 0x00;
 
+    public static final long RECONNECT_BASE_DELAY = TimeUnit.SECONDS.toMillis(2);
+
     protected final LibraryImpl api;
     protected final Library.ShardInfo shardInfo;
     protected final Compression compression;
 
-    protected int reconnectTimeoutS = 2;
-
-    protected ChannelHandlerContext context;
+    protected final ExponentialBackoff backoff;
 
     protected final EventLoopGroup executor;
     protected Bootstrap bootstrap;
     protected final SessionController controller;
 
-    protected volatile Future<?> keepAliveThread;
-
     protected final ReentrantLock reconnectLock = new ReentrantLock();
-    protected final Condition reconnectCondvar = reconnectLock.newCondition();
+    protected Future<?> reconnectFuture;
 
     protected boolean initiating;
 
-    protected int missedHeartbeats = 0;
-    protected long heartbeatStartTime;
-
     protected volatile boolean shutdown = false;
     protected boolean shouldReconnect;
     protected boolean identify = false;
@@ -92,10 +99,17 @@ public class SocketClient extends ChannelInboundHandlerAdapter implements Closea
     protected boolean processingReady = true;
 
     private static final ThreadLocal<ByteBuf> CURRENT_EVENT = new ThreadLocal<>();
+
+    private static final ByteBufAllocator ADAPTIVE_ALLOCATOR = new AdaptiveByteBufAllocator();
     private final SocketAddress address;
 
     protected volatile ConnectNode connectNode;
 
+    protected final ConnectionPool pool;
+    protected final NodeRegistry nodes;
+    // Heartbeats are rare, a single answered heartbeat already gives a reading
+    protected final LatencyTracker heartbeatRtt = new LatencyTracker(1);
+
     public SocketClient(@Nonnull LibraryImpl api, SocketAddress address, Compression compression)
     {
         this.api = api;
@@ -105,6 +119,12 @@ public class SocketClient extends ChannelInboundHandlerAdapter implements Closea
         this.shouldReconnect = api.isAutoReconnect();
         this.executor = api.getCallbackPool();
         this.controller = api.getSessionController();
+        this.backoff = new ExponentialBackoff(RECONNECT_BASE_DELAY, TimeUnit.SECONDS.toMillis(api.getMaxReconnectDelay()));
+
+        ConnectionConfig config = api.getConnectionConfig();
+        // A warm spare keeps a second handshaked connection to the contact point, which can take over the control role
+        this.pool = new ConnectionPool(this, address, config.getConnectionsPerHost() + (config.isWarmSpare() ? 1 : 0));
+        this.nodes = new NodeRegistry(api, pool, node -> new ConnectionPool(this, node, api.getConnectionConfig().getConnectionsPerHost()));
         this.connectNode = new StartingNode();
 
         try
@@ -126,20 +146,98 @@ public class SocketClient extends ChannelInboundHandlerAdapter implements Closea
     @Override
     public void channelActive(ChannelHandlerContext context)
     {
+        ConnectionPool pool = ConnectionPool.of(context.channel());
+        if (pool == null)
+        {
+            context.close();
+            return;
+        }
+
+        ConnectionConfig config = api.getConnectionConfig();
+        SocketConnection connection = new SocketConnection(pool, context, config.getMaxRequestsPerConnection(), config.isAdaptiveConcurrency());
+        context.channel().attr(SocketConnection.KEY).set(connection);
+        pool.add(connection);
+
         LOG.info("Connected to WebSocket");
-        if (!identify)
+        if (pool.getHandshakeVersion() > 0)
+        {
+            sendPipelinedHandshake(context, connection);
+            return;
+        }
+
+        if (!identify && connection.isControl())
             LOG.debug("Sending Identify-packet...");
 
-        context.pipeline().addLast(new SocketSendingThread(this));
-        this.context = context;
-        sendIdentify(context::writeAndFlush);
+        sendIdentify(LibraryInfo.PROTOCOL_VERSION, context::writeAndFlush);
+    }
+
+    /**
+     * Starts the handshake with the outcome of the last handshake with the same node, instead of asking for its options first.
+     * <br>STARTUP is sent right away with the known protocol version. If the node required credentials,
+     * the AUTH_RESPONSE follows in the same flush for v4. With v5 the server switches to segment framing after answering STARTUP,
+     * so the credentials still wait for the AUTHENTICATE response.
+     */
+    protected void sendPipelinedHandshake(@Nonnull ChannelHandlerContext context, @Nonnull SocketConnection connection)
+    {
+        ConnectionPool pool = connection.getPool();
+        byte version = pool.getHandshakeVersion();
+        if (connection.isControl())
+        {
+            identify = true;
+            api.setStatus(Library.Status.IDENTIFYING_SESSION);
+            api.setVersion(version);
+        }
+        else
+        {
+            version = (byte) Math.min(version, api.getVersion());
+        }
+
+        LOG.debug("Resuming handshake with {} using protocol v{}", pool.getAddress(), version);
+        connection.setVersion(version);
+        connection.setPipelined(true);
+
+        sendStartup(context, version, DEFAULT_STREAM_ID);
+        if (pool.isAuthRequired() && version < LibraryInfo.MAX_PROTOCOL_VERSION)
+        {
+            connection.setTokenSent(true);
+            verifyToken(context, version, DEFAULT_STREAM_ID);
+        }
+        context.flush();
     }
 
     @Override
     public void channelInactive(ChannelHandlerContext context)
     {
-        connected = false;
-        handleDisconnect();
+        SocketConnection connection = SocketConnection.of(context);
+        if (connection == null)
+            return;
+
+        boolean isControl = connection.isControl();
+        ConnectionPool pool = connection.getPool();
+        pool.remove(connection);
+        connection.setReady(false);
+        connection.failInFlight(new IOException("Connection closed before the response was received"));
+
+        if (isControl && (shutdown || !failover()))
+        {
+            connected = false;
+            handleDisconnect();
+        }
+        else if (!shutdown)
+        {
+            // Removed nodes close their pool, those must not be filled again
+            pool.scheduleFill();
+        }
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext context)
+    {
+        // Requests held back by a full outbound buffer can be written again
+        Requester requester = api.getRequester();
+        if (requester != null && context.channel().isWritable())
+            requester.drain();
+        context.fireChannelWritabilityChanged();
     }
 
     @Override
@@ -148,70 +246,344 @@ public class SocketClient extends ChannelInboundHandlerAdapter implements Closea
         failure.printStackTrace();
     }
 
-    protected void onDispatch(ChannelHandlerContext context, byte version, byte flags, int stream, byte opCode, int length, ByteBuf body, Consumer<? super ByteBuf> callback)
+    @Override
+    public void channelRead(ChannelHandlerContext context, Object msg)
+    {
+        if (!(msg instanceof Frame))
+        {
+            context.fireChannelRead(msg);
+            return;
+        }
+
+        Frame frame = (Frame) msg;
+        try
+        {
+            onDispatch(context, frame);
+        }
+        finally
+        {
+            frame.recycle();
+        }
+    }
+
+    protected void onDispatch(ChannelHandlerContext context, Frame frame)
     {
+        byte opCode = frame.getOpcode();
+        ByteBuf body = frame.getBody();
+
+        SocketConnection connection = SocketConnection.of(context);
+        if (connection == null)
+        {
+            body.release();
+            return;
+        }
+        connection.onRead();
+
         switch (opCode)
         {
             case SocketCode.SUPPORTED:
             {
-                if (initiating)
+                if (!connection.isReady())
                 {
-                    identify = true;
-                    api.setStatus(Library.Status.IDENTIFYING_SESSION);
-                    sendStartup(version, flags, stream, opCode, length, callback);
+                    if (connection.isControl())
+                    {
+                        identify = true;
+                        api.setStatus(Library.Status.IDENTIFYING_SESSION);
+                    }
+                    byte version = negotiateVersion(connection, body);
+                    connection.setVersion(version);
+                    sendStartup(context, version, frame.getStream());
+                    context.flush();
                 }
                 else
                 {
                     LOG.trace("Got Heartbeat Ack.");
-                    missedHeartbeats = 0;
-                    api.setGatewayPing(System.currentTimeMillis() - heartbeatStartTime);
+                    long rtt = connection.onHeartbeatAck();
+                    if (rtt >= 0)
+                    {
+                        heartbeatRtt.record(rtt);
+                        if (connection.isControl())
+                            api.setGatewayPing(TimeUnit.NANOSECONDS.toMillis(rtt));
+                    }
                 }
                 break;
             }
             case SocketCode.AUTHENTICATE:
             {
-                this.api.setStatus(Library.Status.AWAITING_LOGIN_CONFIRMATION);
-                verifyToken(version, flags, stream, opCode, length, callback);
+                if (connection.isControl())
+                    this.api.setStatus(Library.Status.AWAITING_LOGIN_CONFIRMATION);
+                connection.setAuthRequested(true);
+                enableSegments(context, connection);
+                // The credentials of a pipelined handshake are already on their way
+                if (!connection.isTokenSent())
+                {
+                    connection.setTokenSent(true);
+                    verifyToken(context, frame.getVersion(), frame.getStream());
+                    context.flush();
+                }
                 break;
             }
             case SocketCode.AUTH_SUCCESS:
             {
-                LOG.info("Login Successful!");
-                registry(version, flags, stream, opCode, length, callback);
+                if (connection.isControl())
+                {
+                    LOG.info("Login Successful!");
+                    registry(context, frame.getVersion(), frame.getStream());
+                }
+                else
+                {
+                    // Only the control connection registers for events, the others are ready right away
+                    onConnectionReady(connection);
+                }
                 break;
             }
             case SocketCode.READY:
             {
-                this.api.setStatus(Library.Status.CONNECTED);
-                ready();
-                setupKeepAlive();
+                enableSegments(context, connection);
+                onConnectionReady(connection);
+                break;
+            }
+            case SocketCode.EVENT:
+            {
+                if (connection.isControl())
+                    nodes.onEvent(body);
                 break;
             }
             case SocketCode.ERROR:
+                if (connection.isPipelined() && !connection.isReady() && frame.getStream() == DEFAULT_STREAM_ID)
+                {
+                    // The node changed since the last handshake, the next connection starts over with OPTIONS
+                    LOG.debug("Pipelined handshake with {} was rejected, falling back to a full handshake", connection.getPool().getAddress());
+                    connection.getPool().resetHandshake();
+                    body.release();
+                    context.close();
+                    return;
+                }
                 ErrorResponse errorResponse = ErrorResponse.from(body);
                 ErrorResponseException exception = ErrorResponseException.create(errorResponse, body);
-                this.api.getRequester().handleResponse(context, flags, stream, opCode, length, exception, body);
-                break;
+                this.api.getRequester().handleResponse(connection, frame.getFlags(), frame.getStream(), opCode, frame.getLength(), exception, body);
+                // the requester takes ownership of the body
+                return;
             case SocketCode.RESULT:
             {
-                this.api.getRequester().handleResponse(context, flags, stream, opCode, length, null, body);
-                break;
+                this.api.getRequester().handleResponse(connection, frame.getFlags(), frame.getStream(), opCode, frame.getLength(), null, body);
+                return;
             }
             default:
             {
                 LOG.debug("Got unknown op-code: {} with content: {}", opCode, ByteBufUtil.hexDump(body));
             }
         }
+
+        body.release();
+    }
+
+    /**
+     * Picks the highest protocol version listed in the {@code SUPPORTED} response of the server.
+     * <br>Falls back to {@value LibraryInfo#PROTOCOL_VERSION} if the server does not offer a stable v5,
+     * or if the configured compression cannot be used with v5 segments.
+     */
+    protected byte negotiateVersion(@Nonnull SocketConnection connection, @Nonnull ByteBuf body)
+    {
+        // Segments can only be compressed with LZ4
+        if (compression == Compression.SNAPPY)
+            return LibraryInfo.PROTOCOL_VERSION;
+
+        boolean supportsV5 = false;
+        int size = body.readUnsignedShort();
+        for (int i = 0; i < size; i++)
+        {
+            String key = EncodingUtils.unpackUTF84(body);
+            int count = body.readUnsignedShort();
+            for (int j = 0; j < count; j++)
+            {
+                String value = EncodingUtils.unpackUTF84(body);
+                if ("PROTOCOL_VERSIONS".equals(key) && (LibraryInfo.MAX_PROTOCOL_VERSION + "/v" + LibraryInfo.MAX_PROTOCOL_VERSION).equals(value))
+                    supportsV5 = true;
+            }
+        }
+
+        byte version = supportsV5 ? LibraryInfo.MAX_PROTOCOL_VERSION : LibraryInfo.PROTOCOL_VERSION;
+
+        // Request bodies are encoded for the version of the control connection, the pool has to agree with it
+        if (connection.isControl())
+            api.setVersion(version);
+        else
+            version = (byte) Math.min(version, api.getVersion());
+
+        LOG.debug("Negotiated protocol v{} with {}", version, connection.getPool().getAddress());
+        return version;
+    }
+
+    /**
+     * Switches the connection to segment framing once a v5 handshake was answered by the server.
+     */
+    protected void enableSegments(@Nonnull ChannelHandlerContext context, @Nonnull SocketConnection connection)
+    {
+        if (connection.getVersion() < LibraryInfo.MAX_PROTOCOL_VERSION || connection.isSegmented())
+            return;
+
+        connection.setSegmented(true);
+        addSegmentCodec(context.pipeline(), compression);
+    }
+
+    /**
+     * Replaces the frame encoder of the pipeline with the segment codec.
+     * <br>The codec is added behind TLS and the idle handler, but in front of the flush coalescing,
+     * so it sees every frame written until the flush and its segments are encrypted.
+     *
+     * @param pipeline
+     *        The pipeline of a connection set up by {@link #initPipeline(ChannelPipeline)}
+     * @param compression
+     *        The compression of the segment payloads
+     */
+    public static void addSegmentCodec(@Nonnull ChannelPipeline pipeline, @Nonnull Compression compression)
+    {
+        ChannelHandlerContext anchor = pipeline.context(FlushCoalescingHandler.class);
+        if (anchor == null)
+            anchor = pipeline.context(FrameDecoder.class);
+
+        pipeline.remove(FrameEncoder.INSTANCE);
+        pipeline.addBefore(anchor.name(), "SegmentDecoder", new SegmentDecoder(compression));
+        pipeline.addBefore(anchor.name(), "SegmentEncoder", new SegmentEncoder(compression));
+    }
+
+    protected void onConnectionReady(@Nonnull SocketConnection connection)
+    {
+        connection.setReady(true);
+        connection.getPool().setHandshake(connection.getVersion(), connection.isAuthRequested());
+
+        if (connection.isControl())
+        {
+            this.api.setStatus(Library.Status.CONNECTED);
+            ready();
+        }
+        else
+        {
+            LOG.debug("Pool connection to {} is ready", connection.getPool().getAddress());
+        }
+
+        Requester requester = api.getRequester();
+        if (requester == null)
+            return;
+
+        // The first refresh is started by the library once the requester exists
+        if (connection.isControl())
+            nodes.refresh();
+        requester.drain();
     }
 
     protected void setupSendingThread()
     {
+        ConnectionConfig config = api.getConnectionConfig();
+        TransportProfile profile = config.getTransportProfile();
+
         bootstrap = new Bootstrap().group(executor)
-                .channel(ThreadingConfig.SOCKET_CHANNEL)
+                .channel(api.getThreadingConfig().getSocketChannel())
                 .option(ChannelOption.SO_KEEPALIVE, true)
-                .option(ChannelOption.ALLOCATOR, ByteBufAllocator.DEFAULT)
-                .handler(this)
+                .option(ChannelOption.TCP_NODELAY, profile.isTcpNoDelay())
+                .option(ChannelOption.ALLOCATOR, getAllocator(profile.getAllocator()))
+                .option(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(config.getWriteBufferLowWaterMark(), config.getWriteBufferHighWaterMark()))
+                .handler(new ChannelInitializer<Channel>()
+                {
+                    @Override
+                    protected void initChannel(@Nonnull Channel channel)
+                    {
+                        initPipeline(channel.pipeline());
+                    }
+                })
                 .validate();
+
+        // Zero keeps the system default, which also allows the kernel to auto-tune the buffer
+        if (profile.getSendBufferSize() > 0)
+            bootstrap.option(ChannelOption.SO_SNDBUF, profile.getSendBufferSize());
+        if (profile.getReceiveBufferSize() > 0)
+            bootstrap.option(ChannelOption.SO_RCVBUF, profile.getReceiveBufferSize());
+    }
+
+    /**
+     * Creates a bootstrap for a new connection to the provided address.
+     * <br>Unix domain socket addresses use the domain socket channel of the transport, without the TCP only options.
+     *
+     * @param  address
+     *         The address to connect to
+     *
+     * @return The bootstrap
+     */
+    @Nonnull
+    protected Bootstrap newBootstrap(@Nonnull SocketAddress address)
+    {
+        Bootstrap bootstrap = this.bootstrap.clone();
+        if (!(address instanceof DomainSocketAddress))
+            return bootstrap;
+        return bootstrap.channel(api.getThreadingConfig().getDomainSocketChannel())
+                .option(ChannelOption.SO_KEEPALIVE, null)
+                .option(ChannelOption.TCP_NODELAY, null);
+    }
+
+    /**
+     * Creates the TLS handler of a new connection.
+     * <br>The handler is bound to the host and port of the node, which allows the context to resume
+     * a cached session of that node instead of running a full handshake.
+     *
+     * @param  channel
+     *         The new channel
+     * @param  sslContext
+     *         The client context
+     * @param  executor
+     *         The executor for handshake tasks
+     *
+     * @return The {@link SslHandler}
+     */
+    @Nonnull
+    protected static SslHandler newSslHandler(@Nonnull Channel channel, @Nonnull SslContext sslContext, @Nonnull Executor executor)
+    {
+        ConnectionPool pool = ConnectionPool.of(channel);
+        SocketAddress address = pool == null ? null : pool.getAddress();
+        if (!(address instanceof InetSocketAddress))
+            return sslContext.newHandler(channel.alloc(), executor);
+
+        InetSocketAddress inet = (InetSocketAddress) address;
+        return sslContext.newHandler(channel.alloc(), inet.getHostString(), inet.getPort(), executor);
+    }
+
+    @Nonnull
+    protected static ByteBufAllocator getAllocator(@Nonnull TransportProfile.Allocator allocator)
+    {
+        switch (allocator)
+        {
+            case POOLED:
+                return PooledByteBufAllocator.DEFAULT;
+            case ADAPTIVE:
+                return ADAPTIVE_ALLOCATOR;
+            case UNPOOLED:
+                return UnpooledByteBufAllocator.DEFAULT;
+            default:
+                return ByteBufAllocator.DEFAULT;
+        }
+    }
+
+    protected void initPipeline(@Nonnull ChannelPipeline pipeline)
+    {
+        ConnectionConfig config = api.getConnectionConfig();
+
+        if (config.getSslContext() != null)
+        {
+            // Handshake tasks run on the I/O thread, unless they are offloaded
+            Executor sslPool = api.getSslPool();
+            pipeline.addLast(newSslHandler(pipeline.channel(), config.getSslContext(), sslPool == null ? ImmediateExecutor.INSTANCE : sslPool));
+        }
+
+        // Reader idle events check for stalled connections, all idle events send heartbeats
+        if (config.getReadTimeout() > 0 || config.getHeartbeatInterval() > 0)
+            pipeline.addLast(new IdleStateHandler(config.getReadTimeout(), 0, config.getHeartbeatInterval(), TimeUnit.MILLISECONDS));
+
+        if (config.getFlushMode() == FlushMode.THROUGHPUT)
+            pipeline.addLast(new FlushCoalescingHandler(config.getMaxPendingWrites(), config.getMaxPendingBytes()));
+
+        pipeline.addLast(new FrameDecoder(compression));
+        pipeline.addLast(FrameEncoder.INSTANCE);
+        pipeline.addLast(this);
     }
 
     @Override
@@ -220,7 +592,7 @@ public class SocketClient extends ChannelInboundHandlerAdapter implements Closea
         return true;
     }
 
-    private void sendStartup(byte version, byte flags, int stream, byte opcode, int length, Consumer<? super ByteBuf> callback)
+    private void sendStartup(ChannelHandlerContext context, byte version, int stream)
     {
         Map<String, String> map = new HashMap<>();
 
@@ -252,10 +624,10 @@ public class SocketClient extends ChannelInboundHandlerAdapter implements Closea
                 .writeBytes(body)
                 .asByteBuf();
 
-        context.writeAndFlush(request.retain());
+        context.write(request.retain());
     }
 
-    private void verifyToken(byte version, byte flags, int stream, byte opcode, int length, Consumer<? super ByteBuf> callback)
+    private void verifyToken(ChannelHandlerContext context, byte version, int stream)
     {
         byte[] token = this.api.getToken();
         ByteBuf request = Unpooled.buffer()
@@ -267,12 +639,15 @@ public class SocketClient extends ChannelInboundHandlerAdapter implements Closea
                 .writeBytes(token)
                 .asByteBuf();
 
-        context.writeAndFlush(request.retain());
+        context.write(request.retain());
     }
 
-    private void registry(byte version, byte flags, int stream, byte opcode, int length, Consumer<? super ByteBuf> callback)
+    private void registry(ChannelHandlerContext context, byte version, int stream)
     {
-        ByteBuf body = Stream.of("SCHEMA_CHANGE", "TOPOLOGY_CHANGE", "STATUS_CHANGE").collect(Unpooled::buffer, EncodingUtils::packUTF88, ByteBuf::writeBytes);
+        // [string list]: the number of events followed by each event name as a [string]
+        List<String> events = Arrays.asList("SCHEMA_CHANGE", "TOPOLOGY_CHANGE", "STATUS_CHANGE");
+        ByteBuf body = Unpooled.buffer().writeShort(events.size());
+        events.forEach(event -> EncodingUtils.packUTF84(body, event));
 
         ByteBuf request = Unpooled.buffer()
                 .writeByte(version)
@@ -292,26 +667,61 @@ public class SocketClient extends ChannelInboundHandlerAdapter implements Closea
         return compression;
     }
 
-    protected void setupKeepAlive()
+    @Nonnull
+    public ConnectionPool getPool()
     {
-        if (!connected) return;
+        return pool;
+    }
 
-        keepAliveThread = context.executor().scheduleWithFixedDelay(this::sendKeepAlive, 0, 5, TimeUnit.SECONDS);
+    @Nonnull
+    public NodeRegistry getNodes()
+    {
+        return nodes;
+    }
+
+    /**
+     * The round trip times of the heartbeats answered on any connection of this client.
+     *
+     * @return The heartbeat round trip times
+     */
+    @Nonnull
+    public LatencyTracker getHeartbeatRtt()
+    {
+        return heartbeatRtt;
     }
 
-    protected void sendKeepAlive()
+    /**
+     * Sends heartbeats on idle connections and closes connections which stopped answering.
+     */
+    @Override
+    public void userEventTriggered(ChannelHandlerContext context, Object event)
     {
-        if (missedHeartbeats >= 2)
+        if (!(event instanceof IdleStateEvent))
         {
-            missedHeartbeats = 0;
-            LOG.warn("Missed 2 heartbeats! Trying to reconnect...");
-            close();
+            context.fireUserEventTriggered(event);
+            return;
         }
-        else
+
+        SocketConnection connection = SocketConnection.of(context);
+        if (connection == null)
+            return;
+
+        IdleState state = ((IdleStateEvent) event).state();
+        if (state == IdleState.READER_IDLE)
         {
-            missedHeartbeats += 1;
-            sendIdentify(byteBuf -> context.writeAndFlush(byteBuf.retain()));
-            heartbeatStartTime = System.currentTimeMillis();
+            long readTimeout = api.getConnectionConfig().getReadTimeout();
+            if (!connection.isStalled(TimeUnit.MILLISECONDS.toNanos(readTimeout)))
+                return;
+
+            LOG.warn("No response from {} for {}ms, closing connection", connection.getPool().getAddress(), readTimeout);
+            // Close first, so retried requests do not pick this connection again
+            connection.close();
+            connection.failInFlight(new SocketTimeoutException("No response received for " + readTimeout + "ms"));
+        }
+        else if (state == IdleState.ALL_IDLE && connection.isReady())
+        {
+            connection.onHeartbeatSent();
+            sendIdentify(connection.getVersion(), connection::write);
         }
     }
 
@@ -325,9 +735,10 @@ public class SocketClient extends ChannelInboundHandlerAdapter implements Closea
             shouldReconnect = false;
             if (connectNode != null)
                 api.getSessionController().removeSession(connectNode);
+            if (reconnectFuture != null)
+                reconnectFuture.cancel(false);
             boolean wasConnected = connected;
             close();
-            reconnectCondvar.signalAll();
             return !wasConnected;
         });
 
@@ -343,23 +754,30 @@ public class SocketClient extends ChannelInboundHandlerAdapter implements Closea
     @Nullable
     public ChannelHandlerContext getContext()
     {
-        return this.context;
+        SocketConnection connection = pool.getControl();
+        return connection == null ? null : connection.getContext();
     }
 
-    private synchronized void sendIdentify(Consumer<? super ByteBuf> callback)
+    private synchronized void sendIdentify(byte version, Consumer<? super ByteBuf> callback)
     {
         ByteBuf request = Unpooled.directBuffer()
-                .writeByte(this.api.getVersion())
+                .writeByte(version)
                 .writeByte(DEFAULT_FLAG)
                 .writeShort(DEFAULT_STREAM_ID)
                 .writeByte(SocketCode.OPTIONS)
                 .writeInt(0)
                 .asByteBuf();
 
-        context.writeAndFlush(request.retain());
+        callback.accept(request);
     }
 
-    public synchronized void connect()
+    /**
+     * Opens the control connection without blocking, the handshake continues on the event loop once the channel is active.
+     *
+     * @return The connect future of the control connection
+     */
+    @Nonnull
+    public synchronized ChannelFuture connect()
     {
         if (this.api.getStatus() != Library.Status.ATTEMPTING_TO_RECONNECT)
         {
@@ -368,11 +786,15 @@ public class SocketClient extends ChannelInboundHandlerAdapter implements Closea
 
         initiating = true;
 
-        ChannelFuture connect = bootstrap.connect(address).awaitUninterruptibly();
+        return pool.open().addListener((ChannelFutureListener) this::onConnect);
+    }
 
+    protected void onConnect(@Nonnull ChannelFuture connect)
+    {
         if (connect.isSuccess())
         {
             connected = true;
+            pool.fill();
             return;
         }
 
@@ -381,10 +803,8 @@ public class SocketClient extends ChannelInboundHandlerAdapter implements Closea
         if (failure instanceof ConnectTimeoutException)
         {
             LOG.debug("Socket timed out");
-            return;
         }
-
-        if (failure instanceof ConnectException)
+        else if (failure instanceof ConnectException)
         {
             if (this.api.getStatus() == Library.Status.CONNECTING_TO_SOCKET)
             {
@@ -392,91 +812,93 @@ public class SocketClient extends ChannelInboundHandlerAdapter implements Closea
                 this.api.shutdown();
                 return;
             }
-            else
-            {
-                throw new IllegalStateException(failure);
-            }
+            LOG.debug("Encountered I/O error");
+        }
+        else
+        {
+            LOG.error("There was an error in the Socket connection", failure);
+            this.api.handleEvent(new ExceptionEvent(this.api, failure, true));
         }
 
-        LOG.error("There was an error in the Socket connection", failure);
-        this.api.handleEvent(new ExceptionEvent(this.api, failure, true));
+        reconnect(false);
     }
 
     @Override
     public void close()
     {
-        if (context != null)
-            context.close();
+        nodes.close();
     }
 
+    /**
+     * Schedules the next reconnect attempt on the event loop, delayed by a jittered exponential backoff.
+     * <br>Never blocks the calling thread, failed attempts schedule the next one from their connect listener.
+     *
+     * @param callFromQueue
+     *        Whether the reconnect was requested by the session controller
+     */
     public final void reconnect(boolean callFromQueue)
     {
-        String message = "";
-        if (callFromQueue)
-            message = String.format("Queue is attempting to reconnect a shard...%s ", shardInfo != null ? " Shard: " + shardInfo.getShardString() : "");
-
-        LOG.debug("{}Attempting to reconnect in {}s", message, reconnectTimeoutS);
+        String message = callFromQueue ? String.format("Queue is attempting to reconnect a shard...%s ", shardInfo != null ? " Shard: " + shardInfo.getShardString() : "") : "";
 
-        boolean isShutdown = MiscUtil.locked(reconnectLock, () ->
+        boolean scheduled = MiscUtil.locked(reconnectLock, () ->
         {
-            while (shouldReconnect)
-            {
-                api.setStatus(Library.Status.WAITING_TO_RECONNECT);
-
-                int delay = reconnectTimeoutS;
-                // Exponential backoff, reset on session creation (ready/resume)
-                reconnectTimeoutS = reconnectTimeoutS == 0 ? 2 : Math.min(reconnectTimeoutS << 1, api.getMaxReconnectDelay());
-
-                try
-                {
-                    // On shutdown, this condvar is notified and we stop reconnecting
-                    reconnectCondvar.await(delay, TimeUnit.SECONDS);
-
-                    if (!shouldReconnect)
-                        break;
+            if (!shouldReconnect)
+                return false;
 
-                    identify = false;
-                    api.setStatus(Library.Status.ATTEMPTING_TO_RECONNECT);
-                    LOG.debug("Attempting to reconnect!");
-                    connect();
-                    break;
-                }
-                catch (RejectedExecutionException | InterruptedException failure)
-                {
-                    return true;
-                }
-                catch (IllegalStateException failure)
-                {
-                    LOG.debug("Encountered I/O error");
-                    reconnect(false);
-                }
-                catch (RuntimeException failure)
-                {
-                    LOG.debug("Reconnect failed with exception", failure);
-                    LOG.warn("Reconnect failed! Next attempt in {}s", reconnectTimeoutS);
-                }
+            long delay = backoff.nextDelay();
+            LOG.debug("{}Attempting to reconnect in {}ms", message, delay);
+            api.setStatus(Library.Status.WAITING_TO_RECONNECT);
+            try
+            {
+                reconnectFuture = executor.schedule(this::attemptReconnect, delay, TimeUnit.MILLISECONDS);
+                return true;
+            }
+            catch (RejectedExecutionException failure)
+            {
+                return false;
             }
-            return !shouldReconnect;
         });
 
-        if (isShutdown)
+        if (!scheduled)
         {
             LOG.debug("Reconnect cancelled due to shutdown.");
             shutdown();
         }
     }
 
+    protected void attemptReconnect()
+    {
+        if (!shouldReconnect)
+            return;
+
+        identify = false;
+        api.setStatus(Library.Status.ATTEMPTING_TO_RECONNECT);
+        LOG.debug("Attempting to reconnect! Attempt {}", backoff.getAttempts());
+        connect();
+    }
+
+    /**
+     * Moves the control role to another ready connection of the contact point after the control connection was lost.
+     * <br>The new control connection only registers for events again, so the session skips the TCP connect and handshake.
+     *
+     * @return True, if another connection took over
+     */
+    protected boolean failover()
+    {
+        SocketConnection spare = pool.promoteControl();
+        if (spare == null)
+            return false;
+
+        LOG.info("Control connection lost, failing over to {}", spare.getChannel().remoteAddress());
+        registry(spare.getContext(), spare.getVersion(), DEFAULT_STREAM_ID);
+        return true;
+    }
+
     private void handleDisconnect()
     {
         api.setStatus(Library.Status.DISCONNECTED);
         this.api.getObjectCache().clear();
 
-        if (keepAliveThread != null)
-        {
-            keepAliveThread.cancel(false);
-            keepAliveThread = null;
-        }
-
         if (!shouldReconnect || executor.isShutdown())
         {
             if (bootstrap != null)
@@ -498,6 +920,7 @@ public class SocketClient extends ChannelInboundHandlerAdapter implements Closea
 
     public final void ready()
     {
+        backoff.reset();
         if (initiating)
         {
             initiating = false;
@@ -0,0 +1,519 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.adamorgan.internal.requests;
+
+import com.github.adamorgan.api.LibraryInfo;
+import com.github.adamorgan.api.utils.RequestPriority;
+import com.github.adamorgan.internal.utils.AdaptiveLimit;
+import com.github.adamorgan.internal.utils.Ewma;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.AttributeKey;
+import io.netty.util.internal.PlatformDependent;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A single channel of a {@link ConnectionPool}.
+ *
+ * <p>Every connection runs its own handshake and owns its stream ids, so responses are always resolved
+ * against the in-flight table of the channel they were received on.
+ */
+public class SocketConnection
+{
+    public static final AttributeKey<SocketConnection> KEY = AttributeKey.valueOf("reactor-cassandra.connection");
+    // Share of the streams which may be orphaned before the connection is replaced, see hasTooManyOrphans
+    public static final double MAX_ORPHANED_RATIO = 0.25;
+
+    protected final ConnectionPool pool;
+    protected final ChannelHandlerContext context;
+    protected final int maxRequests;
+    // Replaces the fixed in-flight limit if adaptive concurrency is enabled, maxRequests is then its upper bound
+    protected final AdaptiveLimit limit;
+
+    protected final StreamIdAllocator streams = new StreamIdAllocator();
+    protected final AtomicReferenceArray<Requester.WorkTask> inFlight = new AtomicReferenceArray<>(StreamIdAllocator.STREAM_COUNT);
+    // Reserved before a stream is acquired, so concurrent dispatchers cannot exceed the in-flight limit together
+    protected final AtomicInteger inFlightCount = new AtomicInteger();
+    // Streams of timed out requests, kept allocated until the late response arrives so the id cannot be reused too early
+    protected final Set<Integer> orphaned = ConcurrentHashMap.newKeySet();
+    protected final Ewma latency = new Ewma();
+
+    // Requests routed to this connection by any thread, written in batches by its event loop
+    // One lane per priority, drained from the highest to the lowest
+    protected final List<Queue<Requester.WorkTask>> submissions = new ArrayList<>();
+    protected final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    // Used to detect stalled connections, see isStalled
+    protected volatile long lastReadTime = System.nanoTime();
+    protected volatile long waitingSince;
+    protected volatile long heartbeatSentAt;
+
+    protected volatile boolean ready = false;
+    protected volatile byte version = LibraryInfo.PROTOCOL_VERSION;
+    protected boolean segmented = false;
+
+    // Handshake state, a pipelined handshake skips OPTIONS and may send the credentials along with STARTUP
+    protected volatile boolean pipelined = false;
+    protected volatile boolean authRequested = false;
+    protected volatile boolean tokenSent = false;
+
+    public SocketConnection(@Nonnull ConnectionPool pool, @Nonnull ChannelHandlerContext context, int maxRequests)
+    {
+        this(pool, context, maxRequests, false);
+    }
+
+    public SocketConnection(@Nonnull ConnectionPool pool, @Nonnull ChannelHandlerContext context, int maxRequests, boolean adaptive)
+    {
+        this.pool = pool;
+        this.context = context;
+        this.maxRequests = Math.min(maxRequests, StreamIdAllocator.STREAM_COUNT);
+        this.limit = adaptive ? new AdaptiveLimit(1, this.maxRequests) : null;
+        for (int i = 0; i < RequestPriority.values().length; i++)
+            submissions.add(PlatformDependent.newMpscQueue());
+    }
+
+    @Nullable
+    public static SocketConnection of(@Nonnull ChannelHandlerContext context)
+    {
+        return context.channel().attr(KEY).get();
+    }
+
+    @Nonnull
+    public ConnectionPool getPool()
+    {
+        return pool;
+    }
+
+    @Nonnull
+    public ChannelHandlerContext getContext()
+    {
+        return context;
+    }
+
+    @Nonnull
+    public Channel getChannel()
+    {
+        return context.channel();
+    }
+
+    /**
+     * Whether this connection receives server events and drives the session status.
+     *
+     * @return True, if this is the control connection of the contact point pool
+     */
+    public boolean isControl()
+    {
+        return pool.getControl() == this && pool.client.getPool() == pool;
+    }
+
+    /**
+     * Whether the handshake of this connection has completed.
+     *
+     * @return True, if requests can be written to this connection
+     */
+    public boolean isReady()
+    {
+        return ready;
+    }
+
+    public void setReady(boolean ready)
+    {
+        this.ready = ready;
+    }
+
+    /**
+     * The protocol version negotiated for this connection.
+     *
+     * @return The protocol version
+     */
+    public byte getVersion()
+    {
+        return version;
+    }
+
+    public void setVersion(byte version)
+    {
+        this.version = version;
+    }
+
+    /**
+     * Whether frames on this connection are wrapped in protocol v5 segments.
+     * <br>Only accessed from the event loop of the channel.
+     *
+     * @return True, if the connection switched to segment framing
+     */
+    public boolean isSegmented()
+    {
+        return segmented;
+    }
+
+    public void setSegmented(boolean segmented)
+    {
+        this.segmented = segmented;
+    }
+
+    public boolean isPipelined()
+    {
+        return pipelined;
+    }
+
+    public void setPipelined(boolean pipelined)
+    {
+        this.pipelined = pipelined;
+    }
+
+    public boolean isAuthRequested()
+    {
+        return authRequested;
+    }
+
+    public void setAuthRequested(boolean authRequested)
+    {
+        this.authRequested = authRequested;
+    }
+
+    public boolean isTokenSent()
+    {
+        return tokenSent;
+    }
+
+    public void setTokenSent(boolean tokenSent)
+    {
+        this.tokenSent = tokenSent;
+    }
+
+    /**
+     * Whether this connection can accept another request right now.
+     *
+     * <br>The outbound buffer of a connection above its high water mark counts as full,
+     * draining continues once the channel becomes writable again.
+     * The in-flight limits are only checked as a hint here, {@link #registerStream(Requester.WorkTask)} enforces them.
+     *
+     * @return True, if the connection is ready, writable and below the in-flight limit of itself and its node
+     */
+    public boolean isAvailable()
+    {
+        Channel channel = getChannel();
+        return ready && channel.isActive() && channel.isWritable() && getInFlightCount() < getLimit() && pool.hasCapacity();
+    }
+
+    /**
+     * The maximum amount of requests in flight on this connection.
+     *
+     * @return The adaptive limit, or the configured maximum if adaptive concurrency is disabled
+     */
+    public int getLimit()
+    {
+        return limit == null ? maxRequests : limit.getLimit();
+    }
+
+    /**
+     * Assigns a free stream id of this connection to the provided task.
+     *
+     * @param  task
+     *         The task which is about to be written
+     *
+     * @return The assigned stream id, or {@code -1} if the in-flight limit is reached
+     */
+    public int registerStream(@Nonnull Requester.WorkTask task)
+    {
+        if (!reserveRequest())
+            return -1;
+        if (!pool.reserveRequest())
+        {
+            inFlightCount.decrementAndGet();
+            return -1;
+        }
+
+        int stream = streams.acquire();
+        if (stream < 0)
+        {
+            releaseRequest();
+            return -1;
+        }
+        inFlight.set(stream, task);
+        return stream;
+    }
+
+    private boolean reserveRequest()
+    {
+        int limit = getLimit();
+        while (true)
+        {
+            int count = inFlightCount.get();
+            if (count >= limit)
+                return false;
+            if (!inFlightCount.compareAndSet(count, count + 1))
+                continue;
+            if (count == 0)
+                waitingSince = System.nanoTime();
+            return true;
+        }
+    }
+
+    private void releaseRequest()
+    {
+        inFlightCount.decrementAndGet();
+        pool.releaseRequest();
+    }
+
+    /**
+     * Removes the task registered for the provided stream id and frees the id again.
+     *
+     * @param  stream
+     *         The stream id of the response
+     *
+     * @return The in-flight task, or {@code null} if no task is registered for this stream
+     */
+    @Nullable
+    public Requester.WorkTask releaseStream(int stream)
+    {
+        if (!StreamIdAllocator.isValid(stream))
+            return null;
+        Requester.WorkTask task = inFlight.getAndSet(stream, null);
+        if (task != null)
+        {
+            orphaned.remove(stream);
+            streams.release(stream);
+            releaseRequest();
+        }
+        return task;
+    }
+
+    /**
+     * Marks the stream of a timed out request as orphaned.
+     * <br>The stream id stays allocated until the response arrives or the connection is closed,
+     * a late response is then dropped instead of being matched to a newer request.
+     *
+     * @param  stream
+     *         The stream id the request was written to
+     * @param  task
+     *         The timed out task
+     *
+     * @return True, if the stream was still registered for the provided task
+     */
+    public boolean orphan(int stream, @Nonnull Requester.WorkTask task)
+    {
+        if (!StreamIdAllocator.isValid(stream) || inFlight.get(stream) != task)
+            return false;
+        orphaned.add(stream);
+        if (inFlight.get(stream) == task)
+            return true;
+        // The response arrived in the meantime
+        orphaned.remove(stream);
+        return false;
+    }
+
+    public boolean isOrphaned(int stream)
+    {
+        return orphaned.contains(stream);
+    }
+
+    /**
+     * The amount of streams held by timed out requests, these still count towards the in-flight limit.
+     *
+     * @return The amount of orphaned streams
+     */
+    public int getOrphanedCount()
+    {
+        return orphaned.size();
+    }
+
+    /**
+     * Whether so many streams of this connection are orphaned, that it should be closed and replaced.
+     * <br>A server which answers heartbeats but never the timed out requests would otherwise keep these streams
+     * allocated for good, without the connection ever being detected as stalled.
+     *
+     * @return True, if at least {@link #MAX_ORPHANED_RATIO} of the maximum in-flight requests are orphaned
+     */
+    public boolean hasTooManyOrphans()
+    {
+        return orphaned.size() >= Math.max(1, (int) (maxRequests * MAX_ORPHANED_RATIO));
+    }
+
+    public int getInFlightCount()
+    {
+        return inFlightCount.get();
+    }
+
+    @Nonnull
+    public Ewma getLatency()
+    {
+        return latency;
+    }
+
+    /**
+     * The load of this connection, lower is better.
+     * <br>The average response time is multiplied by the in-flight requests, so a slow connection
+     * only receives new requests once the others have enough requests queued up to be slower in total.
+     *
+     * @return The score of this connection
+     */
+    public double getScore()
+    {
+        return (latency.get() + 1) * (getInFlightCount() + 1);
+    }
+
+    /**
+     * Records the response time of a request answered on this connection, for both the connection and its node.
+     *
+     * @param  nanos
+     *         The time between writing the request and receiving its response
+     */
+    public void recordLatency(long nanos)
+    {
+        latency.update(nanos);
+        pool.getLatency().update(nanos);
+        // The answered request is already released
+        if (limit != null)
+            limit.onSample(nanos, getInFlightCount() + 1);
+        pool.onSample(nanos);
+    }
+
+    /**
+     * Shrinks the in-flight limits of this connection and its node after a request was rejected as
+     * {@code OVERLOADED} or timed out.
+     */
+    public void onDropped()
+    {
+        if (limit != null)
+            limit.onDropped();
+        pool.onDropped();
+    }
+
+    public void onRead()
+    {
+        lastReadTime = System.nanoTime();
+    }
+
+    public void onHeartbeatSent()
+    {
+        long now = System.nanoTime();
+        if (getInFlightCount() == 0 && heartbeatSentAt == 0)
+            waitingSince = now;
+        heartbeatSentAt = now;
+    }
+
+    /**
+     * Completes the pending heartbeat.
+     *
+     * @return The round trip time in nanoseconds, or {@code -1} if no heartbeat was pending
+     */
+    public long onHeartbeatAck()
+    {
+        long sentAt = heartbeatSentAt;
+        heartbeatSentAt = 0;
+        if (sentAt == 0)
+            return -1;
+        return System.nanoTime() - sentAt;
+    }
+
+    /**
+     * Whether this connection waits for a response, either to a request or a heartbeat,
+     * without having read anything for longer than the provided timeout.
+     *
+     * @param  timeoutNanos
+     *         The read timeout in nanoseconds
+     *
+     * @return True, if the connection should be considered dead
+     */
+    public boolean isStalled(long timeoutNanos)
+    {
+        if (getInFlightCount() == 0 && heartbeatSentAt == 0)
+            return false;
+        long since = Math.max(lastReadTime, waitingSince);
+        return System.nanoTime() - since > timeoutNanos;
+    }
+
+    /**
+     * Releases all in-flight requests of this connection.
+     * <br>Idempotent requests are handed to another connection, all others fail with the provided exception.
+     *
+     * @param failure
+     *        The reason the connection was lost
+     */
+    public void failInFlight(@Nonnull Exception failure)
+    {
+        Requester requester = pool.client.api.getRequester();
+        for (int stream = 0; stream < StreamIdAllocator.STREAM_COUNT && getInFlightCount() > 0; stream++)
+        {
+            Requester.WorkTask task = releaseStream(stream);
+            if (task == null)
+                continue;
+            if (requester != null)
+                requester.failover(task, context, failure);
+            else
+                task.handleResponse(context, failure);
+        }
+        if (requester != null)
+            requester.drain();
+    }
+
+    @Nonnull
+    public ChannelFuture write(@Nonnull Object message)
+    {
+        return context.writeAndFlush(message);
+    }
+
+    public ChannelFuture write(@Nonnull Object message, boolean flush)
+    {
+        return flush ? context.writeAndFlush(message) : context.write(message);
+    }
+
+    public void flush()
+    {
+        context.flush();
+    }
+
+    @Nonnull
+    public Queue<Requester.WorkTask> getSubmissions(@Nonnull RequestPriority priority)
+    {
+        return submissions.get(priority.ordinal());
+    }
+
+    /**
+     * Marks the submission queue as scheduled for draining.
+     *
+     * @return True, if the caller has to schedule the drain
+     */
+    public boolean scheduleDrain()
+    {
+        return drainScheduled.compareAndSet(false, true);
+    }
+
+    public void finishDrain()
+    {
+        drainScheduled.set(false);
+    }
+
+    public void close()
+    {
+        context.close();
+    }
+}
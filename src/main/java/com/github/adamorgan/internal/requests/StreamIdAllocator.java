@@ -0,0 +1,134 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.adamorgan.internal.requests;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free allocator for the stream ids of a single connection.
+ *
+ * <p>Protocol v4 carries the stream id as a signed short, where negative ids are reserved for server events.
+ * This leaves {@value #STREAM_COUNT} client ids per connection, stored here as a bitmap of {@code long} words.
+ * The id {@link SocketClient#DEFAULT_STREAM_ID} is never handed out, it stays reserved for control messages
+ * like {@code OPTIONS} heartbeats and the connection handshake.
+ */
+public class StreamIdAllocator
+{
+    public static final int STREAM_COUNT = Short.MAX_VALUE + 1;
+
+    private static final int WORD_COUNT = STREAM_COUNT / Long.SIZE;
+
+    private final AtomicLongArray words = new AtomicLongArray(WORD_COUNT);
+    private final AtomicInteger allocated = new AtomicInteger(0);
+    private final AtomicInteger offset = new AtomicInteger(0);
+
+    public StreamIdAllocator()
+    {
+        words.set(SocketClient.DEFAULT_STREAM_ID / Long.SIZE, 1L << (SocketClient.DEFAULT_STREAM_ID % Long.SIZE));
+    }
+
+    /**
+     * Acquires a free stream id.
+     *
+     * @return The acquired stream id, or {@code -1} if every id of this connection is currently in use
+     */
+    public int acquire()
+    {
+        // Start at a rotating word, so concurrent callers don't all race for the same bits
+        int start = (offset.getAndIncrement() & Integer.MAX_VALUE) % WORD_COUNT;
+        for (int i = 0; i < WORD_COUNT; i++)
+        {
+            int index = (start + i) % WORD_COUNT;
+            long word = words.get(index);
+            while (word != -1L)
+            {
+                int bit = Long.numberOfTrailingZeros(~word);
+                long update = word | (1L << bit);
+                if (words.compareAndSet(index, word, update))
+                {
+                    allocated.incrementAndGet();
+                    return index * Long.SIZE + bit;
+                }
+                word = words.get(index);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Releases a stream id previously returned by {@link #acquire()}.
+     *
+     * @param  stream
+     *         The stream id to release
+     *
+     * @return True, if the id was in use and is now free again
+     */
+    public boolean release(int stream)
+    {
+        if (!isValid(stream))
+            return false;
+
+        int index = stream / Long.SIZE;
+        long mask = 1L << (stream % Long.SIZE);
+        long word = words.get(index);
+        while ((word & mask) != 0)
+        {
+            if (words.compareAndSet(index, word, word & ~mask))
+            {
+                allocated.decrementAndGet();
+                return true;
+            }
+            word = words.get(index);
+        }
+        return false;
+    }
+
+    /**
+     * Whether the provided stream id can be handed out by this allocator.
+     *
+     * @param  stream
+     *         The stream id
+     *
+     * @return True, if the id is in the client range and not the reserved control stream
+     */
+    public static boolean isValid(int stream)
+    {
+        return stream > SocketClient.DEFAULT_STREAM_ID && stream < STREAM_COUNT;
+    }
+
+    /**
+     * The amount of stream ids currently in use.
+     *
+     * @return Never-negative amount of in-flight streams
+     */
+    public int getAllocated()
+    {
+        return allocated.get();
+    }
+
+    /**
+     * The amount of stream ids that can still be acquired.
+     *
+     * @return Never-negative amount of free streams
+     */
+    public int getAvailable()
+    {
+        return STREAM_COUNT - 1 - allocated.get();
+    }
+}
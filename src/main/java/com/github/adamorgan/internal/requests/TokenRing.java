@@ -0,0 +1,78 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.adamorgan.internal.requests;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Immutable snapshot of the token ring, mapping every token of the cluster to the node which owns it.
+ *
+ * <p>A node owns the range between the previous token of the ring, exclusive, and its own token, inclusive.
+ * The range of the smallest token wraps around the end of the ring.
+ */
+public class TokenRing
+{
+    public static final TokenRing EMPTY = new TokenRing(new TreeMap<>());
+
+    private final NavigableMap<Long, Node> ring;
+
+    private TokenRing(@Nonnull NavigableMap<Long, Node> ring)
+    {
+        this.ring = ring;
+    }
+
+    @Nonnull
+    public static TokenRing of(@Nonnull Collection<? extends Node> nodes)
+    {
+        NavigableMap<Long, Node> ring = new TreeMap<>();
+        for (Node node : nodes)
+        {
+            for (Long token : node.getTokens())
+                ring.put(token, node);
+        }
+        return ring.isEmpty() ? EMPTY : new TokenRing(Collections.unmodifiableNavigableMap(ring));
+    }
+
+    public boolean isEmpty()
+    {
+        return ring.isEmpty();
+    }
+
+    public int size()
+    {
+        return ring.size();
+    }
+
+    /**
+     * The node that owns the provided token, which is the primary replica for all partitions with this token.
+     *
+     * @param  token
+     *         The token of a partition key
+     *
+     * @return The owner, or {@code null} if the ring is empty
+     */
+    @Nullable
+    public Node getOwner(long token)
+    {
+        Map.Entry<Long, Node> entry = ring.ceilingEntry(token);
+        if (entry == null)
+            entry = ring.firstEntry();
+        return entry == null ? null : entry.getValue();
+    }
+}
@@ -22,8 +22,11 @@ import com.github.adamorgan.api.requests.ObjectAction;
 import com.github.adamorgan.api.requests.ObjectFuture;
 import com.github.adamorgan.api.requests.Request;
 import com.github.adamorgan.api.requests.Response;
+import com.github.adamorgan.api.requests.objectaction.ObjectCreateAction;
+import com.github.adamorgan.api.utils.RequestPriority;
 import com.github.adamorgan.internal.LibraryImpl;
 import com.github.adamorgan.internal.requests.Requester;
+import com.github.adamorgan.internal.utils.Checks;
 import com.github.adamorgan.internal.utils.LibraryLogger;
 import com.github.adamorgan.api.utils.request.ObjectData;
 import io.netty.buffer.ByteBuf;
@@ -35,6 +38,7 @@ import javax.annotation.Nullable;
 import java.util.EnumSet;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 
@@ -53,6 +57,10 @@ public abstract class ObjectActionImpl<T> implements ObjectAction<T>
     protected final BiFunction<Request<T>, Response, T> handler;
 
     protected long deadline;
+    protected boolean idempotent;
+    protected Executor callbackExecutor;
+    protected RequestPriority priority = RequestPriority.NORMAL;
+    protected String rateLimitTag;
 
     public ObjectActionImpl(@Nonnull LibraryImpl api, BiFunction<Request<T>, Response, T> handler)
     {
@@ -139,6 +147,39 @@ public abstract class ObjectActionImpl<T> implements ObjectAction<T>
         return new ObjectFuture<>(this, body, getDeadline());
     }
 
+    /**
+     * Encodes this request with another consistency, used to retry it with a downgraded consistency.
+     * <br>The consistency of this action is not changed.
+     *
+     * @param  consistency
+     *         The consistency of the encoded request
+     *
+     * @return The encoded request, or {@code null} if this request has no consistency
+     */
+    @Nullable
+    public ObjectData finalizeData(@Nonnull ObjectCreateAction.Consistency consistency)
+    {
+        return null;
+    }
+
+    /**
+     * Encodes this request for another protocol version, used to write it to a connection which negotiated
+     * another version than the library, for example to a node which only supports protocol v4.
+     * <br>The flags and compression of the encoded request follow the provided version.
+     *
+     * @param  version
+     *         The protocol version of the connection
+     * @param  consistency
+     *         The consistency of the encoded request, or {@code null} to use the consistency of this action
+     *
+     * @return The encoded request, or {@code null} if this request cannot be encoded again
+     */
+    @Nullable
+    public ObjectData finalizeData(byte version, @Nullable ObjectCreateAction.Consistency consistency)
+    {
+        return null;
+    }
+
     public void handleResponse(Request<T> request, Response response)
     {
         if (response.isOk())
@@ -170,4 +211,64 @@ public abstract class ObjectActionImpl<T> implements ObjectAction<T>
     {
         return deadline;
     }
+
+    @Override
+    public boolean isIdempotent()
+    {
+        return idempotent;
+    }
+
+    @Nonnull
+    @Override
+    public ObjectAction<T> setIdempotent(boolean idempotent)
+    {
+        this.idempotent = idempotent;
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public RequestPriority getPriority()
+    {
+        return priority;
+    }
+
+    @Nonnull
+    @Override
+    public ObjectAction<T> setPriority(@Nonnull RequestPriority priority)
+    {
+        Checks.notNull(priority, "Priority");
+        this.priority = priority;
+        return this;
+    }
+
+    @Nullable
+    @Override
+    public String getRateLimitTag()
+    {
+        return rateLimitTag;
+    }
+
+    @Nonnull
+    @Override
+    public ObjectAction<T> setRateLimitTag(@Nullable String tag)
+    {
+        this.rateLimitTag = tag;
+        return this;
+    }
+
+    @Nullable
+    @Override
+    public Executor getCallbackExecutor()
+    {
+        return callbackExecutor;
+    }
+
+    @Nonnull
+    @Override
+    public ObjectAction<T> queueOn(@Nullable Executor executor)
+    {
+        this.callbackExecutor = executor;
+        return this;
+    }
 }
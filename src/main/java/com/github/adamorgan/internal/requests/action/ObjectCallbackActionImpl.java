@@ -17,6 +17,7 @@
 package com.github.adamorgan.internal.requests.action;
 
 import com.github.adamorgan.api.Library;
+import com.github.adamorgan.api.LibraryInfo;
 import com.github.adamorgan.api.requests.Request;
 import com.github.adamorgan.api.requests.Response;
 import com.github.adamorgan.api.requests.action.CacheObjectAction;
@@ -101,13 +102,25 @@ public class ObjectCallbackActionImpl extends ObjectActionImpl<Response> impleme
     @Override
     public Compression getCompression()
     {
-        return this.api.getCompression();
+        return getCompression(this.version);
+    }
+
+    @Nonnull
+    protected Compression getCompression(byte version)
+    {
+        // Protocol v5 compresses whole segments, the frames inside are never compressed
+        return version >= LibraryInfo.MAX_PROTOCOL_VERSION ? Compression.NONE : this.api.getCompression();
     }
 
     @Override
     public int getRawFlags()
     {
-        return (this.getCompression().equals(Compression.NONE) ? 0 : 0x01) | (this.useTrace ? 0x02 : 0);
+        return getRawFlags(this.version);
+    }
+
+    protected int getRawFlags(byte version)
+    {
+        return (this.getCompression(version).equals(Compression.NONE) ? 0 : 0x01) | (this.useTrace ? 0x02 : 0);
     }
 
     @Nonnull
@@ -207,9 +220,26 @@ public class ObjectCallbackActionImpl extends ObjectActionImpl<Response> impleme
     @Override
     public ObjectData finalizeData()
     {
-        return ObjectCallbackData.create(getContent(), getAttachments(), getRawFlags())
-                .setCompression(getCompression())
-                .setLargeThreshold(getConsistency().getCode())
+        return finalizeData(getConsistency());
+    }
+
+    @Nonnull
+    @Override
+    public ObjectData finalizeData(@Nonnull Consistency consistency)
+    {
+        return finalizeData(version, consistency);
+    }
+
+    @Nonnull
+    @Override
+    public ObjectData finalizeData(byte version, @Nullable Consistency consistency)
+    {
+        if (consistency == null)
+            consistency = getConsistency();
+        return ObjectCallbackData.create(getContent(), getAttachments(), getRawFlags(version))
+                .setVersion(version)
+                .setCompression(getCompression(version))
+                .setLargeThreshold(consistency.getCode())
                 .setFields(getFieldsRaw())
                 .setMaxBufferSize(getMaxBufferSize())
                 .setTimestamp(getTimestamp())
@@ -17,6 +17,7 @@
 package com.github.adamorgan.internal.requests.action;
 
 import com.github.adamorgan.api.Library;
+import com.github.adamorgan.api.LibraryInfo;
 import com.github.adamorgan.api.requests.ObjectAction;
 import com.github.adamorgan.api.requests.Request;
 import com.github.adamorgan.api.requests.Response;
@@ -30,6 +31,7 @@ import com.github.adamorgan.internal.utils.request.*;
 import io.netty.buffer.ByteBuf;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.EnumSet;
 
 public class ObjectCreateActionImpl extends ObjectActionImpl<Response> implements ObjectCreateAction, ObjectCreateBuilderMixin<ObjectCreateAction>
@@ -79,13 +81,25 @@ public class ObjectCreateActionImpl extends ObjectActionImpl<Response> implement
     @Override
     public Compression getCompression()
     {
-        return this.api.getCompression();
+        return getCompression(this.version);
+    }
+
+    @Nonnull
+    protected Compression getCompression(byte version)
+    {
+        // Protocol v5 compresses whole segments, the frames inside are never compressed
+        return version >= LibraryInfo.MAX_PROTOCOL_VERSION ? Compression.NONE : this.api.getCompression();
     }
 
     @Override
     public int getRawFlags()
     {
-        return (this.getCompression().equals(Compression.NONE) ? 0 : 0x01) | (this.useTrace ? 0x02 : 0);
+        return getRawFlags(this.version);
+    }
+
+    protected int getRawFlags(byte version)
+    {
+        return (this.getCompression(version).equals(Compression.NONE) ? 0 : 0x01) | (this.useTrace ? 0x02 : 0);
     }
 
     @Nonnull
@@ -152,9 +166,26 @@ public class ObjectCreateActionImpl extends ObjectActionImpl<Response> implement
     @Override
     public ObjectData finalizeData()
     {
-        return ObjectCreateData.create(getContent(), getRawFlags())
-                .setCompression(getCompression())
-                .setLargeThreshold(getConsistency().getCode())
+        return finalizeData(getConsistency());
+    }
+
+    @Nonnull
+    @Override
+    public ObjectData finalizeData(@Nonnull Consistency consistency)
+    {
+        return finalizeData(version, consistency);
+    }
+
+    @Nonnull
+    @Override
+    public ObjectData finalizeData(byte version, @Nullable Consistency consistency)
+    {
+        if (consistency == null)
+            consistency = getConsistency();
+        return ObjectCreateData.create(getContent(), getRawFlags(version))
+                .setVersion(version)
+                .setCompression(getCompression(version))
+                .setLargeThreshold(consistency.getCode())
                 .setFields(getFieldsRaw())
                 .setMaxBufferSize(getMaxBufferSize())
                 .setTimestamp(getTimestamp())
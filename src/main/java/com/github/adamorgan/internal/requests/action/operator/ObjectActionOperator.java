@@ -18,11 +18,14 @@ package com.github.adamorgan.internal.requests.action.operator;
 
 import com.github.adamorgan.api.Library;
 import com.github.adamorgan.api.requests.ObjectAction;
+import com.github.adamorgan.api.utils.RequestPriority;
 import com.github.adamorgan.api.utils.request.ObjectData;
 import io.netty.buffer.ByteBuf;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.EnumSet;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
 public abstract class ObjectActionOperator<I, O> implements ObjectAction<O>
@@ -94,6 +97,65 @@ public abstract class ObjectActionOperator<I, O> implements ObjectAction<O>
         return action.getDeadline();
     }
 
+    @Override
+    public boolean isIdempotent()
+    {
+        return action.isIdempotent();
+    }
+
+    @Nonnull
+    @Override
+    public ObjectAction<O> setIdempotent(boolean idempotent)
+    {
+        this.action.setIdempotent(idempotent);
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public RequestPriority getPriority()
+    {
+        return action.getPriority();
+    }
+
+    @Nonnull
+    @Override
+    public ObjectAction<O> setPriority(@Nonnull RequestPriority priority)
+    {
+        this.action.setPriority(priority);
+        return this;
+    }
+
+    @Nullable
+    @Override
+    public String getRateLimitTag()
+    {
+        return action.getRateLimitTag();
+    }
+
+    @Nonnull
+    @Override
+    public ObjectAction<O> setRateLimitTag(@Nullable String tag)
+    {
+        this.action.setRateLimitTag(tag);
+        return this;
+    }
+
+    @Nullable
+    @Override
+    public Executor getCallbackExecutor()
+    {
+        return action.getCallbackExecutor();
+    }
+
+    @Nonnull
+    @Override
+    public ObjectAction<O> queueOn(@Nullable Executor executor)
+    {
+        this.action.queueOn(executor);
+        return this;
+    }
+
     @Nonnull
     @Override
     public Library getLibrary()
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.adamorgan.internal.utils;
+
+/**
+ * Concurrency limit which follows the response times, based on TCP Vegas.
+ * <br>The lowest observed response time is taken as the time of a request which did not wait on the server.
+ * Recent response times above it show how many requests queue up, the limit grows while that queue stays small
+ * and shrinks once it builds up. Dropped requests, such as {@code OVERLOADED} errors or timeouts,
+ * shrink the limit multiplicatively.
+ */
+public class AdaptiveLimit
+{
+    public static final int INITIAL_LIMIT = 32;
+
+    private static final double BACKOFF = 0.9;
+    private static final int SHORT_WINDOW = 10;
+    // The lowest response time is measured again after this many samples, in case the baseline of the node changed
+    private static final int PROBE_INTERVAL = 5000;
+    private static final int PROBE_SAMPLES = 3 * SHORT_WINDOW;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private volatile int limit;
+    private double estimate;
+    private double shortRtt;
+    private double noLoadRtt;
+    private long samples;
+    private int probing;
+
+    public AdaptiveLimit(int minLimit, int maxLimit)
+    {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimate = Math.max(minLimit, Math.min(maxLimit, INITIAL_LIMIT));
+        this.limit = (int) estimate;
+    }
+
+    /**
+     * The current limit.
+     *
+     * @return The maximum amount of concurrent requests
+     */
+    public int getLimit()
+    {
+        return limit;
+    }
+
+    /**
+     * Records the response time of a request.
+     *
+     * @param rtt
+     *        The response time in nanoseconds
+     * @param inFlight
+     *        The amount of requests in flight when the request was answered
+     */
+    public synchronized void onSample(long rtt, int inFlight)
+    {
+        if (samples++ % PROBE_INTERVAL == 0)
+        {
+            // Response times under load cannot show the baseline, the limit is halved until the queue on the server drained
+            shortRtt = rtt;
+            noLoadRtt = rtt;
+            probing = PROBE_SAMPLES;
+            if (samples > 1)
+                update(estimate / 2);
+        }
+        shortRtt += (rtt - shortRtt) / SHORT_WINDOW;
+        noLoadRtt = Math.min(noLoadRtt, shortRtt);
+
+        if (probing > 0)
+        {
+            probing--;
+            return;
+        }
+
+        // A limit which is not used says nothing about a higher concurrency
+        if (inFlight < estimate / 2)
+            return;
+
+        double log = Math.max(1, Math.log10(estimate));
+        double queue = estimate * (1 - noLoadRtt / shortRtt);
+        if (queue <= log)
+            update(estimate + 6 * log);
+        else if (queue < 3 * log)
+            update(estimate + log);
+        else if (queue > 6 * log)
+            update(estimate - log);
+    }
+
+    /**
+     * Shrinks the limit after a request was dropped by the server or timed out.
+     */
+    public synchronized void onDropped()
+    {
+        update(estimate * BACKOFF);
+    }
+
+    private void update(double next)
+    {
+        estimate = Math.max(minLimit, Math.min(maxLimit, next));
+        limit = (int) estimate;
+    }
+}
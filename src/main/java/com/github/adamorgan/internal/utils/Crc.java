@@ -0,0 +1,82 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.adamorgan.internal.utils;
+
+import io.netty.buffer.ByteBuf;
+
+import javax.annotation.Nonnull;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * Checksums used by the segment framing of protocol v5.
+ */
+public final class Crc
+{
+    private static final int CRC24_INIT = 0x875060;
+    private static final int CRC24_POLY = 0x1974F0B;
+
+    // The payload checksum is seeded with these bytes, so an all-zero payload never has a zero checksum
+    private static final byte[] CRC32_INITIAL_BYTES = { (byte) 0xFA, (byte) 0x2D, (byte) 0x55, (byte) 0xCA };
+
+    private Crc() {}
+
+    /**
+     * Computes the CRC24 of the lowest {@code length} bytes of {@code value}, least significant byte first.
+     *
+     * @param  value
+     *         The segment header bits
+     * @param  length
+     *         The number of bytes to include
+     *
+     * @return The 24 bit checksum
+     */
+    public static int computeCrc24(long value, int length)
+    {
+        int crc = CRC24_INIT;
+        for (int i = 0; i < length; i++)
+        {
+            crc ^= (int) ((value & 0xFF) << 16);
+            value >>= 8;
+
+            for (int j = 0; j < 8; j++)
+            {
+                crc <<= 1;
+                if ((crc & 0x1000000) != 0)
+                    crc ^= CRC24_POLY;
+            }
+        }
+        return crc & 0xFFFFFF;
+    }
+
+    /**
+     * Computes the CRC32 of the readable bytes of the buffer, without moving its reader index.
+     *
+     * @param  buffer
+     *         The segment payload
+     *
+     * @return The 32 bit checksum
+     */
+    public static int computeCrc32(@Nonnull ByteBuf buffer)
+    {
+        CRC32 crc = new CRC32();
+        crc.update(CRC32_INITIAL_BYTES);
+        for (ByteBuffer nioBuffer : buffer.nioBuffers())
+            crc.update(nioBuffer);
+        return (int) crc.getValue();
+    }
+}
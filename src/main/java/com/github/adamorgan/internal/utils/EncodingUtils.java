@@ -16,6 +16,7 @@
 
 package com.github.adamorgan.internal.utils;
 
+import com.github.adamorgan.api.LibraryInfo;
 import com.github.adamorgan.api.utils.binary.BinaryType;
 import io.netty.buffer.ByteBuf;
 
@@ -206,6 +207,16 @@ public class EncodingUtils
         return buffer.writeBytes(content);
     }
 
+    /**
+     * Writes the flags of a query, they were widened from a byte to an int with protocol v5.
+     */
+    @Nonnull
+    public static ByteBuf packQueryFlags(@Nonnull ByteBuf buffer, byte version, int flags)
+    {
+        Checks.notNull(buffer, "Buffer");
+        return version >= LibraryInfo.MAX_PROTOCOL_VERSION ? buffer.writeInt(flags) : buffer.writeByte(flags);
+    }
+
     @Nullable
     public static String unpackUTF84(@Nonnull ByteBuf buffer)
     {
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.adamorgan.internal.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time weighted moving average of response times.
+ * <br>Samples above the average replace it right away, so a node which suddenly slows down is avoided immediately,
+ * while recovery is spread over the decay time. The average also decays while no samples arrive,
+ * which lets idle nodes be tried again.
+ */
+public class Ewma
+{
+    public static final long DEFAULT_DECAY = TimeUnit.SECONDS.toNanos(10);
+
+    private final double decay;
+
+    private volatile double value;
+    private volatile long stamp;
+    private boolean initialized;
+
+    public Ewma()
+    {
+        this(DEFAULT_DECAY);
+    }
+
+    public Ewma(long decayNanos)
+    {
+        this.decay = decayNanos;
+    }
+
+    public synchronized void update(long sample)
+    {
+        long now = System.nanoTime();
+        if (!initialized || sample > value)
+        {
+            initialized = true;
+            value = sample;
+        }
+        else
+        {
+            double weight = Math.exp(-(now - stamp) / decay);
+            value = value * weight + sample * (1 - weight);
+        }
+        stamp = now;
+    }
+
+    /**
+     * The current average, decayed by the time passed since the last sample.
+     *
+     * @return The average in nanoseconds, or {@code 0} if no sample was recorded yet
+     */
+    public double get()
+    {
+        double value = this.value;
+        if (value == 0)
+            return 0;
+        long elapsed = System.nanoTime() - stamp;
+        return value * Math.exp(-elapsed / decay);
+    }
+}
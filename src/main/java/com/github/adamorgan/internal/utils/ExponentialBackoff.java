@@ -0,0 +1,67 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.adamorgan.internal.utils;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with jitter.
+ * <br>Each delay is picked at random from the upper half of the current window, so sessions which lost their
+ * connection at the same time spread their attempts instead of reconnecting in lockstep.
+ */
+public class ExponentialBackoff
+{
+    private final long baseDelay;
+    private final long maxDelay;
+
+    private int attempts;
+
+    /**
+     * @param baseDelay
+     *        The window of the first attempt
+     * @param maxDelay
+     *        The largest window, in the same unit as the base delay
+     */
+    public ExponentialBackoff(long baseDelay, long maxDelay)
+    {
+        this.baseDelay = baseDelay;
+        this.maxDelay = Math.max(baseDelay, maxDelay);
+    }
+
+    /**
+     * Computes the delay of the next attempt and widens the window for the attempt after.
+     *
+     * @return The delay, in the unit of the base delay
+     */
+    public synchronized long nextDelay()
+    {
+        long window = Math.min(maxDelay, baseDelay << Math.min(attempts, 30));
+        attempts++;
+        return window / 2 + ThreadLocalRandom.current().nextLong(window / 2 + 1);
+    }
+
+    public synchronized int getAttempts()
+    {
+        return attempts;
+    }
+
+    public synchronized void reset()
+    {
+        attempts = 0;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.adamorgan.internal.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps the most recent response times to estimate latency percentiles.
+ * <br>Percentiles are computed from a copy of the samples and reused for a short interval,
+ * so reading them stays cheap under high request rates.
+ */
+public class LatencyTracker
+{
+    public static final int SAMPLE_COUNT = 1024;
+    public static final int MIN_SAMPLES = 100;
+
+    private static final long REFRESH_INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AtomicLongArray samples = new AtomicLongArray(SAMPLE_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final int minSamples;
+
+    private volatile Snapshot snapshot;
+
+    public LatencyTracker()
+    {
+        this(MIN_SAMPLES);
+    }
+
+    /**
+     * Creates a tracker which estimates percentiles once the provided amount of samples was recorded.
+     * <br>Rare samples, such as heartbeats, need a lower minimum to become readable in time.
+     *
+     * @param minSamples
+     *        The minimum amount of samples
+     */
+    public LatencyTracker(int minSamples)
+    {
+        this.minSamples = Math.max(1, minSamples);
+    }
+
+    public void record(long nanos)
+    {
+        samples.set((int) (count.getAndIncrement() & (SAMPLE_COUNT - 1)), nanos);
+    }
+
+    public long getCount()
+    {
+        return count.get();
+    }
+
+    /**
+     * Estimates the provided percentile of the recorded response times.
+     *
+     * @param  percentile
+     *         The percentile between {@code 0} (exclusive) and {@code 100}
+     *
+     * @return The percentile in nanoseconds, or {@code -1} if fewer than the minimum amount of samples were recorded
+     */
+    public long getPercentile(double percentile)
+    {
+        long now = System.nanoTime();
+        Snapshot snapshot = this.snapshot;
+        if (snapshot != null && snapshot.percentile == percentile && now - snapshot.time < REFRESH_INTERVAL)
+            return snapshot.value;
+
+        int size = (int) Math.min(count.get(), SAMPLE_COUNT);
+        if (size < minSamples)
+            return -1;
+
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++)
+            sorted[i] = samples.get(i);
+        Arrays.sort(sorted);
+
+        int index = (int) Math.ceil(percentile / 100 * size) - 1;
+        long value = sorted[Math.max(0, Math.min(size - 1, index))];
+        this.snapshot = new Snapshot(percentile, value, now);
+        return value;
+    }
+
+    private static class Snapshot
+    {
+        private final double percentile;
+        private final long value;
+        private final long time;
+
+        private Snapshot(double percentile, long value, long time)
+        {
+            this.percentile = percentile;
+            this.value = value;
+            this.time = time;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.adamorgan.internal.utils;
+
+import io.netty.buffer.ByteBuf;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The token function of Cassandra's {@code Murmur3Partitioner}.
+ *
+ * <p>This is the first half of MurmurHash3 x64 128 with seed 0, including Cassandra's quirk of sign-extending the
+ * trailing bytes. It has to match the server bit for bit, otherwise requests are routed to the wrong replica.
+ */
+public final class Murmur3
+{
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private Murmur3() {}
+
+    /**
+     * Computes the token of a serialized partition key, without moving the reader index of the buffer.
+     *
+     * @param  key
+     *         The serialized partition key
+     *
+     * @return The token of the key
+     */
+    public static long getToken(@Nonnull ByteBuf key)
+    {
+        long hash = hash(key, key.readerIndex(), key.readableBytes());
+        // Long.MIN_VALUE is reserved as the minimum token of the ring
+        return hash == Long.MIN_VALUE ? Long.MAX_VALUE : hash;
+    }
+
+    private static long hash(ByteBuf key, int offset, int length)
+    {
+        int blocks = length >> 4;
+
+        long h1 = 0;
+        long h2 = 0;
+
+        for (int i = 0; i < blocks; i++)
+        {
+            long k1 = key.getLongLE(offset + i * 16);
+            long k2 = key.getLongLE(offset + i * 16 + 8);
+
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        offset += blocks * 16;
+
+        long k1 = 0;
+        long k2 = 0;
+
+        // The tail bytes are read as signed values, matching the server
+        switch (length & 15)
+        {
+            case 15: k2 ^= ((long) key.getByte(offset + 14)) << 48;
+            case 14: k2 ^= ((long) key.getByte(offset + 13)) << 40;
+            case 13: k2 ^= ((long) key.getByte(offset + 12)) << 32;
+            case 12: k2 ^= ((long) key.getByte(offset + 11)) << 24;
+            case 11: k2 ^= ((long) key.getByte(offset + 10)) << 16;
+            case 10: k2 ^= ((long) key.getByte(offset + 9)) << 8;
+            case 9:
+                k2 ^= key.getByte(offset + 8);
+                h2 ^= mixK2(k2);
+            case 8: k1 ^= ((long) key.getByte(offset + 7)) << 56;
+            case 7: k1 ^= ((long) key.getByte(offset + 6)) << 48;
+            case 6: k1 ^= ((long) key.getByte(offset + 5)) << 40;
+            case 5: k1 ^= ((long) key.getByte(offset + 4)) << 32;
+            case 4: k1 ^= ((long) key.getByte(offset + 3)) << 24;
+            case 3: k1 ^= ((long) key.getByte(offset + 2)) << 16;
+            case 2: k1 ^= ((long) key.getByte(offset + 1)) << 8;
+            case 1:
+                k1 ^= key.getByte(offset);
+                h1 ^= mixK1(k1);
+        }
+
+        h1 ^= length;
+        h2 ^= length;
+
+        h1 += h2;
+        h2 += h1;
+
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+
+        return h1 + h2;
+    }
+
+    private static long mixK1(long k1)
+    {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        return k1 * C2;
+    }
+
+    private static long mixK2(long k2)
+    {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        return k2 * C1;
+    }
+
+    private static long fmix(long k)
+    {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
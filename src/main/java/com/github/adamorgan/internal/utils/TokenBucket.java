@@ -0,0 +1,98 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.adamorgan.internal.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket.
+ * <br>Instead of a token count, the bucket stores the time at which it would be full again,
+ * so taking a token is a single compare-and-set and refilling needs no background task.
+ */
+public class TokenBucket
+{
+    private final long interval;
+    private final long capacity;
+
+    // The time at which all tokens taken so far are refilled, a bucket is full once this lies in the past
+    private final AtomicLong refilledAt;
+
+    /**
+     * Creates a full bucket.
+     *
+     * @param rate
+     *        The tokens added per second
+     * @param burst
+     *        The maximum amount of tokens in the bucket
+     */
+    public TokenBucket(double rate, int burst)
+    {
+        this.interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / rate));
+        this.capacity = interval * burst;
+        this.refilledAt = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @return True, if a token was taken
+     */
+    public boolean tryAcquire()
+    {
+        long now = System.nanoTime();
+        while (true)
+        {
+            long current = refilledAt.get();
+            long next = Math.max(current, now) + interval;
+            if (next - now > capacity)
+                return false;
+            if (refilledAt.compareAndSet(current, next))
+                return true;
+        }
+    }
+
+    /**
+     * Takes a token, even if the bucket is empty.
+     * <br>The caller has to wait for the returned time before using the token,
+     * tokens are handed out in the order they were reserved.
+     *
+     * @return The time in nanoseconds until the token is available, {@code 0} if it is available right away
+     */
+    public long reserve()
+    {
+        long now = System.nanoTime();
+        while (true)
+        {
+            long current = refilledAt.get();
+            long next = Math.max(current, now) + interval;
+            if (refilledAt.compareAndSet(current, next))
+                return Math.max(0, next - now - capacity);
+        }
+    }
+
+    /**
+     * The tokens left in the bucket.
+     *
+     * @return The amount of tokens which can be taken right away
+     */
+    public long getAvailable()
+    {
+        long taken = Math.max(0, refilledAt.get() - System.nanoTime());
+        return Math.max(0, (capacity - taken) / interval);
+    }
+}
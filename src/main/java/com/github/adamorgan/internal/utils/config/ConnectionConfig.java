@@ -0,0 +1,279 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.github.adamorgan.internal.utils.config;
+
+import com.github.adamorgan.api.utils.AdmissionPolicy;
+import com.github.adamorgan.api.utils.FlushMode;
+import com.github.adamorgan.api.utils.RetryPolicy;
+import com.github.adamorgan.api.utils.SpeculativeExecutionPolicy;
+import com.github.adamorgan.api.utils.TransportProfile;
+import com.github.adamorgan.internal.requests.RateLimiter;
+
+import io.netty.handler.ssl.SslContext;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class ConnectionConfig
+{
+    protected int connectionsPerHost = 1;
+    protected boolean warmSpare = false;
+
+    protected FlushMode flushMode = FlushMode.THROUGHPUT;
+    protected int maxPendingWrites = 128;
+    protected int maxPendingBytes = 64 * 1024;
+
+    protected int maxRequestsPerConnection = 1024;
+    protected boolean adaptiveConcurrency = false;
+    protected int maxQueueSize = 4096;
+    protected AdmissionPolicy admissionPolicy = AdmissionPolicy.REJECT;
+    protected long admissionTimeout = TimeUnit.SECONDS.toMillis(5);
+    protected int writeBufferLowWaterMark = 32 * 1024;
+    protected int writeBufferHighWaterMark = 64 * 1024;
+
+    protected SpeculativeExecutionPolicy speculativeExecutionPolicy = SpeculativeExecutionPolicy.NONE;
+    protected boolean requestCoalescing = false;
+
+    protected RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+    protected double retryRate = 10;
+    protected int retryBurst = 50;
+
+    protected final Map<String, RateLimiter> rateLimits = new HashMap<>();
+
+    protected TransportProfile transportProfile = TransportProfile.DEFAULT;
+
+    protected long heartbeatInterval = TimeUnit.SECONDS.toMillis(30);
+    protected long readTimeout = TimeUnit.SECONDS.toMillis(10);
+
+    protected SslContext sslContext;
+
+    public void setConnectionsPerHost(int connectionsPerHost)
+    {
+        this.connectionsPerHost = connectionsPerHost;
+    }
+
+    public void setWarmSpare(boolean warmSpare)
+    {
+        this.warmSpare = warmSpare;
+    }
+
+    public void setFlushMode(@Nonnull FlushMode flushMode)
+    {
+        this.flushMode = flushMode;
+    }
+
+    public void setFlushThreshold(int maxPendingWrites, int maxPendingBytes)
+    {
+        this.maxPendingWrites = maxPendingWrites;
+        this.maxPendingBytes = maxPendingBytes;
+    }
+
+    public void setMaxRequestsPerConnection(int maxRequestsPerConnection)
+    {
+        this.maxRequestsPerConnection = maxRequestsPerConnection;
+    }
+
+    public void setAdaptiveConcurrency(boolean adaptiveConcurrency)
+    {
+        this.adaptiveConcurrency = adaptiveConcurrency;
+    }
+
+    public void setMaxQueueSize(int maxQueueSize)
+    {
+        this.maxQueueSize = maxQueueSize;
+    }
+
+    public void setAdmissionPolicy(@Nonnull AdmissionPolicy admissionPolicy, long admissionTimeout)
+    {
+        this.admissionPolicy = admissionPolicy;
+        this.admissionTimeout = admissionTimeout;
+    }
+
+    public void setWriteBufferWaterMark(int low, int high)
+    {
+        this.writeBufferLowWaterMark = low;
+        this.writeBufferHighWaterMark = high;
+    }
+
+    public void setSpeculativeExecutionPolicy(@Nonnull SpeculativeExecutionPolicy speculativeExecutionPolicy)
+    {
+        this.speculativeExecutionPolicy = speculativeExecutionPolicy;
+    }
+
+    public void setRetryPolicy(@Nonnull RetryPolicy retryPolicy)
+    {
+        this.retryPolicy = retryPolicy;
+    }
+
+    public void setRetryBudget(double retryRate, int retryBurst)
+    {
+        this.retryRate = retryRate;
+        this.retryBurst = retryBurst;
+    }
+
+    public void setRateLimit(@Nonnull String tag, double rate, int burst)
+    {
+        this.rateLimits.put(tag, new RateLimiter(tag, rate, burst));
+    }
+
+    public void setTransportProfile(@Nonnull TransportProfile transportProfile)
+    {
+        this.transportProfile = transportProfile;
+    }
+
+    public void setHeartbeatInterval(long heartbeatInterval)
+    {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    public void setReadTimeout(long readTimeout)
+    {
+        this.readTimeout = readTimeout;
+    }
+
+    public void setRequestCoalescing(boolean requestCoalescing)
+    {
+        this.requestCoalescing = requestCoalescing;
+    }
+
+    public void setSslContext(@Nullable SslContext sslContext)
+    {
+        this.sslContext = sslContext;
+    }
+
+    public int getConnectionsPerHost()
+    {
+        return connectionsPerHost;
+    }
+
+    public boolean isWarmSpare()
+    {
+        return warmSpare;
+    }
+
+    @Nonnull
+    public FlushMode getFlushMode()
+    {
+        return flushMode;
+    }
+
+    public int getMaxPendingWrites()
+    {
+        return maxPendingWrites;
+    }
+
+    public int getMaxPendingBytes()
+    {
+        return maxPendingBytes;
+    }
+
+    public int getMaxRequestsPerConnection()
+    {
+        return maxRequestsPerConnection;
+    }
+
+    public boolean isAdaptiveConcurrency()
+    {
+        return adaptiveConcurrency;
+    }
+
+    public int getMaxQueueSize()
+    {
+        return maxQueueSize;
+    }
+
+    @Nonnull
+    public AdmissionPolicy getAdmissionPolicy()
+    {
+        return admissionPolicy;
+    }
+
+    public long getAdmissionTimeout()
+    {
+        return admissionTimeout;
+    }
+
+    public int getWriteBufferLowWaterMark()
+    {
+        return writeBufferLowWaterMark;
+    }
+
+    public int getWriteBufferHighWaterMark()
+    {
+        return writeBufferHighWaterMark;
+    }
+
+    @Nonnull
+    public SpeculativeExecutionPolicy getSpeculativeExecutionPolicy()
+    {
+        return speculativeExecutionPolicy;
+    }
+
+    @Nonnull
+    public RetryPolicy getRetryPolicy()
+    {
+        return retryPolicy;
+    }
+
+    public double getRetryRate()
+    {
+        return retryRate;
+    }
+
+    public int getRetryBurst()
+    {
+        return retryBurst;
+    }
+
+    @Nonnull
+    public Map<String, RateLimiter> getRateLimits()
+    {
+        return Collections.unmodifiableMap(rateLimits);
+    }
+
+    @Nonnull
+    public TransportProfile getTransportProfile()
+    {
+        return transportProfile;
+    }
+
+    public long getHeartbeatInterval()
+    {
+        return heartbeatInterval;
+    }
+
+    public long getReadTimeout()
+    {
+        return readTimeout;
+    }
+
+    public boolean isRequestCoalescing()
+    {
+        return requestCoalescing;
+    }
+
+    @Nullable
+    public SslContext getSslContext()
+    {
+        return sslContext;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2025 Ada Morgan, John Regan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.adamorgan.internal.utils.config;
+
+/**
+ * The configured rate of a rate limit tag, the limiter itself is created by every library on its own.
+ */
+public class RateLimitConfig
+{
+    protected final double rate;
+    protected final int burst;
+
+    public RateLimitConfig(double rate, int burst)
+    {
+        this.rate = rate;
+        this.burst = burst;
+    }
+
+    public double getRate()
+    {
+        return rate;
+    }
+
+    public int getBurst()
+    {
+        return burst;
+    }
+}
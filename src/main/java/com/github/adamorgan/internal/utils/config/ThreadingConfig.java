@@ -16,36 +16,53 @@
 
 package com.github.adamorgan.internal.utils.config;
 
+import com.github.adamorgan.api.utils.CallbackExecutor;
+import com.github.adamorgan.api.utils.TransportProfile.Transport;
 import com.github.adamorgan.internal.LibraryImpl;
+import com.github.adamorgan.internal.utils.concurrent.CountingThreadFactory;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.IoHandlerFactory;
 import io.netty.channel.MultiThreadIoEventLoopGroup;
 import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
 import io.netty.channel.epoll.EpollIoHandler;
 import io.netty.channel.epoll.EpollSocketChannel;
 import io.netty.channel.kqueue.KQueue;
+import io.netty.channel.kqueue.KQueueDomainSocketChannel;
 import io.netty.channel.kqueue.KQueueIoHandler;
 import io.netty.channel.kqueue.KQueueSocketChannel;
 import io.netty.channel.nio.NioIoHandler;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.unix.DomainSocketChannel;
 import io.netty.channel.uring.IoUring;
 import io.netty.channel.uring.IoUringIoHandler;
 import io.netty.channel.uring.IoUringSocketChannel;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.*;
 import java.util.function.Predicate;
 
 public class ThreadingConfig
 {
     protected EventLoopGroup callbackPool;
     protected ExecutorService eventPool;
+    protected CallbackExecutor callbackExecutor = CallbackExecutor.INLINE;
+    // Runs TLS handshake tasks outside the I/O threads, null if handshakes are not offloaded
+    protected ExecutorService sslPool;
+
+    // Drives request deadlines and delayed submissions, its tasks only hand off to other executors
+    // so the wheel keeps ticking on time
+    protected Timer timer = SharedTimer.INSTANCE;
 
     protected boolean shutdownCallbackPool;
     protected boolean shutdownEventPool;
+    protected boolean shutdownCallbackExecutor;
+    protected boolean shutdownSslPool;
+    protected boolean shutdownTimer;
 
     public final static int EPOLL = 1 << 1;
     public final static int KQUEUE = 1 << 2;
@@ -55,17 +72,55 @@ public class ThreadingConfig
 
     private static final Predicate<Integer> HAS_FLAG = code -> (THREAD_CODE & code) != 0;
 
-    public static final Class<? extends SocketChannel> SOCKET_CHANNEL = HAS_FLAG.test(IO_URING) ? IoUringSocketChannel.class : HAS_FLAG.test(EPOLL) ? EpollSocketChannel.class : HAS_FLAG.test(KQUEUE) ? KQueueSocketChannel.class : NioSocketChannel.class;;
-    public static final IoHandlerFactory IO_HANDLER = HAS_FLAG.test(IO_URING) ? IoUringIoHandler.newFactory() : HAS_FLAG.test(EPOLL) ? EpollIoHandler.newFactory() : HAS_FLAG.test(KQUEUE) ? KQueueIoHandler.newFactory() : NioIoHandler.newFactory();
+    public static final Transport DEFAULT_TRANSPORT = HAS_FLAG.test(IO_URING) ? Transport.IO_URING : HAS_FLAG.test(EPOLL) ? Transport.EPOLL : HAS_FLAG.test(KQUEUE) ? Transport.KQUEUE : Transport.NIO;
+
+    public static final long TIMER_TICK = 10;
+    public static final int TIMER_WHEEL_SIZE = 512;
+
+    public static final Transport DOMAIN_SOCKET_TRANSPORT = HAS_FLAG.test(EPOLL) ? Transport.EPOLL : HAS_FLAG.test(KQUEUE) ? Transport.KQUEUE : Transport.AUTO;
+
+    protected Transport transport = DEFAULT_TRANSPORT;
 
     public ThreadingConfig()
     {
         this.shutdownCallbackPool = true;
     }
 
+    /**
+     * Selects the transport of the callback pool and all connections, must be called before {@link #setCallbackPool(ThreadFactory, boolean)}.
+     *
+     * @param  transport
+     *         The transport, {@link Transport#AUTO AUTO} picks the best available one
+     *
+     * @throws IllegalStateException
+     *         If the transport is not available on this platform
+     */
+    public void setTransport(@Nonnull Transport transport)
+    {
+        switch (transport)
+        {
+            case AUTO:
+                this.transport = DEFAULT_TRANSPORT;
+                return;
+            case IO_URING:
+                if (!IoUring.isAvailable())
+                    throw new IllegalStateException("io_uring transport is not available", IoUring.unavailabilityCause());
+                break;
+            case EPOLL:
+                if (!Epoll.isAvailable())
+                    throw new IllegalStateException("epoll transport is not available", Epoll.unavailabilityCause());
+                break;
+            case KQUEUE:
+                if (!KQueue.isAvailable())
+                    throw new IllegalStateException("kqueue transport is not available", KQueue.unavailabilityCause());
+                break;
+        }
+        this.transport = transport;
+    }
+
     public void setCallbackPool(@Nullable ThreadFactory factory, boolean shutdown)
     {
-        this.callbackPool = new MultiThreadIoEventLoopGroup(factory == null ? LibraryImpl.DEFAULT_THREAD_FACTORY : factory, IO_HANDLER);
+        this.callbackPool = new MultiThreadIoEventLoopGroup(factory == null ? LibraryImpl.DEFAULT_THREAD_FACTORY : factory, getIoHandler());
         this.shutdownCallbackPool = shutdown;
     }
 
@@ -75,10 +130,50 @@ public class ThreadingConfig
         this.shutdownEventPool = shutdown;
     }
 
+    public void setCallbackExecutor(@Nonnull CallbackExecutor executor, boolean shutdown)
+    {
+        this.callbackExecutor = executor;
+        this.shutdownCallbackExecutor = shutdown;
+    }
+
+    /**
+     * Sets the executor which runs the expensive parts of TLS handshakes, such as certificate validation.
+     *
+     * @param executor
+     *        The executor, or null to use a dedicated pool of daemon threads
+     * @param shutdown
+     *        Whether the executor is shut down once the library shuts down, the dedicated pool is always shut down
+     */
+    public void setSslPool(@Nullable ExecutorService executor, boolean shutdown)
+    {
+        this.sslPool = executor == null ? newSslPool() : executor;
+        this.shutdownSslPool = executor == null || shutdown;
+    }
+
+    /**
+     * Sets the timer for request deadlines and delayed requests.
+     * <br>Without a timer the library uses the timer shared by all libraries, which is never shut down.
+     *
+     * @param timer
+     *        The timer, or null to use the shared timer
+     * @param shutdown
+     *        Whether the timer is stopped once the library shuts down
+     */
+    public void setTimer(@Nullable Timer timer, boolean shutdown)
+    {
+        this.timer = timer == null ? SharedTimer.INSTANCE : timer;
+        this.shutdownTimer = timer != null && shutdown;
+    }
+
     public void shutdown()
     {
         if (shutdownCallbackPool)
             callbackPool.shutdownGracefully();
+        if (shutdownCallbackExecutor)
+            callbackExecutor.shutdown();
+        stopTimer();
+        if (shutdownSslPool)
+            sslPool.shutdown();
         if (shutdownEventPool && eventPool != null)
             eventPool.shutdown();
     }
@@ -87,19 +182,135 @@ public class ThreadingConfig
     {
         if (shutdownCallbackPool)
             callbackPool.shutdownGracefully();
+        if (shutdownCallbackExecutor)
+            callbackExecutor.shutdown();
+        stopTimer();
+        if (shutdownSslPool)
+            sslPool.shutdownNow();
         if (shutdownEventPool && eventPool != null)
             eventPool.shutdownNow();
     }
 
+    protected void stopTimer()
+    {
+        if (!shutdownTimer)
+            return;
+
+        try
+        {
+            timer.stop();
+        }
+        catch (IllegalStateException ex)
+        {
+            // Shut down by one of its own tasks, a timer cannot stop its worker thread from that thread
+            new CountingThreadFactory(() -> "Library", "Timer-Shutdown").newThread(timer::stop).start();
+        }
+    }
+
+    @Nonnull
+    public Transport getTransport()
+    {
+        return transport;
+    }
+
+    @Nonnull
+    public Class<? extends SocketChannel> getSocketChannel()
+    {
+        switch (transport)
+        {
+            case IO_URING:
+                return IoUringSocketChannel.class;
+            case EPOLL:
+                return EpollSocketChannel.class;
+            case KQUEUE:
+                return KQueueSocketChannel.class;
+            default:
+                return NioSocketChannel.class;
+        }
+    }
+
+    /**
+     * Whether the selected transport can connect to a {@link io.netty.channel.unix.DomainSocketAddress DomainSocketAddress}.
+     *
+     * @return True, if the transport is epoll or kqueue
+     */
+    public boolean isDomainSocketSupported()
+    {
+        return transport == Transport.EPOLL || transport == Transport.KQUEUE;
+    }
+
+    @Nonnull
+    public Class<? extends DomainSocketChannel> getDomainSocketChannel()
+    {
+        switch (transport)
+        {
+            case EPOLL:
+                return EpollDomainSocketChannel.class;
+            case KQUEUE:
+                return KQueueDomainSocketChannel.class;
+            default:
+                throw new IllegalStateException("Unix domain sockets require the epoll or kqueue transport, selected transport: " + transport);
+        }
+    }
+
+    @Nonnull
+    public IoHandlerFactory getIoHandler()
+    {
+        switch (transport)
+        {
+            case IO_URING:
+                return IoUringIoHandler.newFactory();
+            case EPOLL:
+                return EpollIoHandler.newFactory();
+            case KQUEUE:
+                return KQueueIoHandler.newFactory();
+            default:
+                return NioIoHandler.newFactory();
+        }
+    }
+
     @Nonnull
     public EventLoopGroup getCallbackPool()
     {
         return callbackPool;
     }
 
+    @Nonnull
+    public Timer getTimer()
+    {
+        return timer;
+    }
+
+    @Nonnull
+    public CallbackExecutor getCallbackExecutor()
+    {
+        return callbackExecutor;
+    }
+
     @Nullable
     public ExecutorService getEventPool()
     {
         return eventPool;
     }
+
+    @Nullable
+    public ExecutorService getSslPool()
+    {
+        return sslPool;
+    }
+
+    @Nonnull
+    private static ExecutorService newSslPool()
+    {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new CountingThreadFactory(() -> "Library", "SslHandshake"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    // Shared by all libraries without their own timer, so shards only start a single timer thread, started by the first timeout
+    private static final class SharedTimer
+    {
+        private static final HashedWheelTimer INSTANCE = new HashedWheelTimer(new CountingThreadFactory(() -> "Library", "Timer"), TIMER_TICK, TimeUnit.MILLISECONDS, TIMER_WHEEL_SIZE);
+    }
 }
@@ -22,6 +22,7 @@ import com.github.adamorgan.api.utils.request.ObjectData;
 import com.github.adamorgan.internal.requests.SocketCode;
 import com.github.adamorgan.internal.requests.action.ObjectCreateActionImpl;
 import com.github.adamorgan.internal.utils.Checks;
+import com.github.adamorgan.internal.utils.EncodingUtils;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import org.apache.commons.lang3.StringUtils;
@@ -33,6 +34,7 @@ public class ObjectCreateData implements ObjectData
 {
     public static final int CODE = SocketCode.QUERY;
 
+    private final byte version;
     private final int flags;
     private final byte[] content;
     private final Compression compression;
@@ -44,8 +46,9 @@ public class ObjectCreateData implements ObjectData
     private final ByteBuf body;
     private final int bucketId;
 
-    private ObjectCreateData(int flags, byte[] content, Compression compression, int largeThreshold, int fields, int bufferSize, long timestamp)
+    private ObjectCreateData(byte version, int flags, byte[] content, Compression compression, int largeThreshold, int fields, int bufferSize, long timestamp)
     {
+        this.version = version;
         this.flags = flags;
         this.content = content;
         this.compression = compression;
@@ -56,16 +59,19 @@ public class ObjectCreateData implements ObjectData
 
         ByteBuf rawBody = applyBody();
         this.body = compression.pack(rawBody);
+        if (body != rawBody)
+            rawBody.release();
         this.bucketId = MiscUtil.getBucketId(body);
     }
 
     public ByteBuf applyBody()
     {
-        return Unpooled.directBuffer()
+        ByteBuf body = Unpooled.directBuffer()
                 .writeInt(content.length)
                 .writeBytes(content)
-                .writeShort(largeThreshold)
-                .writeByte(fields)
+                .writeShort(largeThreshold);
+
+        return EncodingUtils.packQueryFlags(body, version, fields)
                 .writeInt(maxBufferSize)
                 .writeLong(timestamp);
     }
@@ -78,17 +84,29 @@ public class ObjectCreateData implements ObjectData
         return new Builder(content, flags);
     }
 
+    @Override
+    public byte getVersion()
+    {
+        return version;
+    }
+
+    @Override
+    public int getFlags()
+    {
+        return flags;
+    }
+
+    @Override
+    public int getOpcode()
+    {
+        return CODE;
+    }
+
     @Nonnull
     @Override
-    public ByteBuf asByteBuf()
+    public ByteBuf getBody()
     {
-        return Unpooled.directBuffer()
-                .writeByte(LibraryInfo.PROTOCOL_VERSION)
-                .writeByte(flags)
-                .writeShort(bucketId)
-                .writeByte(CODE)
-                .writeInt(body.readableBytes())
-                .writeBytes(body);
+        return body;
     }
 
     @Override
@@ -102,6 +120,7 @@ public class ObjectCreateData implements ObjectData
         protected final byte[] content;
         protected final int flags;
 
+        protected byte version = LibraryInfo.PROTOCOL_VERSION;
         protected Compression compression = Compression.NONE;
         protected int largeThreshold = 1;
         protected int fields = 0;
@@ -114,6 +133,14 @@ public class ObjectCreateData implements ObjectData
             this.flags = flags;
         }
 
+        @Nonnull
+        public Builder setVersion(byte version)
+        {
+            Checks.inRange(version, LibraryInfo.PROTOCOL_VERSION, LibraryInfo.MAX_PROTOCOL_VERSION, "Version");
+            this.version = version;
+            return this;
+        }
+
         @Nonnull
         public Builder setCompression(@Nonnull Compression compression)
         {
@@ -158,7 +185,7 @@ public class ObjectCreateData implements ObjectData
         @Nonnull
         public ObjectCreateData build()
         {
-            return new ObjectCreateData(flags, content, compression, largeThreshold, fields, maxBufferSize, timestamp);
+            return new ObjectCreateData(version, flags, content, compression, largeThreshold, fields, maxBufferSize, timestamp);
         }
     }
 }
@@ -18,9 +18,9 @@ package com.github.adamorgan.internal.utils.request.callback;
 
 import com.github.adamorgan.api.utils.request.ObjectData;
 import com.github.adamorgan.api.requests.objectaction.ObjectCreateAction;
-import com.github.adamorgan.internal.requests.SocketClient;
 import com.github.adamorgan.internal.requests.SocketCode;
 import com.github.adamorgan.internal.requests.action.ObjectCreateActionImpl;
+import com.github.adamorgan.internal.utils.EncodingUtils;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 
@@ -51,32 +51,48 @@ public class ObjectCacheData implements ObjectData
         this.maxBufferSize = action.getMaxBufferSize();
         this.timestamp = action.getTimestamp();
 
-        this.body = action.getCompression().pack(applyBody());
+        ByteBuf rawBody = applyBody();
+        this.body = action.getCompression().pack(rawBody);
+        if (body != rawBody)
+            rawBody.release();
     }
 
     @Nonnull
     private ByteBuf applyBody()
     {
-        return Unpooled.directBuffer()
+        ByteBuf body = Unpooled.directBuffer()
                 .writeShort(this.token.readableBytes())
                 .writeBytes(this.token)
-                .writeShort(this.consistency)
-                .writeByte(this.fields)
+                .writeShort(this.consistency);
+
+        return EncodingUtils.packQueryFlags(body, this.version, this.fields)
                 .writeBytes(Unpooled.buffer()) // PARAMETERS
                 .writeInt(this.maxBufferSize)
                 .writeLong(this.timestamp);
     }
 
+    @Override
+    public byte getVersion()
+    {
+        return version;
+    }
+
+    @Override
+    public int getFlags()
+    {
+        return flags;
+    }
+
+    @Override
+    public int getOpcode()
+    {
+        return CODE;
+    }
+
     @Nonnull
     @Override
-    public ByteBuf asByteBuf()
+    public ByteBuf getBody()
     {
-        return Unpooled.directBuffer()
-                .writeByte(this.version)
-                .writeByte(this.flags)
-                .writeShort(0)
-                .writeByte(CODE)
-                .writeInt(body.readableBytes())
-                .writeBytes(body);
+        return body;
     }
 }
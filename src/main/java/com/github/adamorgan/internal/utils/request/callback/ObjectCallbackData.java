@@ -21,12 +21,15 @@ import com.github.adamorgan.api.LibraryInfo;
 import com.github.adamorgan.api.utils.Compression;
 import com.github.adamorgan.api.utils.MiscUtil;
 import com.github.adamorgan.api.utils.request.ObjectData;
+import com.github.adamorgan.api.utils.request.ObjectRequest;
 import com.github.adamorgan.internal.requests.SocketCode;
 import com.github.adamorgan.internal.utils.Checks;
+import com.github.adamorgan.internal.utils.EncodingUtils;
 import io.netty.buffer.*;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 
@@ -34,6 +37,7 @@ public class ObjectCallbackData implements ObjectData
 {
     public static final int CODE = SocketCode.PREPARE;
 
+    private final byte version;
     private final int flags;
     private final byte[] content;
     private final List<? extends ByteBuf> args;
@@ -45,10 +49,12 @@ public class ObjectCallbackData implements ObjectData
     private final long timestamp;
 
     private final ByteBuf body;
+    private final ByteBuf routingKey;
     private final int bucketId;
 
-    private ObjectCallbackData(int flags, byte[] content, List<? extends ByteBuf> args, Compression compression, int largeThreshold, int fields, int bufferSize, long timestamp)
+    private ObjectCallbackData(byte version, int flags, byte[] content, List<? extends ByteBuf> args, Compression compression, int largeThreshold, int fields, int bufferSize, long timestamp)
     {
+        this.version = version;
         this.flags = flags;
         this.content = content;
         this.args = args;
@@ -58,21 +64,42 @@ public class ObjectCallbackData implements ObjectData
         this.maxBufferSize = bufferSize;
         this.timestamp = timestamp;
 
-        this.argsBody = args.stream().collect(Unpooled::directBuffer, ByteBuf::writeBytes, ByteBuf::writeBytes);
+        // Copied without moving the reader index, the arguments are read again for the routing key and by later encodings
+        this.argsBody = args.stream().collect(Unpooled::directBuffer, (body, arg) -> body.writeBytes(arg, arg.readerIndex(), arg.readableBytes()), ByteBuf::writeBytes);
 
         ByteBuf rawBody = applyBody();
         this.body = compression.pack(rawBody);
+        if (body != rawBody)
+            rawBody.release();
+        this.routingKey = findRoutingKey(args, fields);
         this.bucketId = MiscUtil.getBucketId(body);
     }
 
+    /**
+     * Uses the first bound value as the partition key, which holds for tables with a single partition key column
+     * that is bound first. Any other statement is still answered correctly, only by a coordinator that is no replica.
+     */
+    @Nullable
+    private static ByteBuf findRoutingKey(List<? extends ByteBuf> args, int fields)
+    {
+        // Named values are prefixed with their name, their order does not tell which one is the partition key
+        if (args.isEmpty() || (fields & ObjectRequest.Field.VALUE_NAMES.getRawValue()) != 0)
+            return null;
+
+        ByteBuf value = args.get(0);
+        int length = value.getInt(value.readerIndex());
+        return length < 0 ? null : value.slice(value.readerIndex() + Integer.BYTES, length);
+    }
+
     @Nonnull
     private ByteBuf applyBody()
     {
-        return Unpooled.directBuffer()
+        ByteBuf body = Unpooled.directBuffer()
                 .writeInt(content.length)
                 .writeBytes(content)
-                .writeShort(largeThreshold)
-                .writeByte(fields)
+                .writeShort(largeThreshold);
+
+        return EncodingUtils.packQueryFlags(body, version, fields)
                 .writeInt(maxBufferSize)
                 .writeLong(timestamp);
     }
@@ -86,15 +113,42 @@ public class ObjectCallbackData implements ObjectData
     }
 
     @Override
-    public ByteBuf asByteBuf()
+    public byte getVersion()
+    {
+        return version;
+    }
+
+    @Override
+    public int getFlags()
+    {
+        return flags;
+    }
+
+    @Override
+    public int getOpcode()
+    {
+        return CODE;
+    }
+
+    @Nonnull
+    @Override
+    public ByteBuf getBody()
+    {
+        return body;
+    }
+
+    @Nonnull
+    @Override
+    public ByteBuf getValues()
+    {
+        return argsBody;
+    }
+
+    @Nullable
+    @Override
+    public ByteBuf getRoutingKey()
     {
-        return Unpooled.directBuffer()
-                .writeByte(LibraryInfo.PROTOCOL_VERSION)
-                .writeByte(flags)
-                .writeShort(bucketId)
-                .writeByte(CODE)
-                .writeInt(body.readableBytes())
-                .writeBytes(body);
+        return routingKey;
     }
 
     @Override
@@ -109,6 +163,7 @@ public class ObjectCallbackData implements ObjectData
         protected final List<? extends ByteBuf> args;
         protected final int flags;
 
+        protected byte version = LibraryInfo.PROTOCOL_VERSION;
         protected Compression compression = Compression.NONE;
         protected int largeThreshold = 1;
         protected int fields = 0;
@@ -122,6 +177,14 @@ public class ObjectCallbackData implements ObjectData
             this.flags = flags;
         }
 
+        @Nonnull
+        public Builder setVersion(byte version)
+        {
+            Checks.inRange(version, LibraryInfo.PROTOCOL_VERSION, LibraryInfo.MAX_PROTOCOL_VERSION, "Version");
+            this.version = version;
+            return this;
+        }
+
         @Nonnull
         public Builder setCompression(@Nonnull Compression compression)
         {
@@ -166,7 +229,7 @@ public class ObjectCallbackData implements ObjectData
         @Nonnull
         public ObjectCallbackData build()
         {
-            return new ObjectCallbackData(flags, content, args, compression, largeThreshold, fields, maxBufferSize, timestamp);
+            return new ObjectCallbackData(version, flags, content, args, compression, largeThreshold, fields, maxBufferSize, timestamp);
         }
     }
 }
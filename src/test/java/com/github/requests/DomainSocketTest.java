@@ -0,0 +1,87 @@
+package com.github.requests;
+
+import com.github.adamorgan.api.utils.TransportProfile.Transport;
+import com.github.adamorgan.internal.utils.config.ThreadingConfig;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class DomainSocketTest
+{
+    @Test
+    void testNioHasNoDomainSockets()
+    {
+        ThreadingConfig config = new ThreadingConfig();
+        config.setTransport(Transport.NIO);
+
+        assertThat(config.isDomainSocketSupported()).isFalse();
+        assertThatThrownBy(config::getDomainSocketChannel).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testRoundTripThroughStubServer(@TempDir Path directory) throws Exception
+    {
+        assumeTrue(Epoll.isAvailable(), "epoll is not available");
+
+        ThreadingConfig config = new ThreadingConfig();
+        config.setTransport(Transport.EPOLL);
+        assertThat(config.isDomainSocketSupported()).isTrue();
+
+        DomainSocketAddress address = new DomainSocketAddress(directory.resolve("cassandra.sock").toFile());
+        EventLoopGroup group = new MultiThreadIoEventLoopGroup(1, config.getIoHandler());
+        try
+        {
+            // Echoes every frame back, enough to prove the client channel reaches the socket file
+            Channel server = new ServerBootstrap().group(group)
+                    .channel(EpollServerDomainSocketChannel.class)
+                    .childHandler(new ChannelInboundHandlerAdapter()
+                    {
+                        @Override
+                        public void channelRead(ChannelHandlerContext context, Object msg)
+                        {
+                            context.writeAndFlush(msg);
+                        }
+                    })
+                    .bind(address).sync().channel();
+
+            CompletableFuture<String> response = new CompletableFuture<>();
+            Channel client = new Bootstrap().group(group)
+                    .channel(config.getDomainSocketChannel())
+                    .handler(new SimpleChannelInboundHandler<ByteBuf>()
+                    {
+                        @Override
+                        protected void channelRead0(ChannelHandlerContext context, ByteBuf msg)
+                        {
+                            response.complete(msg.toString(StandardCharsets.UTF_8));
+                        }
+                    })
+                    .connect(address).sync().channel();
+
+            client.writeAndFlush(Unpooled.copiedBuffer("OPTIONS", StandardCharsets.UTF_8));
+            assertThat(response.get(5, TimeUnit.SECONDS)).isEqualTo("OPTIONS");
+
+            client.close().sync();
+            server.close().sync();
+        }
+        finally
+        {
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.requests;
+
+import com.github.adamorgan.api.LibraryInfo;
+import com.github.adamorgan.api.utils.Compression;
+import com.github.adamorgan.internal.requests.FlushCoalescingHandler;
+import com.github.adamorgan.internal.requests.Frame;
+import com.github.adamorgan.internal.requests.SegmentEncoder;
+import com.github.adamorgan.internal.requests.SocketCode;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FlushCoalescingHandlerTest
+{
+    @Test
+    void testSegmentedFramesReachByteThreshold()
+    {
+        // On v5 connections the segment encoder sits in front of the handler, which then sees unencoded frames
+        EmbeddedChannel channel = new EmbeddedChannel(new SegmentEncoder(Compression.NONE), new FlushCoalescingHandler(100, 128));
+
+        channel.write(newFrame(1, 64));
+        assertThat((Object) channel.readOutbound()).isNull();
+
+        channel.write(newFrame(2, 64));
+        ByteBuf segment = channel.readOutbound();
+        assertThat(segment).isNotNull();
+        // Both frames with their headers, framed by the segment header and trailer
+        assertThat(segment.readableBytes()).isEqualTo(6 + 2 * (9 + 64) + 4);
+        segment.release();
+    }
+
+    private static Frame newFrame(int stream, int length)
+    {
+        ByteBuf body = Unpooled.wrappedBuffer(new byte[length]);
+        return Frame.newInstance(LibraryInfo.MAX_PROTOCOL_VERSION, (byte) 0, stream, SocketCode.QUERY, length, body);
+    }
+}
@@ -0,0 +1,150 @@
+package com.github.requests;
+
+import com.github.adamorgan.api.LibraryInfo;
+import com.github.adamorgan.api.utils.Compression;
+import com.github.adamorgan.internal.LibraryImpl;
+import com.github.adamorgan.internal.requests.*;
+import com.github.adamorgan.internal.utils.config.ConnectionConfig;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class HandshakeTest
+{
+    private SocketClient client;
+    private ConnectionPool pool;
+    private FlushCounter flushes;
+
+    @BeforeEach
+    void setUp()
+    {
+        LibraryImpl api = mock(LibraryImpl.class, RETURNS_DEEP_STUBS);
+        when(api.getConnectionConfig()).thenReturn(new ConnectionConfig());
+        when(api.getVersion()).thenReturn(LibraryInfo.MAX_PROTOCOL_VERSION);
+        when(api.getToken()).thenReturn(new byte[] { 0, 'u', 0, 'p' });
+
+        client = new SocketClient(api, InetSocketAddress.createUnresolved("localhost", 9042), Compression.NONE);
+        pool = client.getPool();
+        flushes = new FlushCounter();
+    }
+
+    @Test
+    void testFirstHandshakeAsksForOptions() throws Exception
+    {
+        EmbeddedChannel channel = connect();
+
+        ByteBuf options = channel.readOutbound();
+        assertThat(options.getByte(0)).isEqualTo(LibraryInfo.PROTOCOL_VERSION);
+        assertThat(options.getByte(4)).isEqualTo(SocketCode.OPTIONS);
+        assertThat((Object) channel.readOutbound()).isNull();
+    }
+
+    @Test
+    void testPipelinedHandshakeSkipsOptions() throws Exception
+    {
+        pool.setHandshake(LibraryInfo.PROTOCOL_VERSION, false);
+        EmbeddedChannel channel = connect();
+
+        ByteBuf startup = channel.readOutbound();
+        assertThat(startup.getByte(0)).isEqualTo(LibraryInfo.PROTOCOL_VERSION);
+        assertThat(startup.getByte(4)).isEqualTo(SocketCode.STARTUP);
+        assertThat((Object) channel.readOutbound()).isNull();
+    }
+
+    @Test
+    void testPipelinedV4HandshakeSendsCredentialsWithStartup() throws Exception
+    {
+        pool.setHandshake(LibraryInfo.PROTOCOL_VERSION, true);
+        EmbeddedChannel channel = connect();
+
+        ByteBuf startup = channel.readOutbound();
+        ByteBuf credentials = channel.readOutbound();
+        assertThat(startup.getByte(4)).isEqualTo(SocketCode.STARTUP);
+        assertThat(credentials.getByte(0)).isEqualTo(LibraryInfo.PROTOCOL_VERSION);
+        assertThat(credentials.getByte(4)).isEqualTo(SocketCode.AUTH_RESPONSE);
+        assertThat(flushes.count).isEqualTo(1);
+
+        // The credentials are not sent again once the server asks for them
+        channel.writeInbound(Frame.newInstance(LibraryInfo.PROTOCOL_VERSION, (byte) 0, SocketClient.DEFAULT_STREAM_ID, SocketCode.AUTHENTICATE, 0, Unpooled.buffer()));
+        assertThat((Object) channel.readOutbound()).isNull();
+    }
+
+    @Test
+    void testPipelinedV5HandshakeWaitsForAuthenticate() throws Exception
+    {
+        pool.setHandshake(LibraryInfo.MAX_PROTOCOL_VERSION, true);
+        EmbeddedChannel channel = connect();
+        SocketConnection connection = channel.attr(SocketConnection.KEY).get();
+
+        // The server switches to segments after answering STARTUP, the credentials have to be framed as a segment
+        ByteBuf startup = channel.readOutbound();
+        assertThat(startup.getByte(0)).isEqualTo(LibraryInfo.MAX_PROTOCOL_VERSION);
+        assertThat(startup.getByte(4)).isEqualTo(SocketCode.STARTUP);
+        assertThat((Object) channel.readOutbound()).isNull();
+        assertThat(connection.isTokenSent()).isFalse();
+
+        channel.writeInbound(Frame.newInstance(LibraryInfo.MAX_PROTOCOL_VERSION, (byte) 0, SocketClient.DEFAULT_STREAM_ID, SocketCode.AUTHENTICATE, 0, Unpooled.buffer()));
+
+        assertThat(connection.isSegmented()).isTrue();
+        assertThat(connection.isTokenSent()).isTrue();
+        ByteBuf segment = channel.readOutbound();
+        assertThat(segment.getByte(SegmentEncoder.getHeaderLength(Compression.NONE) + 4)).isEqualTo(SocketCode.AUTH_RESPONSE);
+    }
+
+    @Test
+    void testRejectedHandshakeFallsBackToOptions() throws Exception
+    {
+        pool.setHandshake(LibraryInfo.MAX_PROTOCOL_VERSION, false);
+        EmbeddedChannel channel = connect();
+        channel.readOutbound();
+
+        // The node was downgraded since the last handshake and rejects the cached version
+        ByteBuf error = Unpooled.buffer().writeInt(0x000A).writeShort(0);
+        channel.writeInbound(Frame.newInstance(LibraryInfo.PROTOCOL_VERSION, (byte) 0, SocketClient.DEFAULT_STREAM_ID, SocketCode.ERROR, error.readableBytes(), error));
+
+        assertThat(channel.isOpen()).isFalse();
+        assertThat(pool.getHandshakeVersion()).isZero();
+        assertThat(pool.isAuthRequired()).isFalse();
+
+        // The next connection starts over with OPTIONS
+        EmbeddedChannel retry = connect();
+        ByteBuf options = retry.readOutbound();
+        assertThat(options.getByte(4)).isEqualTo(SocketCode.OPTIONS);
+    }
+
+    private EmbeddedChannel connect() throws Exception
+    {
+        EmbeddedChannel channel = new EmbeddedChannel(false, false);
+        channel.attr(ConnectionPool.KEY).set(pool);
+        channel.pipeline().addLast(flushes, new FrameDecoder(Compression.NONE), FrameEncoder.INSTANCE, client);
+        channel.register();
+        return channel;
+    }
+
+    private static class FlushCounter extends ChannelOutboundHandlerAdapter
+    {
+        private int count;
+
+        @Override
+        public boolean isSharable()
+        {
+            return true;
+        }
+
+        @Override
+        public void flush(ChannelHandlerContext context)
+        {
+            count++;
+            context.flush();
+        }
+    }
+}
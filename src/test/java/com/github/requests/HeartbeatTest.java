@@ -0,0 +1,128 @@
+package com.github.requests;
+
+import com.github.adamorgan.api.LibraryInfo;
+import com.github.adamorgan.api.utils.Compression;
+import com.github.adamorgan.internal.LibraryImpl;
+import com.github.adamorgan.internal.requests.*;
+import com.github.adamorgan.internal.utils.config.ConnectionConfig;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.timeout.IdleStateHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class HeartbeatTest
+{
+    private static final long IDLE_TIMEOUT = 20;
+
+    private LibraryImpl api;
+    private ConnectionConfig config;
+    private SocketClient client;
+
+    @BeforeEach
+    void setUp()
+    {
+        api = mock(LibraryImpl.class, RETURNS_DEEP_STUBS);
+        config = new ConnectionConfig();
+        when(api.getConnectionConfig()).thenReturn(config);
+        when(api.getVersion()).thenReturn(LibraryInfo.PROTOCOL_VERSION);
+
+        client = new SocketClient(api, InetSocketAddress.createUnresolved("localhost", 9042), Compression.NONE);
+    }
+
+    @Test
+    void testIdleConnectionSendsHeartbeat() throws Exception
+    {
+        config.setHeartbeatInterval(IDLE_TIMEOUT);
+        EmbeddedChannel channel = connect();
+        SocketConnection connection = channel.attr(SocketConnection.KEY).get();
+        connection.setReady(true);
+        channel.readOutbound();
+
+        // Nothing was written or read for longer than the heartbeat interval
+        Thread.sleep(IDLE_TIMEOUT * 3);
+        channel.runPendingTasks();
+
+        ByteBuf heartbeat = channel.readOutbound();
+        assertThat(heartbeat.getByte(4)).isEqualTo(SocketCode.OPTIONS);
+        assertThat(client.getHeartbeatRtt().getPercentile(50)).isEqualTo(-1);
+
+        channel.writeInbound(Frame.newInstance(LibraryInfo.PROTOCOL_VERSION, (byte) 0, SocketClient.DEFAULT_STREAM_ID, SocketCode.SUPPORTED, 0, Unpooled.buffer()));
+
+        // A single answered heartbeat is enough for a reading
+        assertThat(client.getHeartbeatRtt().getPercentile(50)).isNotNegative();
+        assertThat(connection.isStalled(TimeUnit.MILLISECONDS.toNanos(IDLE_TIMEOUT))).isFalse();
+        assertThat(channel.isOpen()).isTrue();
+    }
+
+    @Test
+    void testHeartbeatIsNotSentBeforeHandshake() throws Exception
+    {
+        config.setHeartbeatInterval(IDLE_TIMEOUT);
+        EmbeddedChannel channel = connect();
+        channel.readOutbound();
+
+        Thread.sleep(IDLE_TIMEOUT * 3);
+        channel.runPendingTasks();
+
+        assertThat((Object) channel.readOutbound()).isNull();
+    }
+
+    @Test
+    void testReadTimeoutFailsOverInFlightRequests() throws Exception
+    {
+        config.setReadTimeout(IDLE_TIMEOUT);
+        EmbeddedChannel channel = connect();
+        SocketConnection connection = channel.attr(SocketConnection.KEY).get();
+        connection.setReady(true);
+
+        Requester.WorkTask task = mock(Requester.WorkTask.class);
+        int stream = connection.registerStream(task);
+        assertThat(stream).isNotNegative();
+
+        // The request was sent, but the node stopped answering
+        Thread.sleep(IDLE_TIMEOUT * 3);
+        channel.runPendingTasks();
+
+        assertThat(channel.isOpen()).isFalse();
+        assertThat(connection.getInFlightCount()).isZero();
+        verify(api.getRequester()).failover(eq(task), any(), isA(SocketTimeoutException.class));
+    }
+
+    @Test
+    void testIdleConnectionWithoutRequestsStaysOpen() throws Exception
+    {
+        config.setReadTimeout(IDLE_TIMEOUT);
+        EmbeddedChannel channel = connect();
+        channel.attr(SocketConnection.KEY).get().setReady(true);
+
+        // Nothing is awaited, a quiet connection is not a stalled one
+        Thread.sleep(IDLE_TIMEOUT * 3);
+        channel.runPendingTasks();
+
+        assertThat(channel.isOpen()).isTrue();
+        verify(api.getRequester(), never()).failover(any(), any(), any());
+    }
+
+    private EmbeddedChannel connect() throws Exception
+    {
+        EmbeddedChannel channel = new EmbeddedChannel(false, false);
+        channel.attr(ConnectionPool.KEY).set(client.getPool());
+        channel.pipeline().addLast(
+            new IdleStateHandler(config.getReadTimeout(), 0, config.getHeartbeatInterval(), TimeUnit.MILLISECONDS),
+            new FrameDecoder(Compression.NONE),
+            FrameEncoder.INSTANCE,
+            client
+        );
+        channel.register();
+        return channel;
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.requests;
+
+import com.github.adamorgan.internal.LibraryImpl;
+import com.github.adamorgan.internal.requests.ConnectionPool;
+import com.github.adamorgan.internal.requests.Node;
+import com.github.adamorgan.internal.requests.NodeRegistry;
+import com.github.adamorgan.internal.requests.TokenRing;
+import com.github.adamorgan.internal.utils.EncodingUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class NodeRegistryTest
+{
+    private static final InetSocketAddress CONTACT = new InetSocketAddress("127.0.0.1", 9042);
+    private static final InetSocketAddress PEER_1 = new InetSocketAddress("127.0.0.2", 9042);
+    private static final InetSocketAddress PEER_2 = new InetSocketAddress("127.0.0.3", 9042);
+
+    private final Map<SocketAddress, ConnectionPool> pools = new HashMap<>();
+    private NodeRegistry registry;
+
+    @BeforeEach
+    void setup()
+    {
+        pools.clear();
+        registry = new NodeRegistry(mock(LibraryImpl.class, RETURNS_DEEP_STUBS), createPool(CONTACT), this::createPool);
+    }
+
+    @Test
+    void testPeersAreAddedAndRemoved()
+    {
+        registry.setPeers(Arrays.asList(PEER_1, PEER_2));
+
+        assertThat(registry.getNodes().size()).isEqualTo(3);
+        verify(pools.get(PEER_1)).fill();
+        verify(pools.get(PEER_2)).fill();
+
+        registry.setPeers(Collections.singletonList(PEER_2));
+
+        assertThat(registry.get(PEER_1)).isNull();
+        assertThat(registry.get(CONTACT)).isNotNull();
+        verify(pools.get(PEER_1)).close();
+        verify(pools.get(CONTACT), never()).close();
+    }
+
+    @Test
+    void testTopologyEvents()
+    {
+        registry.onEvent(event("TOPOLOGY_CHANGE", "NEW_NODE", PEER_1));
+        assertThat(registry.get(PEER_1)).isNotNull();
+
+        registry.onEvent(event("STATUS_CHANGE", "DOWN", PEER_1));
+        assertThat(registry.get(PEER_1)).isNotNull();
+
+        registry.onEvent(event("TOPOLOGY_CHANGE", "REMOVED_NODE", PEER_1));
+        assertThat(registry.get(PEER_1)).isNull();
+        verify(pools.get(PEER_1)).close();
+    }
+
+    @Test
+    void testTokenRingOwner()
+    {
+        Node first = new Node(PEER_1, createPool(PEER_1));
+        Node second = new Node(PEER_2, createPool(PEER_2));
+        first.setTokens(new HashSet<>(Arrays.asList(-100L, 100L)));
+        second.setTokens(Collections.singleton(0L));
+
+        TokenRing ring = TokenRing.of(Arrays.asList(first, second));
+
+        assertThat(ring.size()).isEqualTo(3);
+        assertThat(ring.getOwner(-100)).isSameAs(first);
+        assertThat(ring.getOwner(-99)).isSameAs(second);
+        assertThat(ring.getOwner(0)).isSameAs(second);
+        assertThat(ring.getOwner(50)).isSameAs(first);
+        // Tokens after the largest one wrap around to the smallest
+        assertThat(ring.getOwner(101)).isSameAs(first);
+    }
+
+    private ConnectionPool createPool(SocketAddress address)
+    {
+        ConnectionPool pool = mock(ConnectionPool.class);
+        when(pool.getAddress()).thenReturn(address);
+        pools.put(address, pool);
+        return pool;
+    }
+
+    private static ByteBuf event(String type, String change, InetSocketAddress address)
+    {
+        ByteBuf body = Unpooled.buffer();
+        EncodingUtils.packUTF84(body, type);
+        EncodingUtils.packUTF84(body, change);
+        byte[] raw = address.getAddress().getAddress();
+        return body.writeByte(raw.length).writeBytes(raw).writeInt(address.getPort());
+    }
+}
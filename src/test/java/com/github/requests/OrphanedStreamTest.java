@@ -0,0 +1,191 @@
+package com.github.requests;
+
+import com.github.adamorgan.api.requests.Request;
+import com.github.adamorgan.api.requests.Response;
+import com.github.adamorgan.api.utils.RequestPriority;
+import com.github.adamorgan.api.utils.request.ObjectData;
+import com.github.adamorgan.internal.LibraryImpl;
+import com.github.adamorgan.internal.requests.ConnectionPool;
+import com.github.adamorgan.internal.requests.Frame;
+import com.github.adamorgan.internal.requests.Requester;
+import com.github.adamorgan.internal.requests.SocketConnection;
+import com.github.adamorgan.internal.requests.action.ObjectActionImpl;
+import com.github.adamorgan.internal.utils.config.ConnectionConfig;
+import com.github.adamorgan.internal.utils.config.ThreadingConfig;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class OrphanedStreamTest
+{
+    private ThreadingConfig threading;
+
+    @BeforeEach
+    void setUp()
+    {
+        threading = new ThreadingConfig();
+        threading.setTimer(new HashedWheelTimer(ThreadingConfig.TIMER_TICK, TimeUnit.MILLISECONDS), true);
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        threading.getTimer().stop();
+    }
+
+    @Test
+    void testOrphanedStreamStaysAllocatedUntilResponse()
+    {
+        SocketConnection connection = new SocketConnection(createPool(), mock(ChannelHandlerContext.class), 128);
+        Requester.WorkTask task = mock(Requester.WorkTask.class);
+
+        int stream = connection.registerStream(task);
+        assertThat(connection.orphan(stream, task)).isTrue();
+        assertThat(connection.isOrphaned(stream)).isTrue();
+        assertThat(connection.getOrphanedCount()).isEqualTo(1);
+        assertThat(connection.getInFlightCount()).isEqualTo(1);
+
+        // The late response frees the stream id again
+        assertThat(connection.releaseStream(stream)).isSameAs(task);
+        assertThat(connection.isOrphaned(stream)).isFalse();
+        assertThat(connection.getInFlightCount()).isZero();
+    }
+
+    @Test
+    void testOnlyOrphanStreamOfSameTask()
+    {
+        SocketConnection connection = new SocketConnection(createPool(), mock(ChannelHandlerContext.class), 128);
+        Requester.WorkTask task = mock(Requester.WorkTask.class);
+
+        int stream = connection.registerStream(task);
+        connection.releaseStream(stream);
+        int reused = connection.registerStream(mock(Requester.WorkTask.class));
+
+        assertThat(connection.orphan(reused, task)).isFalse();
+        assertThat(connection.getOrphanedCount()).isZero();
+    }
+
+    @Test
+    void testOrphanThreshold()
+    {
+        SocketConnection connection = new SocketConnection(createPool(), mock(ChannelHandlerContext.class), 8);
+        Requester.WorkTask task = mock(Requester.WorkTask.class);
+
+        connection.orphan(connection.registerStream(task), task);
+        assertThat(connection.hasTooManyOrphans()).isFalse();
+
+        connection.orphan(connection.registerStream(task), task);
+        assertThat(connection.hasTooManyOrphans()).isTrue();
+    }
+
+    @Test
+    void testSilentConnectionIsClosedOnceTooManyStreamsAreOrphaned() throws Exception
+    {
+        // A single orphaned stream already reaches the threshold of this connection
+        SocketConnection connection = createConnection(4);
+        Requester requester = createRequester(connection);
+
+        CompletableFuture<Throwable> failure = new CompletableFuture<>();
+        requester.request(createRequest(requester, 100, failure));
+
+        assertThat(failure.get(5, TimeUnit.SECONDS)).isInstanceOf(TimeoutException.class);
+        verify(connection.getChannel(), timeout(5000)).close();
+    }
+
+    @Test
+    void testDeadlineFailsRequestOfSilentConnection() throws Exception
+    {
+        SocketConnection connection = createConnection(128);
+        Requester requester = createRequester(connection);
+
+        CompletableFuture<Throwable> failure = new CompletableFuture<>();
+        long start = System.nanoTime();
+        requester.request(createRequest(requester, 200, failure));
+
+        ArgumentCaptor<Frame> frame = ArgumentCaptor.forClass(Frame.class);
+        verify(connection.getContext()).writeAndFlush(frame.capture());
+        int stream = frame.getValue().getStream();
+
+        // The timer fails the request on schedule, although the connection never answers
+        assertThat(failure.get(5, TimeUnit.SECONDS)).isInstanceOf(TimeoutException.class);
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(2));
+
+        // The stream id cannot be reused until the late response arrives, the timer marks it after the callback ran
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!connection.isOrphaned(stream) && System.nanoTime() < deadline)
+            Thread.sleep(10);
+        assertThat(connection.isOrphaned(stream)).isTrue();
+        assertThat(connection.getInFlightCount()).isEqualTo(1);
+        verify(connection.getChannel(), never()).close();
+
+        requester.handleResponse(connection, (byte) 0, stream, (byte) 0x08, 0, null, Unpooled.buffer());
+        assertThat(connection.isOrphaned(stream)).isFalse();
+        assertThat(connection.getInFlightCount()).isZero();
+        assertThat(failure.getNow(null)).isInstanceOf(TimeoutException.class);
+    }
+
+    static SocketConnection createConnection(int maxRequests)
+    {
+        ChannelHandlerContext context = mock(ChannelHandlerContext.class, RETURNS_DEEP_STUBS);
+        when(context.executor()).thenReturn(ImmediateEventExecutor.INSTANCE);
+        when(context.channel().isActive()).thenReturn(true);
+        when(context.channel().isWritable()).thenReturn(true);
+
+        SocketConnection connection = new SocketConnection(createPool(), context, maxRequests);
+        connection.setReady(true);
+        return connection;
+    }
+
+    Requester createRequester(SocketConnection connection)
+    {
+        LibraryImpl api = mock(LibraryImpl.class, RETURNS_DEEP_STUBS);
+        when(api.getConnectionConfig()).thenReturn(new ConnectionConfig());
+        when(api.getTimer()).thenReturn(threading.getTimer());
+        when(api.getClient().getNodes().next(any())).thenReturn(connection);
+        // Timer tasks are handed to the callback pool, run them on the timer thread instead
+        doAnswer(invocation ->
+        {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(api.getCallbackPool()).execute(any(Runnable.class));
+        return new Requester(api);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Request<Response> createRequest(Requester requester, long timeout, CompletableFuture<Throwable> failure)
+    {
+        ObjectActionImpl<Response> action = mock(ObjectActionImpl.class);
+        when(action.getLibrary()).thenReturn(requester.getLibrary());
+        when(action.getCallbackExecutor()).thenReturn(Runnable::run);
+        when(action.getPriority()).thenReturn(RequestPriority.NORMAL);
+
+        ObjectData body = mock(ObjectData.class);
+        when(body.getBody()).thenReturn(Unpooled.copiedBuffer("SELECT * FROM system.local", StandardCharsets.UTF_8));
+
+        long deadline = System.currentTimeMillis() + timeout;
+        return new Request<>(action, body, response -> failure.complete(null), failure::complete, deadline);
+    }
+
+    static ConnectionPool createPool()
+    {
+        ConnectionPool pool = mock(ConnectionPool.class, RETURNS_DEEP_STUBS);
+        when(pool.reserveRequest()).thenReturn(true);
+        when(pool.hasCapacity()).thenReturn(true);
+        return pool;
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.requests;
+
+import com.github.adamorgan.internal.requests.RateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimiterTest
+{
+    @Test
+    void testRequestsAboveRateAreDelayed()
+    {
+        RateLimiter limiter = new RateLimiter("batch", 10, 2);
+
+        assertThat(limiter.acquire()).isZero();
+        assertThat(limiter.acquire()).isZero();
+        // The next requests wait up to 100ms longer each
+        long first = limiter.acquire();
+        long second = limiter.acquire();
+        assertThat(first).isPositive().isLessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(second).isGreaterThan(first).isLessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+
+        assertThat(limiter.getDelayedCount()).isEqualTo(2);
+        assertThat(limiter.getWaitingCount()).isEqualTo(2);
+        assertThat(limiter.getMaxWaitTime(TimeUnit.NANOSECONDS)).isEqualTo(second);
+        assertThat(limiter.getAverageWaitTime(TimeUnit.NANOSECONDS)).isEqualTo((first + second) / 2);
+
+        limiter.release();
+        limiter.release();
+        assertThat(limiter.getWaitingCount()).isZero();
+    }
+
+    @Test
+    void testRequestsWithinRateAreNotDelayed()
+    {
+        RateLimiter limiter = new RateLimiter("batch", 1000, 1000);
+        assertThat(limiter.getCurrentRate()).isZero();
+
+        for (int i = 0; i < 10; i++)
+            limiter.acquire();
+
+        assertThat(limiter.getDelayedCount()).isZero();
+        assertThat(limiter.getAverageWaitTime(TimeUnit.MILLISECONDS)).isZero();
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.requests;
+
+import com.github.adamorgan.api.utils.RequestPriority;
+import com.github.adamorgan.internal.requests.RequestQueue;
+import com.github.adamorgan.internal.requests.Requester;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RequestQueueTest
+{
+    @Test
+    void testLanesAreDrainedByWeight()
+    {
+        RequestQueue queue = new RequestQueue();
+        int total = 0;
+        for (RequestPriority priority : RequestPriority.values())
+            total += priority.getWeight();
+
+        // Enough requests in every lane to last for ten full cycles
+        for (RequestPriority priority : RequestPriority.values())
+        {
+            for (int i = 0; i < total * 10; i++)
+                queue.addLast(createTask(priority));
+        }
+
+        Map<RequestPriority, Integer> taken = new EnumMap<>(RequestPriority.class);
+        for (int i = 0; i < total * 10; i++)
+            taken.merge(queue.pollFirst().getPriority(), 1, Integer::sum);
+
+        for (RequestPriority priority : RequestPriority.values())
+            assertThat(taken.get(priority)).isEqualTo(priority.getWeight() * 10);
+    }
+
+    @Test
+    void testEmptyLanePassesItsTurn()
+    {
+        RequestQueue queue = new RequestQueue();
+        queue.addLast(createTask(RequestPriority.BACKGROUND));
+
+        assertThat(queue.hasWaiting(RequestPriority.CRITICAL)).isFalse();
+        assertThat(queue.hasWaiting(RequestPriority.BACKGROUND)).isTrue();
+        assertThat(queue.pollFirst()).isNotNull();
+        assertThat(queue.isEmpty()).isTrue();
+    }
+
+    @Test
+    void testDropLowestPriorityFirst()
+    {
+        RequestQueue queue = new RequestQueue();
+        queue.addLast(createTask(RequestPriority.CRITICAL));
+        queue.addLast(createTask(RequestPriority.BACKGROUND));
+        queue.addLast(createTask(RequestPriority.NORMAL));
+
+        assertThat(queue.pollDroppable().getPriority()).isEqualTo(RequestPriority.BACKGROUND);
+        assertThat(queue.pollDroppable().getPriority()).isEqualTo(RequestPriority.NORMAL);
+        assertThat(queue.size(RequestPriority.CRITICAL)).isEqualTo(1);
+    }
+
+    private static Requester.WorkTask createTask(RequestPriority priority)
+    {
+        Requester.WorkTask task = mock(Requester.WorkTask.class);
+        when(task.getPriority()).thenReturn(priority);
+        return task;
+    }
+}
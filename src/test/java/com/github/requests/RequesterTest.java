@@ -0,0 +1,379 @@
+package com.github.requests;
+
+import com.github.adamorgan.api.LibraryInfo;
+import com.github.adamorgan.api.requests.Request;
+import com.github.adamorgan.api.requests.Response;
+import com.github.adamorgan.api.utils.AdmissionPolicy;
+import com.github.adamorgan.api.utils.CallbackExecutor;
+import com.github.adamorgan.api.utils.Compression;
+import com.github.adamorgan.api.utils.RequestPriority;
+import com.github.adamorgan.api.utils.SpeculativeExecutionPolicy;
+import com.github.adamorgan.api.utils.request.ObjectData;
+import com.github.adamorgan.internal.LibraryImpl;
+import com.github.adamorgan.internal.requests.ConnectionPool;
+import com.github.adamorgan.internal.requests.Frame;
+import com.github.adamorgan.internal.requests.Requester;
+import com.github.adamorgan.internal.requests.SocketConnection;
+import com.github.adamorgan.internal.requests.action.ObjectActionImpl;
+import com.github.adamorgan.internal.requests.action.ObjectCreateActionImpl;
+import com.github.adamorgan.internal.utils.config.ConnectionConfig;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.*;
+
+public class RequesterTest
+{
+    @Test
+    void testRejectWhenQueueIsFull()
+    {
+        Requester requester = createRequester(AdmissionPolicy.REJECT);
+        Request<?> first = createRequest();
+        Request<?> second = createRequest();
+
+        requester.enqueue(requester.new WorkTask(first));
+        requester.enqueue(requester.new WorkTask(second));
+
+        verify(first, never()).onFailure(any());
+        verify(second).onFailure(isA(RejectedExecutionException.class));
+    }
+
+    @Test
+    void testDropOldestWhenQueueIsFull()
+    {
+        Requester requester = createRequester(AdmissionPolicy.DROP_OLDEST);
+        Request<?> first = createRequest();
+        Request<?> second = createRequest();
+
+        requester.enqueue(requester.new WorkTask(first));
+        requester.enqueue(requester.new WorkTask(second));
+
+        verify(first).onFailure(isA(RejectedExecutionException.class));
+        verify(second, never()).onFailure(any());
+    }
+
+    @Test
+    void testCoalesceIdenticalIdempotentRequests()
+    {
+        Requester requester = createRequester(AdmissionPolicy.REJECT, true);
+        Request<?> first = createIdempotentRequest("SELECT * FROM system.local");
+        Request<?> second = createIdempotentRequest("SELECT * FROM system.local");
+
+        requester.request(first);
+        requester.request(second);
+
+        // The second request joined the first one instead of taking the only queue slot
+        verify(first, never()).onFailure(any());
+        verify(second, never()).onFailure(any());
+    }
+
+    @Test
+    void testDifferentRequestsAreNotCoalesced()
+    {
+        Requester requester = createRequester(AdmissionPolicy.REJECT, true);
+        Request<?> first = createIdempotentRequest("SELECT * FROM system.local");
+        Request<?> second = createIdempotentRequest("SELECT * FROM system.peers");
+
+        requester.request(first);
+        requester.request(second);
+
+        verify(first, never()).onFailure(any());
+        verify(second).onFailure(isA(RejectedExecutionException.class));
+    }
+
+    @Test
+    void testBoundStatementsWithDifferentValuesAreNotCoalesced()
+    {
+        Requester requester = createRequester(AdmissionPolicy.REJECT, true);
+        Request<?> first = createIdempotentRequest("SELECT * FROM system.peers WHERE peer = ?", Unpooled.buffer().writeInt(4).writeInt(1));
+        Request<?> second = createIdempotentRequest("SELECT * FROM system.peers WHERE peer = ?", Unpooled.buffer().writeInt(4).writeInt(2));
+
+        requester.request(first);
+        requester.request(second);
+
+        verify(first, never()).onFailure(any());
+        verify(second).onFailure(isA(RejectedExecutionException.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testCoalescedResponseOutlivesRequester() throws InterruptedException
+    {
+        Requester requester = createRequester(AdmissionPolicy.REJECT, true);
+        Request<?> leader = createIdempotentRequest("SELECT * FROM system.local");
+        requester.request(leader);
+
+        CallbackExecutor executor = CallbackExecutor.bounded(1, 2);
+        CountDownLatch released = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        AtomicReference<String> content = new AtomicReference<>();
+        try
+        {
+            ObjectActionImpl<Response> action = mock(ObjectActionImpl.class);
+            when(action.getLibrary()).thenReturn(requester.getLibrary());
+            when(action.getCallbackExecutor()).thenReturn(executor);
+            when(action.getPriority()).thenReturn(RequestPriority.NORMAL);
+            when(action.isIdempotent()).thenReturn(true);
+            doAnswer(invocation ->
+            {
+                Request<Response> request = invocation.getArgument(0);
+                request.onSuccess(invocation.getArgument(1));
+                return null;
+            }).when(action).handleResponse(any(), any());
+
+            Request<Response> follower = new Request<>(action, leader.getBody(), response ->
+            {
+                try
+                {
+                    released.await();
+                }
+                catch (InterruptedException ignored) {}
+                content.set(response.getBody().toString(StandardCharsets.UTF_8));
+                finished.countDown();
+            }, failure -> {}, 0);
+            requester.request(follower);
+
+            SocketConnection connection = mock(SocketConnection.class, RETURNS_DEEP_STUBS);
+            when(requester.getLibrary().getClient().getNodes().next(any())).thenReturn(connection);
+            requester.drain();
+
+            ArgumentCaptor<Requester.WorkTask> task = ArgumentCaptor.forClass(Requester.WorkTask.class);
+            verify(connection).registerStream(task.capture());
+
+            ByteBuf body = Unpooled.buffer().writeInt(Response.Type.VOID.getOffset()).writeBytes("payload".getBytes(StandardCharsets.UTF_8));
+            task.getValue().handleResponse(mock(ChannelHandlerContext.class), 0, null, body.duplicate());
+            // The requester releases the response once it is handled, before the callback of the follower ran
+            body.release();
+            released.countDown();
+
+            // Runs after the callback on the single thread of the executor
+            CountDownLatch idle = new CountDownLatch(1);
+            executor.execute(idle::countDown);
+
+            assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(idle.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(content.get()).isEqualTo("payload");
+            assertThat(body.refCnt()).isZero();
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testExpiredRequestFailsOnce()
+    {
+        Requester requester = createRequester(AdmissionPolicy.REJECT);
+        ObjectActionImpl<Response> action = mock(ObjectActionImpl.class);
+        when(action.getLibrary()).thenReturn(requester.getLibrary());
+        when(action.getCallbackExecutor()).thenReturn(Runnable::run);
+        when(action.getPriority()).thenReturn(RequestPriority.NORMAL);
+
+        AtomicInteger failures = new AtomicInteger();
+        Request<Response> request = new Request<>(action, mock(ObjectData.class), response -> {}, failure -> failures.incrementAndGet(), 1);
+        Requester.WorkTask task = requester.new WorkTask(request);
+
+        // Drains, the deadline and admission all try to complete the same task
+        assertThat(task.isSkipped()).isTrue();
+        assertThat(task.isSkipped()).isTrue();
+        task.reject();
+
+        assertThat(task.isDone()).isTrue();
+        assertThat(failures.get()).isEqualTo(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testRequestsAreEncodedForTheVersionOfTheirConnection()
+    {
+        LibraryImpl api = mock(LibraryImpl.class, RETURNS_DEEP_STUBS);
+        when(api.getConnectionConfig()).thenReturn(new ConnectionConfig());
+        // The control connection negotiated protocol v5, so actions are built for v5
+        when(api.getVersion()).thenReturn(LibraryInfo.MAX_PROTOCOL_VERSION);
+        when(api.getCompression()).thenReturn(Compression.LZ4);
+        Requester requester = new Requester(api);
+
+        SocketConnection control = createConnection(LibraryInfo.MAX_PROTOCOL_VERSION);
+        SocketConnection peer = createConnection(LibraryInfo.PROTOCOL_VERSION);
+
+        ObjectCreateActionImpl action = new ObjectCreateActionImpl(api);
+        action.setContent("SELECT * FROM system.local");
+
+        when(api.getClient().getNodes().next(any())).thenReturn(peer);
+        requester.request(new Request<>(action, action.finalizeData(), response -> {}, failure -> {}, 0));
+        when(api.getClient().getNodes().next(any())).thenReturn(control);
+        requester.request(new Request<>(action, action.finalizeData(), response -> {}, failure -> {}, 0));
+
+        ArgumentCaptor<Frame> v4 = ArgumentCaptor.forClass(Frame.class);
+        verify(peer.getContext()).writeAndFlush(v4.capture());
+        ArgumentCaptor<Frame> v5 = ArgumentCaptor.forClass(Frame.class);
+        verify(control.getContext()).writeAndFlush(v5.capture());
+
+        // Protocol v4 compresses every frame, protocol v5 compresses the segments around them instead
+        assertThat(v4.getValue().getVersion()).isEqualTo(LibraryInfo.PROTOCOL_VERSION);
+        assertThat(v4.getValue().getFlags() & 0x01).isEqualTo(0x01);
+        assertThat(v5.getValue().getVersion()).isEqualTo(LibraryInfo.MAX_PROTOCOL_VERSION);
+        assertThat(v5.getValue().getFlags() & 0x01).isZero();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testSlowIdempotentRequestIsExecutedSpeculatively()
+    {
+        ConnectionConfig config = new ConnectionConfig();
+        config.setSpeculativeExecutionPolicy(SpeculativeExecutionPolicy.constant(10, TimeUnit.MILLISECONDS, 1));
+        LibraryImpl api = mock(LibraryImpl.class, RETURNS_DEEP_STUBS);
+        when(api.getConnectionConfig()).thenReturn(config);
+        Requester requester = new Requester(api);
+
+        // Submissions are drained inline, the speculative execution is started by the test
+        EventExecutor executor = mock(EventExecutor.class);
+        doAnswer(invocation ->
+        {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+        ArgumentCaptor<Runnable> speculation = ArgumentCaptor.forClass(Runnable.class);
+
+        SocketConnection slow = createConnection(LibraryInfo.PROTOCOL_VERSION);
+        SocketConnection fast = createConnection(LibraryInfo.PROTOCOL_VERSION);
+        when(slow.getContext().executor()).thenReturn(executor);
+        when(fast.getContext().executor()).thenReturn(executor);
+        when(api.getClient().getNodes().next(any())).thenReturn(slow);
+        when(api.getClient().getNodes().nextExcluding(any())).thenReturn(fast);
+
+        ObjectActionImpl<Response> action = mock(ObjectActionImpl.class);
+        when(action.getLibrary()).thenReturn(api);
+        when(action.getCallbackExecutor()).thenReturn(Runnable::run);
+        when(action.getPriority()).thenReturn(RequestPriority.NORMAL);
+        when(action.isIdempotent()).thenReturn(true);
+        doAnswer(invocation ->
+        {
+            Request<Response> request = invocation.getArgument(0);
+            request.onSuccess(invocation.getArgument(1));
+            return null;
+        }).when(action).handleResponse(any(), any());
+
+        ObjectData body = mock(ObjectData.class);
+        when(body.getVersion()).thenReturn(LibraryInfo.PROTOCOL_VERSION);
+        when(body.getBody()).thenReturn(Unpooled.copiedBuffer("SELECT * FROM system.local", StandardCharsets.UTF_8));
+
+        AtomicReference<String> winner = new AtomicReference<>();
+        AtomicInteger completions = new AtomicInteger();
+        requester.request(new Request<>(action, body, response ->
+        {
+            winner.set(response.getBody().toString(StandardCharsets.UTF_8));
+            completions.incrementAndGet();
+        }, failure -> completions.incrementAndGet(), 0));
+
+        // The first execution does not answer within the delay, the request is sent again on another connection
+        verify(executor).schedule(speculation.capture(), eq(10L), eq(TimeUnit.MILLISECONDS));
+        speculation.getValue().run();
+
+        ArgumentCaptor<Frame> first = ArgumentCaptor.forClass(Frame.class);
+        verify(slow.getContext()).writeAndFlush(first.capture());
+        ArgumentCaptor<Frame> second = ArgumentCaptor.forClass(Frame.class);
+        verify(fast.getContext()).writeAndFlush(second.capture());
+        assertThat(slow.getInFlightCount()).isEqualTo(1);
+        assertThat(fast.getInFlightCount()).isEqualTo(1);
+
+        // The first response completes the request
+        requester.handleResponse(fast, (byte) 0, second.getValue().getStream(), (byte) 0x08, 8, null, createVoidResponse("fast"));
+        assertThat(completions.get()).isEqualTo(1);
+        assertThat(winner.get()).isEqualTo("fast");
+        assertThat(fast.getInFlightCount()).isZero();
+        // The losing execution keeps its stream until its own response arrives
+        assertThat(slow.getInFlightCount()).isEqualTo(1);
+
+        requester.handleResponse(slow, (byte) 0, first.getValue().getStream(), (byte) 0x08, 8, null, createVoidResponse("slow"));
+        assertThat(completions.get()).isEqualTo(1);
+        assertThat(winner.get()).isEqualTo("fast");
+        assertThat(slow.getInFlightCount()).isZero();
+    }
+
+    private static ByteBuf createVoidResponse(String content)
+    {
+        return Unpooled.buffer().writeInt(Response.Type.VOID.getOffset()).writeBytes(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static SocketConnection createConnection(byte version)
+    {
+        ChannelHandlerContext context = mock(ChannelHandlerContext.class, RETURNS_DEEP_STUBS);
+        when(context.executor()).thenReturn(ImmediateEventExecutor.INSTANCE);
+        when(context.channel().isActive()).thenReturn(true);
+        when(context.channel().isWritable()).thenReturn(true);
+
+        ConnectionPool pool = mock(ConnectionPool.class, RETURNS_DEEP_STUBS);
+        when(pool.reserveRequest()).thenReturn(true);
+        when(pool.hasCapacity()).thenReturn(true);
+
+        SocketConnection connection = new SocketConnection(pool, context, 128);
+        connection.setVersion(version);
+        connection.setReady(true);
+        return connection;
+    }
+
+    private static Requester createRequester(AdmissionPolicy policy)
+    {
+        return createRequester(policy, false);
+    }
+
+    private static Requester createRequester(AdmissionPolicy policy, boolean coalescing)
+    {
+        ConnectionConfig config = new ConnectionConfig();
+        config.setMaxQueueSize(1);
+        config.setAdmissionPolicy(policy, 0);
+        config.setRequestCoalescing(coalescing);
+
+        LibraryImpl api = mock(LibraryImpl.class, RETURNS_DEEP_STUBS);
+        when(api.getConnectionConfig()).thenReturn(config);
+        // No connection is available, every request stays in the queue
+        when(api.getClient().getNodes().next(any())).thenReturn(null);
+        return new Requester(api);
+    }
+
+    private static Request<?> createRequest()
+    {
+        Request<?> request = mock(Request.class);
+        when(request.getBody()).thenReturn(mock(ObjectData.class));
+        when(request.getPriority()).thenReturn(RequestPriority.NORMAL);
+        return request;
+    }
+
+    private static Request<?> createIdempotentRequest(String query)
+    {
+        return createIdempotentRequest(query, Unpooled.EMPTY_BUFFER);
+    }
+
+    private static Request<?> createIdempotentRequest(String query, ByteBuf values)
+    {
+        ObjectData body = mock(ObjectData.class);
+        when(body.getBody()).thenReturn(Unpooled.copiedBuffer(query, StandardCharsets.UTF_8));
+        when(body.getValues()).thenReturn(values);
+
+        Request<?> request = mock(Request.class, RETURNS_DEEP_STUBS);
+        when(request.shouldQueue()).thenReturn(true);
+        when(request.getObjectAction().isIdempotent()).thenReturn(true);
+        when(request.getBody()).thenReturn(body);
+        when(request.getPriority()).thenReturn(RequestPriority.NORMAL);
+        return request;
+    }
+}
@@ -0,0 +1,161 @@
+package com.github.requests;
+
+import com.github.adamorgan.api.utils.Compression;
+import com.github.adamorgan.internal.requests.SegmentDecoder;
+import com.github.adamorgan.internal.requests.SegmentEncoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.CorruptedFrameException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SegmentCodecTest
+{
+    @Test
+    void testSmallFramesShareSegment()
+    {
+        EmbeddedChannel encoder = new EmbeddedChannel(new SegmentEncoder(Compression.NONE));
+        encoder.write(Unpooled.wrappedBuffer(new byte[] { 1, 2, 3 }));
+        encoder.write(Unpooled.wrappedBuffer(new byte[] { 4, 5 }));
+        encoder.flush();
+
+        ByteBuf segment = encoder.readOutbound();
+        assertThat((Object) encoder.readOutbound()).isNull();
+
+        ByteBuf payload = decode(segment);
+        assertThat(payload.readableBytes()).isEqualTo(5);
+        assertThat(payload.getByte(3)).isEqualTo((byte) 4);
+        payload.release();
+    }
+
+    @Test
+    void testLargeFrameIsSplit()
+    {
+        byte[] content = new byte[SegmentEncoder.MAX_PAYLOAD_LENGTH * 2 + 10];
+        ThreadLocalRandom.current().nextBytes(content);
+
+        EmbeddedChannel encoder = new EmbeddedChannel(new SegmentEncoder(Compression.NONE));
+        encoder.writeAndFlush(Unpooled.wrappedBuffer(content));
+
+        EmbeddedChannel decoder = new EmbeddedChannel(new SegmentDecoder(Compression.NONE));
+        int segments = 0;
+        for (ByteBuf segment = encoder.readOutbound(); segment != null; segment = encoder.readOutbound(), segments++)
+            decoder.writeInbound(segment);
+
+        assertThat(segments).isEqualTo(3);
+
+        ByteBuf received = Unpooled.buffer();
+        for (ByteBuf payload = decoder.readInbound(); payload != null; payload = decoder.readInbound())
+        {
+            received.writeBytes(payload);
+            payload.release();
+        }
+        assertThat(received.array()).startsWith(content);
+        assertThat(received.readableBytes()).isEqualTo(content.length);
+    }
+
+    @Test
+    void testCorruptedPayload()
+    {
+        EmbeddedChannel encoder = new EmbeddedChannel(new SegmentEncoder(Compression.NONE));
+        encoder.writeAndFlush(Unpooled.wrappedBuffer(new byte[] { 1, 2, 3 }));
+
+        ByteBuf segment = Unpooled.copiedBuffer((ByteBuf) encoder.readOutbound());
+        segment.setByte(6, 42);
+
+        EmbeddedChannel decoder = new EmbeddedChannel(new SegmentDecoder(Compression.NONE));
+        assertThatThrownBy(() -> decoder.writeInbound(segment)).isInstanceOf(CorruptedFrameException.class);
+    }
+
+    @Test
+    void testCompressiblePayload()
+    {
+        byte[] content = new byte[4096];
+        for (int i = 0; i < content.length; i++)
+            content[i] = (byte) (i % 16);
+
+        EmbeddedChannel encoder = new EmbeddedChannel(new SegmentEncoder(Compression.LZ4));
+        encoder.writeAndFlush(Unpooled.wrappedBuffer(content));
+
+        ByteBuf segment = encoder.readOutbound();
+        // The uncompressed length is only set for compressed payloads
+        assertThat(getUncompressedLength(segment)).isEqualTo(content.length);
+        assertThat(segment.readableBytes()).isLessThan(content.length);
+
+        ByteBuf payload = decode(segment, Compression.LZ4);
+        assertThat(ByteBufUtil.getBytes(payload)).isEqualTo(content);
+        payload.release();
+    }
+
+    @Test
+    void testIncompressiblePayloadIsStoredRaw()
+    {
+        byte[] content = new byte[1024];
+        ThreadLocalRandom.current().nextBytes(content);
+
+        EmbeddedChannel encoder = new EmbeddedChannel(new SegmentEncoder(Compression.LZ4));
+        encoder.writeAndFlush(Unpooled.wrappedBuffer(content));
+
+        ByteBuf segment = encoder.readOutbound();
+        assertThat(getUncompressedLength(segment)).isZero();
+        assertThat(segment.readableBytes()).isEqualTo(SegmentEncoder.getHeaderLength(Compression.LZ4) + content.length + 4);
+
+        ByteBuf payload = decode(segment, Compression.LZ4);
+        assertThat(ByteBufUtil.getBytes(payload)).isEqualTo(content);
+        payload.release();
+    }
+
+    @Test
+    void testCompressedLargeFrameIsSplit()
+    {
+        // The last segment is large enough to be compressed as well
+        byte[] content = new byte[SegmentEncoder.MAX_PAYLOAD_LENGTH * 2 + 4096];
+        for (int i = 0; i < content.length; i++)
+            content[i] = (byte) (i % 64);
+
+        EmbeddedChannel encoder = new EmbeddedChannel(new SegmentEncoder(Compression.LZ4));
+        encoder.writeAndFlush(Unpooled.wrappedBuffer(content));
+
+        EmbeddedChannel decoder = new EmbeddedChannel(new SegmentDecoder(Compression.LZ4));
+        int segments = 0;
+        for (ByteBuf segment = encoder.readOutbound(); segment != null; segment = encoder.readOutbound(), segments++)
+        {
+            assertThat(getUncompressedLength(segment)).isPositive();
+            decoder.writeInbound(segment);
+        }
+
+        assertThat(segments).isEqualTo(3);
+
+        ByteBuf received = Unpooled.buffer();
+        for (ByteBuf payload = decoder.readInbound(); payload != null; payload = decoder.readInbound())
+        {
+            received.writeBytes(payload);
+            payload.release();
+        }
+        assertThat(ByteBufUtil.getBytes(received)).isEqualTo(content);
+    }
+
+    private static int getUncompressedLength(ByteBuf segment)
+    {
+        long header = segment.getUnsignedIntLE(segment.readerIndex()) | ((long) segment.getUnsignedByte(segment.readerIndex() + 4) << 32);
+        return (int) ((header >> 17) & SegmentEncoder.MAX_PAYLOAD_LENGTH);
+    }
+
+    private static ByteBuf decode(ByteBuf segment)
+    {
+        return decode(segment, Compression.NONE);
+    }
+
+    private static ByteBuf decode(ByteBuf segment, Compression compression)
+    {
+        EmbeddedChannel decoder = new EmbeddedChannel(new SegmentDecoder(compression));
+        decoder.writeInbound(segment);
+        return decoder.readInbound();
+    }
+}
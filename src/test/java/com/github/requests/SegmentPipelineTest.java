@@ -0,0 +1,67 @@
+package com.github.requests;
+
+import com.github.adamorgan.api.utils.Compression;
+import com.github.adamorgan.api.utils.SslUtil;
+import com.github.adamorgan.internal.requests.*;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.timeout.IdleStateHandler;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SegmentPipelineTest
+{
+    @Test
+    void testSegmentCodecBehindTls() throws Exception
+    {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        ChannelPipeline pipeline = channel.pipeline();
+        // The handlers of SocketClient#initPipeline with TLS and flush coalescing
+        pipeline.addLast(SslUtil.forClient().build().newHandler(channel.alloc()));
+        pipeline.addLast(new IdleStateHandler(0, 0, 30));
+        pipeline.addLast(new FlushCoalescingHandler(100, 1 << 16));
+        pipeline.addLast(new FrameDecoder(Compression.NONE));
+        pipeline.addLast(FrameEncoder.INSTANCE);
+
+        SocketClient.addSegmentCodec(pipeline, Compression.NONE);
+
+        assertThat(handlerTypes(pipeline)).containsExactly(
+                SslHandler.class,
+                IdleStateHandler.class,
+                SegmentDecoder.class,
+                SegmentEncoder.class,
+                FlushCoalescingHandler.class,
+                FrameDecoder.class
+        );
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void testSegmentCodecWithoutFlushCoalescing()
+    {
+        EmbeddedChannel channel = new EmbeddedChannel(new FrameDecoder(Compression.NONE), FrameEncoder.INSTANCE);
+
+        SocketClient.addSegmentCodec(channel.pipeline(), Compression.NONE);
+
+        assertThat(handlerTypes(channel.pipeline())).containsExactly(
+                SegmentDecoder.class,
+                SegmentEncoder.class,
+                FrameDecoder.class
+        );
+    }
+
+    private static List<Class<?>> handlerTypes(ChannelPipeline pipeline)
+    {
+        List<Class<?>> types = new ArrayList<>();
+        for (Map.Entry<String, ChannelHandler> entry : pipeline)
+            types.add(entry.getValue().getClass());
+        return types;
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.requests;
+
+import com.github.adamorgan.internal.requests.ConnectionPool;
+import com.github.adamorgan.internal.requests.Requester;
+import com.github.adamorgan.internal.requests.SocketConnection;
+import io.netty.channel.ChannelHandlerContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SocketConnectionTest
+{
+    @Test
+    void testConcurrentRegistrationsRespectLimit() throws Exception
+    {
+        ConnectionPool pool = mock(ConnectionPool.class);
+        when(pool.reserveRequest()).thenReturn(true);
+        SocketConnection connection = new SocketConnection(pool, mock(ChannelHandlerContext.class), 8);
+        Requester.WorkTask task = mock(Requester.WorkTask.class);
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CyclicBarrier start = new CyclicBarrier(threads);
+        AtomicInteger registered = new AtomicInteger();
+        try
+        {
+            Future<?>[] futures = new Future<?>[threads];
+            for (int i = 0; i < threads; i++)
+            {
+                futures[i] = executor.submit(() ->
+                {
+                    start.await();
+                    for (int j = 0; j < 1000; j++)
+                    {
+                        if (connection.registerStream(task) >= 0)
+                            registered.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            for (Future<?> future : futures)
+                future.get(10, TimeUnit.SECONDS);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        assertThat(registered.get()).isEqualTo(8);
+        assertThat(connection.getInFlightCount()).isEqualTo(8);
+    }
+
+    @Test
+    void testReleaseFreesReservation()
+    {
+        ConnectionPool pool = mock(ConnectionPool.class);
+        when(pool.reserveRequest()).thenReturn(true);
+        SocketConnection connection = new SocketConnection(pool, mock(ChannelHandlerContext.class), 1);
+        Requester.WorkTask task = mock(Requester.WorkTask.class);
+
+        int stream = connection.registerStream(task);
+        assertThat(stream).isNotNegative();
+        assertThat(connection.registerStream(task)).isNegative();
+
+        assertThat(connection.releaseStream(stream)).isSameAs(task);
+        assertThat(connection.getInFlightCount()).isZero();
+        assertThat(connection.registerStream(task)).isNotNegative();
+    }
+}
@@ -0,0 +1,106 @@
+package com.github.requests;
+
+import com.github.adamorgan.api.utils.SslUtil;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.*;
+import io.netty.channel.nio.NioIoHandler;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.ssl.util.SelfSignedCertificate;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class SslTest
+{
+    @Test
+    void testClientContext() throws Exception
+    {
+        SslContext context = SslUtil.forClient().build();
+
+        assertThat(context.isClient()).isTrue();
+        assertThat(context.sessionCacheSize()).isEqualTo(SslUtil.DEFAULT_SESSION_CACHE_SIZE);
+    }
+
+    @Test
+    void testReconnectResumesSession() throws Exception
+    {
+        SelfSignedCertificate certificate;
+        try
+        {
+            certificate = new SelfSignedCertificate("localhost");
+        }
+        catch (Exception ex)
+        {
+            assumeTrue(false, "Cannot create a self signed certificate: " + ex);
+            return;
+        }
+
+        // TLS 1.2 keeps the session id across resumption, which makes it observable
+        SslContext serverContext = SslContextBuilder.forServer(certificate.certificate(), certificate.privateKey())
+                .protocols("TLSv1.2")
+                .build();
+        SslContext clientContext = SslUtil.forClient()
+                .trustManager(certificate.cert())
+                .protocols("TLSv1.2")
+                .build();
+
+        EventLoopGroup group = new MultiThreadIoEventLoopGroup(1, NioIoHandler.newFactory());
+        try
+        {
+            Channel server = new ServerBootstrap().group(group)
+                    .channel(NioServerSocketChannel.class)
+                    .childHandler(new ChannelInitializer<Channel>()
+                    {
+                        @Override
+                        protected void initChannel(Channel channel)
+                        {
+                            channel.pipeline().addLast(serverContext.newHandler(channel.alloc()));
+                        }
+                    })
+                    .bind("localhost", 0).sync().channel();
+            int port = ((InetSocketAddress) server.localAddress()).getPort();
+
+            byte[] first = handshake(group, clientContext, port);
+            byte[] second = handshake(group, clientContext, port);
+
+            assertThat(second).isEqualTo(first);
+
+            server.close().sync();
+        }
+        finally
+        {
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+            certificate.delete();
+        }
+    }
+
+    private static byte[] handshake(EventLoopGroup group, SslContext context, int port) throws Exception
+    {
+        Channel channel = new Bootstrap().group(group)
+                .channel(NioSocketChannel.class)
+                .handler(new ChannelInitializer<Channel>()
+                {
+                    @Override
+                    protected void initChannel(Channel channel)
+                    {
+                        channel.pipeline().addLast(context.newHandler(channel.alloc(), "localhost", port));
+                    }
+                })
+                .connect("localhost", port).sync().channel();
+
+        SslHandler handler = channel.pipeline().get(SslHandler.class);
+        handler.handshakeFuture().sync();
+        byte[] id = handler.engine().getSession().getId();
+        channel.close().sync();
+        return id;
+    }
+}
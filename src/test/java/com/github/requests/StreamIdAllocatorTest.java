@@ -0,0 +1,45 @@
+package com.github.requests;
+
+import com.github.adamorgan.internal.requests.SocketClient;
+import com.github.adamorgan.internal.requests.StreamIdAllocator;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class StreamIdAllocatorTest
+{
+    @Test
+    void testAcquireUniqueIds()
+    {
+        StreamIdAllocator allocator = new StreamIdAllocator();
+        Set<Integer> ids = new HashSet<>();
+
+        for (int i = 0; i < StreamIdAllocator.STREAM_COUNT - 1; i++)
+        {
+            int stream = allocator.acquire();
+            assertThat(StreamIdAllocator.isValid(stream)).isTrue();
+            assertThat(ids.add(stream)).isTrue();
+        }
+
+        assertThat(ids.contains(SocketClient.DEFAULT_STREAM_ID)).isFalse();
+        assertThat(allocator.getAvailable()).isEqualTo(0);
+        assertThat(allocator.acquire()).isEqualTo(-1);
+    }
+
+    @Test
+    void testRelease()
+    {
+        StreamIdAllocator allocator = new StreamIdAllocator();
+
+        int stream = allocator.acquire();
+        assertThat(allocator.getAllocated()).isEqualTo(1);
+        assertThat(allocator.release(stream)).isTrue();
+        assertThat(allocator.release(stream)).isFalse();
+        assertThat(allocator.release(SocketClient.DEFAULT_STREAM_ID)).isFalse();
+        assertThat(allocator.release(-1)).isFalse();
+        assertThat(allocator.getAllocated()).isEqualTo(0);
+    }
+}
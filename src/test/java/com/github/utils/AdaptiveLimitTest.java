@@ -0,0 +1,57 @@
+package com.github.utils;
+
+import com.github.adamorgan.internal.utils.AdaptiveLimit;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveLimitTest
+{
+    private static final long RTT = 1_000_000;
+
+    @Test
+    void testGrowsWhileLatencyIsFlat()
+    {
+        AdaptiveLimit limit = new AdaptiveLimit(1, 256);
+        for (int i = 0; i < 100; i++)
+            limit.onSample(RTT, limit.getLimit());
+
+        assertThat(limit.getLimit()).isEqualTo(256);
+    }
+
+    @Test
+    void testUnusedLimitDoesNotGrow()
+    {
+        AdaptiveLimit limit = new AdaptiveLimit(1, 256);
+        for (int i = 0; i < 100; i++)
+            limit.onSample(RTT, 1);
+
+        assertThat(limit.getLimit()).isEqualTo(AdaptiveLimit.INITIAL_LIMIT);
+    }
+
+    @Test
+    void testSettlesAtKnee()
+    {
+        // The server handles 64 requests at once, more requests only wait in its queue
+        AdaptiveLimit limit = new AdaptiveLimit(1, 1024);
+        for (int i = 0; i < 4000; i++)
+        {
+            int inFlight = limit.getLimit();
+            limit.onSample(RTT * Math.max(64, inFlight) / 64, inFlight);
+        }
+
+        assertThat(limit.getLimit()).isBetween(64, 128);
+    }
+
+    @Test
+    void testShrinksWhenDropped()
+    {
+        AdaptiveLimit limit = new AdaptiveLimit(4, 256);
+        limit.onDropped();
+        assertThat(limit.getLimit()).isEqualTo((int) (AdaptiveLimit.INITIAL_LIMIT * 0.9));
+
+        for (int i = 0; i < 100; i++)
+            limit.onDropped();
+        assertThat(limit.getLimit()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,134 @@
+package com.github.utils;
+
+import com.github.adamorgan.api.requests.Request;
+import com.github.adamorgan.api.requests.Response;
+import com.github.adamorgan.api.utils.CallbackExecutor;
+import com.github.adamorgan.internal.LibraryImpl;
+import com.github.adamorgan.internal.requests.action.ObjectActionImpl;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class CallbackExecutorTest
+{
+    @Test
+    void testInlineRunsOnCallingThread()
+    {
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        CallbackExecutor.INLINE.execute(() -> thread.set(Thread.currentThread()));
+
+        assertThat(CallbackExecutor.INLINE.isInline()).isTrue();
+        assertThat(thread.get()).isSameAs(Thread.currentThread());
+    }
+
+    @Test
+    void testRejectedCallbackRunsInline()
+    {
+        CallbackExecutor executor = CallbackExecutor.of(command -> { throw new RejectedExecutionException(); });
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        executor.execute(() -> thread.set(Thread.currentThread()));
+
+        assertThat(thread.get()).isSameAs(Thread.currentThread());
+        assertThat(executor.getOverflowCount()).isEqualTo(1);
+        assertThat(executor.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void testQueueDepth() throws InterruptedException
+    {
+        CallbackExecutor executor = CallbackExecutor.bounded(1, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(3);
+        try
+        {
+            for (int i = 0; i < 3; i++)
+            {
+                executor.execute(() ->
+                {
+                    try
+                    {
+                        release.await();
+                    }
+                    catch (InterruptedException ignored) {}
+                    finished.countDown();
+                });
+            }
+
+            // The first callback occupies the only thread, the other two wait in the queue
+            assertThat(executor.getQueueDepth()).isBetween(2, 3);
+            assertThat(executor.getMaxQueueDepth()).isGreaterThanOrEqualTo(2);
+
+            release.countDown();
+            assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(executor.getQueueDepth()).isZero();
+            assertThat(executor.getOverflowCount()).isZero();
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testResponseOutlivesRequesterOnOtherThread() throws InterruptedException
+    {
+        CallbackExecutor executor = CallbackExecutor.bounded(1, 2);
+        CountDownLatch released = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        AtomicReference<String> content = new AtomicReference<>();
+        try
+        {
+            ObjectActionImpl<Response> action = mock(ObjectActionImpl.class);
+            when(action.getLibrary()).thenReturn(mock(LibraryImpl.class));
+            when(action.getCallbackExecutor()).thenReturn(executor);
+            doAnswer(invocation ->
+            {
+                Request<Response> request = invocation.getArgument(0);
+                request.onSuccess(invocation.getArgument(1));
+                return null;
+            }).when(action).handleResponse(any(), any());
+
+            Request<Response> request = new Request<>(action, null, response ->
+            {
+                try
+                {
+                    released.await();
+                }
+                catch (InterruptedException ignored) {}
+                content.set(response.getBody().toString(StandardCharsets.UTF_8));
+                finished.countDown();
+            }, failure -> {}, 0);
+
+            ByteBuf body = Unpooled.buffer().writeInt(Response.Type.VOID.getOffset()).writeBytes("payload".getBytes(StandardCharsets.UTF_8));
+            request.handleResponse(new Response(mock(ChannelHandlerContext.class), 0, null, body));
+            // The requester releases its reference once the response is handled, before the callback ran
+            body.release();
+            released.countDown();
+
+            // Runs after the callback on the single thread of the executor
+            CountDownLatch idle = new CountDownLatch(1);
+            executor.execute(idle::countDown);
+
+            assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(idle.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(content.get()).isEqualTo("payload");
+            assertThat(body.refCnt()).isZero();
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+}
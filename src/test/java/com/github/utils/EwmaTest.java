@@ -0,0 +1,45 @@
+package com.github.utils;
+
+import com.github.adamorgan.internal.utils.Ewma;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class EwmaTest
+{
+    private static final long DECAY = TimeUnit.HOURS.toNanos(1);
+
+    @Test
+    void testFirstSample()
+    {
+        Ewma ewma = new Ewma(DECAY);
+        assertThat(ewma.get()).isZero();
+
+        ewma.update(1_000);
+        assertThat(ewma.get()).isCloseTo(1_000, within(1.0));
+    }
+
+    @Test
+    void testPeakIsAdoptedImmediately()
+    {
+        Ewma ewma = new Ewma(DECAY);
+        ewma.update(1_000);
+        ewma.update(50_000);
+
+        assertThat(ewma.get()).isCloseTo(50_000, within(1.0));
+    }
+
+    @Test
+    void testRecoveryIsGradual()
+    {
+        Ewma ewma = new Ewma(DECAY);
+        ewma.update(50_000);
+        ewma.update(1_000);
+
+        // With a long decay time a single fast response barely moves the average
+        assertThat(ewma.get()).isGreaterThan(49_000);
+    }
+}
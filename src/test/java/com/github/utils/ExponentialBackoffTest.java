@@ -0,0 +1,34 @@
+package com.github.utils;
+
+import com.github.adamorgan.internal.utils.ExponentialBackoff;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExponentialBackoffTest
+{
+    @Test
+    void testDelaysGrowWithinJitterWindow()
+    {
+        ExponentialBackoff backoff = new ExponentialBackoff(1000, 60_000);
+
+        long window = 1000;
+        for (int i = 0; i < 10; i++)
+        {
+            assertThat(backoff.nextDelay()).isBetween(window / 2, window);
+            window = Math.min(window * 2, 60_000);
+        }
+        assertThat(backoff.getAttempts()).isEqualTo(10);
+    }
+
+    @Test
+    void testReset()
+    {
+        ExponentialBackoff backoff = new ExponentialBackoff(1000, 60_000);
+        for (int i = 0; i < 20; i++)
+            backoff.nextDelay();
+
+        backoff.reset();
+        assertThat(backoff.nextDelay()).isBetween(500L, 1000L);
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.utils;
+
+import com.github.adamorgan.internal.utils.LatencyTracker;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LatencyTrackerTest
+{
+    @Test
+    void testPercentileNeedsEnoughSamples()
+    {
+        LatencyTracker tracker = new LatencyTracker();
+        for (int i = 1; i < LatencyTracker.MIN_SAMPLES; i++)
+            tracker.record(i);
+
+        assertThat(tracker.getPercentile(95)).isEqualTo(-1);
+    }
+
+    @Test
+    void testCustomMinimumOfSamples()
+    {
+        LatencyTracker tracker = new LatencyTracker(1);
+        assertThat(tracker.getPercentile(50)).isEqualTo(-1);
+
+        tracker.record(42);
+        assertThat(tracker.getPercentile(50)).isEqualTo(42);
+    }
+
+    @Test
+    void testPercentile()
+    {
+        LatencyTracker tracker = new LatencyTracker();
+        for (int i = 1; i <= 200; i++)
+            tracker.record(i);
+
+        assertThat(tracker.getPercentile(50)).isEqualTo(100);
+        assertThat(tracker.getPercentile(95)).isEqualTo(190);
+        assertThat(tracker.getPercentile(100)).isEqualTo(200);
+    }
+
+    @Test
+    void testOldSamplesAreOverwritten()
+    {
+        LatencyTracker tracker = new LatencyTracker();
+        for (int i = 0; i < LatencyTracker.SAMPLE_COUNT; i++)
+            tracker.record(1_000);
+        for (int i = 0; i < LatencyTracker.SAMPLE_COUNT; i++)
+            tracker.record(10);
+
+        assertThat(tracker.getPercentile(99)).isEqualTo(10);
+    }
+}
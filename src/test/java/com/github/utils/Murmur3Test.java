@@ -0,0 +1,36 @@
+package com.github.utils;
+
+import com.github.adamorgan.internal.utils.Murmur3;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class Murmur3Test
+{
+    @Test
+    void testIntKeys()
+    {
+        // Tokens reported by Cassandra for int partition keys
+        assertThat(Murmur3.getToken(Unpooled.buffer().writeInt(1))).isEqualTo(-4069959284402364209L);
+        assertThat(Murmur3.getToken(Unpooled.buffer().writeInt(2))).isEqualTo(-3248873570005575792L);
+        assertThat(Murmur3.getToken(Unpooled.buffer().writeInt(3))).isEqualTo(9010454139840013625L);
+    }
+
+    @Test
+    void testTextKey()
+    {
+        assertThat(Murmur3.getToken(Unpooled.copiedBuffer("123", StandardCharsets.UTF_8))).isEqualTo(-7468325962851647638L);
+    }
+
+    @Test
+    void testLongKeyWithNegativeTail()
+    {
+        byte[] key = new byte[20];
+        Arrays.fill(key, (byte) 0xFF);
+        assertThat(Murmur3.getToken(Unpooled.wrappedBuffer(key))).isEqualTo(6996911144616199499L);
+    }
+}
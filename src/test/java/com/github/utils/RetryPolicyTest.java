@@ -0,0 +1,45 @@
+package com.github.utils;
+
+import com.github.adamorgan.api.exceptions.ErrorResponse;
+import com.github.adamorgan.api.exceptions.ErrorResponseException;
+import com.github.adamorgan.api.requests.ObjectAction;
+import com.github.adamorgan.api.utils.RetryDecision;
+import com.github.adamorgan.api.utils.RetryPolicy;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RetryPolicyTest
+{
+    @Test
+    void testDefaultRetriesOnlyWhenSafe()
+    {
+        ObjectAction<?> write = mock(ObjectAction.class);
+        ObjectAction<?> read = mock(ObjectAction.class);
+        when(read.isIdempotent()).thenReturn(true);
+
+        assertThat(decide(write, ErrorResponse.UNAVAILABLE, 0)).isEqualTo(RetryDecision.Type.RETRY_NEXT);
+        assertThat(decide(write, ErrorResponse.OVERLOADED, 0)).isEqualTo(RetryDecision.Type.FAIL);
+        assertThat(decide(read, ErrorResponse.OVERLOADED, 0)).isEqualTo(RetryDecision.Type.RETRY_NEXT);
+        assertThat(decide(write, ErrorResponse.WRITE_TIMEOUT, 0)).isEqualTo(RetryDecision.Type.FAIL);
+        assertThat(decide(read, ErrorResponse.READ_TIMEOUT, 0)).isEqualTo(RetryDecision.Type.RETRY_SAME);
+        assertThat(decide(read, ErrorResponse.SYNTAX_ERROR, 0)).isEqualTo(RetryDecision.Type.FAIL);
+    }
+
+    @Test
+    void testDefaultRetriesOnce()
+    {
+        ObjectAction<?> read = mock(ObjectAction.class);
+        when(read.isIdempotent()).thenReturn(true);
+
+        assertThat(decide(read, ErrorResponse.UNAVAILABLE, 1)).isEqualTo(RetryDecision.Type.FAIL);
+    }
+
+    private static RetryDecision.Type decide(ObjectAction<?> action, ErrorResponse error, int retries)
+    {
+        ErrorResponseException exception = new ErrorResponseException(error, error.getCode(), error.name());
+        return RetryPolicy.DEFAULT.onError(action, exception, retries).getType();
+    }
+}
@@ -0,0 +1,144 @@
+package com.github.utils;
+
+import com.github.adamorgan.api.utils.CallbackExecutor;
+import com.github.adamorgan.internal.utils.config.ThreadingConfig;
+import io.netty.util.HashedWheelTimer;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ThreadingConfigTest
+{
+    @Test
+    void testLibrariesShareDefaultTimer()
+    {
+        assertThat(new ThreadingConfig().getTimer()).isSameAs(new ThreadingConfig().getTimer());
+    }
+
+    @Test
+    void testShutdownFromTimerTask() throws Exception
+    {
+        ThreadingConfig config = new ThreadingConfig();
+        config.setCallbackPool(null, true);
+        HashedWheelTimer timer = new HashedWheelTimer();
+        config.setTimer(timer, true);
+
+        CompletableFuture<Throwable> failure = new CompletableFuture<>();
+        timer.newTimeout(timeout ->
+        {
+            try
+            {
+                config.shutdown();
+                failure.complete(null);
+            }
+            catch (Throwable t)
+            {
+                failure.complete(t);
+            }
+        }, 1, TimeUnit.MILLISECONDS);
+
+        assertThat(failure.get(5, TimeUnit.SECONDS)).isNull();
+
+        // The timer is stopped by another thread once its task returned
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!isStopped(timer) && System.nanoTime() < deadline)
+            Thread.sleep(10);
+        assertThatThrownBy(() -> timer.newTimeout(timeout -> {}, 1, TimeUnit.MILLISECONDS)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testSharedCallbackExecutorSurvivesShutdown() throws Exception
+    {
+        CallbackExecutor executor = CallbackExecutor.bounded(1, 2);
+        try
+        {
+            ThreadingConfig first = new ThreadingConfig();
+            ThreadingConfig second = new ThreadingConfig();
+            first.setCallbackPool(null, true);
+            first.setCallbackExecutor(executor, false);
+            second.setCallbackExecutor(executor, false);
+
+            first.shutdown();
+
+            // The callbacks of the second library still run on the pool
+            CompletableFuture<Thread> thread = new CompletableFuture<>();
+            second.getCallbackExecutor().execute(() -> thread.complete(Thread.currentThread()));
+            assertThat(thread.get(5, TimeUnit.SECONDS)).isNotSameAs(Thread.currentThread());
+            assertThat(executor.getOverflowCount()).isZero();
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testCallbackExecutorWithAutomaticShutdown()
+    {
+        CallbackExecutor executor = CallbackExecutor.bounded(1, 2);
+        ThreadingConfig config = new ThreadingConfig();
+        config.setCallbackPool(null, true);
+        config.setCallbackExecutor(executor, true);
+
+        config.shutdown();
+
+        // Rejected by the terminated pool, the callback runs inline
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        executor.execute(() -> thread.set(Thread.currentThread()));
+        assertThat(thread.get()).isSameAs(Thread.currentThread());
+        assertThat(executor.getOverflowCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testDedicatedSslPoolIsShutDown()
+    {
+        ThreadingConfig config = new ThreadingConfig();
+        config.setCallbackPool(null, true);
+        config.setSslPool(null, false);
+
+        ExecutorService pool = config.getSslPool();
+        assertThat(pool).isNotNull();
+
+        config.shutdown();
+        assertThat(pool.isShutdown()).isTrue();
+    }
+
+    @Test
+    void testProvidedSslPoolIsShutDownOnlyIfRequested()
+    {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try
+        {
+            ThreadingConfig config = new ThreadingConfig();
+            config.setCallbackPool(null, true);
+            config.setSslPool(pool, false);
+
+            config.shutdown();
+            assertThat(pool.isShutdown()).isFalse();
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    private static boolean isStopped(HashedWheelTimer timer)
+    {
+        try
+        {
+            timer.newTimeout(timeout -> {}, 1, TimeUnit.DAYS).cancel();
+            return false;
+        }
+        catch (IllegalStateException ex)
+        {
+            return true;
+        }
+    }
+}
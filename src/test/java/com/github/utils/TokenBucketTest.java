@@ -0,0 +1,34 @@
+package com.github.utils;
+
+import com.github.adamorgan.internal.utils.TokenBucket;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenBucketTest
+{
+    @Test
+    void testBurstIsAvailableRightAway()
+    {
+        TokenBucket bucket = new TokenBucket(1, 5);
+
+        for (int i = 0; i < 5; i++)
+            assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+        assertThat(bucket.getAvailable()).isZero();
+    }
+
+    @Test
+    void testReserveWaitsForRefill()
+    {
+        TokenBucket bucket = new TokenBucket(10, 1);
+
+        assertThat(bucket.reserve()).isZero();
+        // Every further token is 100ms after the previous one
+        assertThat(bucket.reserve()).isBetween(TimeUnit.MILLISECONDS.toNanos(90), TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(bucket.reserve()).isBetween(TimeUnit.MILLISECONDS.toNanos(190), TimeUnit.MILLISECONDS.toNanos(200));
+        assertThat(bucket.tryAcquire()).isFalse();
+    }
+}